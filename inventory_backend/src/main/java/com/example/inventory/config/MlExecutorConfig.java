@@ -0,0 +1,33 @@
+package com.example.inventory.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Executor for request-time model work (predictions, recommendations).
+ * It has its own thread and queue limits so a burst of prediction traffic
+ * gets fast 503s instead of tying up the servlet threads that serve the
+ * catalog and orders.
+ */
+@Configuration
+public class MlExecutorConfig {
+
+    @Bean(name = "mlExecutor", destroyMethod = "shutdownNow")
+    public ThreadPoolExecutor mlExecutor(@Value("${ml.executor.threads:8}") int threads,
+                                         @Value("${ml.executor.queue-capacity:100}") int queueCapacity) {
+        AtomicInteger count = new AtomicInteger();
+        // AbortPolicy: a full queue throws RejectedExecutionException, mapped to 503
+        return new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(queueCapacity), r -> {
+                Thread t = new Thread(r, "ml-request-" + count.incrementAndGet());
+                t.setDaemon(true);
+                return t;
+            }, new ThreadPoolExecutor.AbortPolicy());
+    }
+}
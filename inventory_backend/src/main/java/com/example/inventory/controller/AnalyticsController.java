@@ -0,0 +1,50 @@
+package com.example.inventory.controller;
+
+import com.example.inventory.services.SalesRollupService;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.Locale;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/analytics")
+public class AnalyticsController {
+
+    private final SalesRollupService salesRollupService;
+
+    public AnalyticsController(SalesRollupService salesRollupService) {
+        this.salesRollupService = salesRollupService;
+    }
+
+    // Served from the sales rollups, never from the orders table
+    @GetMapping("/sales")
+    public ResponseEntity<?> getSales(
+            @RequestParam(defaultValue = "day") String groupBy,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        SalesRollupService.GroupBy grouping;
+        try {
+            grouping = SalesRollupService.GroupBy.valueOf(groupBy.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException ex) {
+            return ResponseEntity.badRequest().body(Map.of("error", "groupBy must be day, product or category"));
+        }
+        try {
+            return ResponseEntity.ok(salesRollupService.getSales(grouping, from, to));
+        } catch (IllegalArgumentException ex) {
+            return ResponseEntity.badRequest().body(Map.of("error", ex.getMessage()));
+        }
+    }
+
+    @PostMapping("/sales/rebuild")
+    public ResponseEntity<?> rebuildSales() {
+        try {
+            return ResponseEntity.ok(salesRollupService.rebuild());
+        } catch (IllegalStateException ex) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", ex.getMessage()));
+        }
+    }
+}
@@ -1,52 +1,40 @@
 package com.example.inventory.controller;
 
+import com.example.inventory.services.FeatureImportanceService;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
-import java.io.BufferedReader;
-import java.io.InputStreamReader;
+import org.springframework.web.context.request.WebRequest;
 import java.util.Map;
 
 @RestController
 @RequestMapping("/api/feature-importance")
 public class FeatureImportanceController {
 
-    @GetMapping
-    public ResponseEntity<?> getFeatureImportance() {
-        try {
-            // Build command to run Python feature importance script
-            ProcessBuilder pb = new ProcessBuilder(
-                "/opt/anaconda3/bin/python3",
-                "ml/feature_importance.py"
-            );
-            pb.directory(new java.io.File(System.getProperty("user.dir")).getParentFile());
-            pb.redirectErrorStream(true);
-
-            Process process = pb.start();
-            StringBuilder output = new StringBuilder();
-            try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream()))) {
-                String line;
-                while ((line = reader.readLine()) != null) {
-                    output.append(line);
-                }
-            }
+    private final FeatureImportanceService featureImportanceService;
 
-            int exitCode = process.waitFor();
-            if (exitCode != 0) {
-                return ResponseEntity.internalServerError()
-                    .body(Map.of("error", "Feature importance extraction failed", "details", output.toString()));
-            }
+    public FeatureImportanceController(FeatureImportanceService featureImportanceService) {
+        this.featureImportanceService = featureImportanceService;
+    }
 
-            // Parse JSON output
-            String jsonOutput = output.toString().trim();
-            
-            // Return the feature importance data
-            return ResponseEntity.ok()
-                .header("Content-Type", "application/json")
-                .body(jsonOutput);
+    @GetMapping
+    public ResponseEntity<?> getFeatureImportance(WebRequest request) {
+        FeatureImportanceService.Snapshot snapshot = featureImportanceService.getSnapshot();
+        if (snapshot == null) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .body(Map.of("error", "Feature importance has not been computed yet"));
+        }
 
-        } catch (Exception e) {
-            return ResponseEntity.internalServerError()
-                .body(Map.of("error", "Failed to extract feature importance", "details", e.getMessage()));
+        // Clients revalidate with If-None-Match and get a 304 while the model is unchanged
+        if (request.checkNotModified(snapshot.getEtag())) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(snapshot.getEtag()).build();
         }
+        return ResponseEntity.ok()
+            .eTag(snapshot.getEtag())
+            .cacheControl(CacheControl.noCache())
+            .contentType(MediaType.APPLICATION_JSON)
+            .body(snapshot.getBody());
     }
 }
@@ -1,5 +1,6 @@
 package com.example.inventory.controller;
 
+import com.example.inventory.services.MlPredictionService;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
@@ -13,11 +14,26 @@ import java.util.Map;
 @RequestMapping("/api")
 public class HealthController {
 
+    private final MlPredictionService mlPredictionService;
+
+    public HealthController(MlPredictionService mlPredictionService) {
+        this.mlPredictionService = mlPredictionService;
+    }
+
     @GetMapping("/health")
     public ResponseEntity<Map<String, Object>> health() {
         Map<String, Object> response = new HashMap<>();
         response.put("status", "UP");
         response.put("timestamp", Instant.now().toString());
+
+        // Predictions degrade to the heuristic fallback, so the app stays UP
+        Map<String, Object> ml = new HashMap<>();
+        ml.put("activeBackend", mlPredictionService.getActiveBackend());
+        Map<String, Object> breakers = new HashMap<>();
+        mlPredictionService.getBreakerMetrics().forEach((name, metrics) ->
+            breakers.put(name, ((Map<?, ?>) metrics).get("state")));
+        ml.put("breakers", breakers);
+        response.put("ml", ml);
         return ResponseEntity.ok(response);
     }
 }
@@ -1,14 +1,15 @@
 package com.example.inventory.controller;
 
 import com.example.inventory.model.OrderEntity;
-import com.example.inventory.dto.OrderDTO;
+import com.example.inventory.services.CheckoutException;
 import com.example.inventory.services.OrderService;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.Instant;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/api/orders")
@@ -35,38 +36,113 @@ public class OrderController {
         }
     }
 
+    /**
+     * Checks out a cart: {"user_id": 1, "lines": [{"product_id": 3, "quantity": 2}, ...]}.
+     * Either every line becomes an order or none does; a refused cart lists
+     * the failing lines.
+     */
+    @PostMapping("/batch")
+    public ResponseEntity<?> placeOrders(@RequestBody Map<String, Object> body) {
+        Long userId;
+        List<OrderService.OrderLine> lines = new ArrayList<>();
+        try {
+            userId = Long.valueOf(body.get("user_id").toString());
+            for (Object item : (List<?>) body.get("lines")) {
+                Map<?, ?> line = (Map<?, ?>) item;
+                Object productId = line.get("product_id");
+                lines.add(new OrderService.OrderLine(
+                    productId != null ? Long.valueOf(productId.toString()) : null,
+                    Integer.parseInt(line.get("quantity").toString())));
+            }
+        } catch (RuntimeException ex) {
+            return ResponseEntity.badRequest().body(Map.of("error",
+                "Expected user_id and lines of product_id and quantity"));
+        }
+        try {
+            List<Long> orderIds = orderService.placeOrders(userId, lines);
+            return ResponseEntity.ok(Map.of("success", true, "message", "Orders placed successfully", "orderIds", orderIds));
+        } catch (CheckoutException ex) {
+            return ResponseEntity.badRequest().body(Map.of("error", ex.getMessage(), "lines", ex.getLineErrors()));
+        } catch (IllegalArgumentException ex) {
+            return ResponseEntity.badRequest().body(Map.of("error", ex.getMessage()));
+        } catch (Exception ex) {
+            return ResponseEntity.internalServerError().body(Map.of("error", "An error occurred while processing your order"));
+        }
+    }
+
+    /**
+     * Order intake mode and, in ledger mode, reservation and write-back counters.
+     */
+    @GetMapping("/ledger/stats")
+    public ResponseEntity<Map<String, Object>> getLedgerStats() {
+        return ResponseEntity.ok(orderService.getLedgerStats());
+    }
+
+    /**
+     * Without paging parameters this returns every order as an array, as
+     * existing clients expect. With any of them it returns one keyset page,
+     * newest first: {"items": [...], "nextCursor": "..."}. from and to are
+     * ISO-8601 instants; to is exclusive.
+     */
     @GetMapping
-    public ResponseEntity<?> getAllOrders() {
+    public ResponseEntity<?> getAllOrders(@RequestParam(required = false) String cursor,
+                                          @RequestParam(required = false) Integer limit,
+                                          @RequestParam(required = false) Long userId,
+                                          @RequestParam(required = false) Long productId,
+                                          @RequestParam(required = false) Instant from,
+                                          @RequestParam(required = false) Instant to) {
         try {
-            List<OrderEntity> orders = orderService.getAllOrdersWithJoins();
-            List<OrderDTO> orderDTOs = orders.stream()
-                .map(order -> new OrderDTO(
-                    order.getId(),
-                    order.getProductName(),
-                    order.getQuantity(),
-                    order.getTimestamp(),
-                    "Pending" // Default status
-                ))
-                .collect(Collectors.toList());
-            return ResponseEntity.ok(orderDTOs);
+            if (cursor == null && limit == null && userId == null && productId == null
+                    && from == null && to == null) {
+                return ResponseEntity.ok(orderService.getOrderSummaries());
+            }
+            return ResponseEntity.ok(orderService.getOrdersPage(cursor, limit, userId, productId, from, to));
+        } catch (IllegalArgumentException ex) {
+            return ResponseEntity.badRequest().body(Map.of("error", ex.getMessage()));
         } catch (Exception ex) {
             return ResponseEntity.internalServerError().body(Map.of("error", "Failed to retrieve orders"));
         }
     }
 
+    /**
+     * A user's orders. With any of from, to, cursor or limit this returns a
+     * keyset page of the time window, newest first, read off
+     * idx_orders_user_timestamp; without them the full history as before.
+     */
     @GetMapping("/user/{userId}")
-    public ResponseEntity<?> getOrdersByUser(@PathVariable Long userId) {
+    public ResponseEntity<?> getOrdersByUser(@PathVariable Long userId,
+                                             @RequestParam(required = false) Instant from,
+                                             @RequestParam(required = false) Instant to,
+                                             @RequestParam(required = false) String cursor,
+                                             @RequestParam(required = false) Integer limit) {
         try {
-            return ResponseEntity.ok(orderService.getOrdersByUser(userId));
+            if (from == null && to == null && cursor == null && limit == null) {
+                return ResponseEntity.ok(orderService.getOrdersByUser(userId));
+            }
+            return ResponseEntity.ok(orderService.getOrdersPage(cursor, limit, userId, null, from, to));
+        } catch (IllegalArgumentException ex) {
+            return ResponseEntity.badRequest().body(Map.of("error", ex.getMessage()));
         } catch (Exception ex) {
             return ResponseEntity.internalServerError().body(Map.of("error", "Failed to retrieve user orders"));
         }
     }
 
+    /**
+     * A product's orders; paged by time window like {@link #getOrdersByUser}.
+     */
     @GetMapping("/product/{productId}")
-    public ResponseEntity<?> getOrdersByProduct(@PathVariable Long productId) {
+    public ResponseEntity<?> getOrdersByProduct(@PathVariable Long productId,
+                                                @RequestParam(required = false) Instant from,
+                                                @RequestParam(required = false) Instant to,
+                                                @RequestParam(required = false) String cursor,
+                                                @RequestParam(required = false) Integer limit) {
         try {
-            return ResponseEntity.ok(orderService.getOrdersByProduct(productId));
+            if (from == null && to == null && cursor == null && limit == null) {
+                return ResponseEntity.ok(orderService.getOrdersByProduct(productId));
+            }
+            return ResponseEntity.ok(orderService.getOrdersPage(cursor, limit, null, productId, from, to));
+        } catch (IllegalArgumentException ex) {
+            return ResponseEntity.badRequest().body(Map.of("error", ex.getMessage()));
         } catch (Exception ex) {
             return ResponseEntity.internalServerError().body(Map.of("error", "Failed to retrieve product orders"));
         }
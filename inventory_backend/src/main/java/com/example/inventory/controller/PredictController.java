@@ -1,65 +1,85 @@
 package com.example.inventory.controller;
 
+import com.example.inventory.model.Product;
+import com.example.inventory.services.MlPredictionService;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
-import java.io.BufferedReader;
-import java.io.InputStreamReader;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 
 @RestController
 @RequestMapping("/api/predict")
 public class PredictController {
 
-    @GetMapping("/{productId}")
-    public ResponseEntity<?> predictDemand(@PathVariable Long productId,
-                                           @RequestParam Integer currentStock,
-                                           @RequestParam Double price) {
-        try {
-            // Build command to run ML prediction script
-            ProcessBuilder pb = new ProcessBuilder(
-                "/opt/anaconda3/bin/python3",
-                "ml/predict.py",
-                productId.toString(),
-                currentStock.toString(),
-                price.toString()
-            );
-            pb.directory(new java.io.File(System.getProperty("user.dir")).getParentFile());
-            pb.redirectErrorStream(true);
+    private final MlPredictionService mlPredictionService;
+    private final Executor mlExecutor;
 
-            Process process = pb.start();
-            StringBuilder output = new StringBuilder();
-            try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream()))) {
-                String line;
-                while ((line = reader.readLine()) != null) {
-                    output.append(line).append("\n");
-                }
-            }
-
-            int exitCode = process.waitFor();
-            if (exitCode != 0) {
-                return ResponseEntity.internalServerError()
-                    .body(Map.of("error", "Prediction script failed", "details", output.toString()));
-            }
-
-            // Take the last non‑empty line as the prediction
-            String[] lines = output.toString().trim().split("\n");
-            String raw = "";
-            for (int i = lines.length - 1; i >= 0; i--) {
-                if (!lines[i].trim().isEmpty()) {
-                    raw = lines[i].trim();
-                    break;
-                }
-            }
-            double prediction = Double.parseDouble(raw);
+    public PredictController(MlPredictionService mlPredictionService,
+                             @Qualifier("mlExecutor") Executor mlExecutor) {
+        this.mlPredictionService = mlPredictionService;
+        this.mlExecutor = mlExecutor;
+    }
 
+    // Model calls run on mlExecutor; a full queue is answered with 503 by MlCapacityAdvice
+    @GetMapping("/{productId}")
+    public CompletableFuture<ResponseEntity<?>> predictDemand(@PathVariable Long productId,
+                                                              @RequestParam Integer currentStock,
+                                                              @RequestParam Double price) {
+        return CompletableFuture.supplyAsync(() -> {
+            Double prediction = mlPredictionService.predictDemand(productId, currentStock, price, null, null);
             return ResponseEntity.ok(Map.of(
                 "productId", productId,
                 "predictedDemand", Math.max(0, prediction)
             ));
+        }, mlExecutor);
+    }
 
-        } catch (Exception e) {
-            return ResponseEntity.internalServerError()
-                .body(Map.of("error", "Failed to run prediction", "details", e.getMessage()));
+    @PostMapping("/batch")
+    public CompletableFuture<ResponseEntity<?>> predictDemandBatch(@RequestBody List<Map<String, Object>> body) {
+        List<Product> products = new ArrayList<>(body.size());
+        try {
+            for (Map<String, Object> item : body) {
+                Product p = new Product();
+                p.setProductId(Long.valueOf(item.get("productId").toString()));
+                p.setStockLevel(Integer.valueOf(item.get("currentStock").toString()));
+                p.setPrice(Double.valueOf(item.get("price").toString()));
+                if (item.get("category") != null) p.setCategory(item.get("category").toString());
+                if (item.get("skuId") != null) p.setSkuId(item.get("skuId").toString());
+                products.add(p);
+            }
+        } catch (NullPointerException | NumberFormatException e) {
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest()
+                .body(Map.of("error", "Each item needs numeric productId, currentStock and price")));
         }
+
+        return CompletableFuture.supplyAsync(() -> {
+            List<Double> predictions = mlPredictionService.predictDemandBatch(products);
+            List<Map<String, Object>> result = new ArrayList<>(products.size());
+            for (int i = 0; i < products.size(); i++) {
+                Map<String, Object> item = new HashMap<>();
+                item.put("productId", products.get(i).getProductId());
+                item.put("predictedDemand", predictions.get(i));
+                result.add(item);
+            }
+            return ResponseEntity.ok(Map.of("predictions", result));
+        }, mlExecutor);
+    }
+
+    @GetMapping("/cache/stats")
+    public ResponseEntity<Map<String, Object>> getCacheStats() {
+        return ResponseEntity.ok(mlPredictionService.getCacheStats());
+    }
+
+    @GetMapping("/breaker")
+    public ResponseEntity<Map<String, Object>> getBreakerMetrics() {
+        Map<String, Object> response = new HashMap<>();
+        response.put("activeBackend", mlPredictionService.getActiveBackend());
+        response.put("breakers", mlPredictionService.getBreakerMetrics());
+        return ResponseEntity.ok(response);
     }
 }
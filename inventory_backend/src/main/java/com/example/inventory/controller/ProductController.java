@@ -1,30 +1,177 @@
 package com.example.inventory.controller;
 
+import com.example.inventory.dto.StockAdjustment;
 import com.example.inventory.model.Product;
+import com.example.inventory.services.CatalogCache;
+import com.example.inventory.services.CatalogExportService;
+import com.example.inventory.services.ProductImportService;
 import com.example.inventory.services.ProductService;
+import com.example.inventory.services.StockAdjustmentService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import java.io.IOException;
+import java.io.OutputStream;
 import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
 
 @RestController
 @RequestMapping("/api/products")
 public class ProductController {
 
     private final ProductService productService;
+    private final CatalogExportService catalogExportService;
+    private final ProductImportService productImportService;
+    private final StockAdjustmentService stockAdjustmentService;
 
-    public ProductController(ProductService productService) {
+    public ProductController(ProductService productService, CatalogExportService catalogExportService,
+                             ProductImportService productImportService,
+                             StockAdjustmentService stockAdjustmentService) {
         this.productService = productService;
+        this.catalogExportService = catalogExportService;
+        this.productImportService = productImportService;
+        this.stockAdjustmentService = stockAdjustmentService;
     }
 
+    /**
+     * Without paging parameters this returns the whole catalog as an array,
+     * as existing clients expect, tagged with the catalog version so polling
+     * clients get 304 Not Modified while nothing changes. With any of them it
+     * returns one keyset page: {"items": [...], "nextCursor": "..."}.
+     *
+     * <p>The list has no Last-Modified: at one-second resolution it would
+     * hide a second change within the same second from clients that only
+     * send If-Modified-Since.
+     */
     @GetMapping
-    public ResponseEntity<List<Product>> getAllProducts() {
-        return ResponseEntity.ok(productService.getAll());
+    public ResponseEntity<?> getAllProducts(@RequestParam(required = false) String cursor,
+                                            @RequestParam(required = false) Integer limit,
+                                            @RequestParam(required = false) String category,
+                                            @RequestParam(required = false) Double minPrice,
+                                            @RequestParam(required = false) Double maxPrice,
+                                            @RequestParam(required = false) Boolean inStock) {
+        if (cursor == null && limit == null && category == null && minPrice == null
+                && maxPrice == null && inStock == null) {
+            CatalogCache.Snapshot catalog = productService.getCatalog();
+            // A matching If-None-Match turns this into a 304
+            return ResponseEntity.ok()
+                .eTag(catalog.getVersion())
+                .body(catalog.getProducts());
+        }
+        try {
+            return ResponseEntity.ok(productService.getPage(cursor, limit, category, minPrice, maxPrice, inStock));
+        } catch (IllegalArgumentException ex) {
+            return ResponseEntity.badRequest().body(Map.of("error", ex.getMessage()));
+        }
     }
 
+    /**
+     * Ranked products matching every word of {@code q}; words may be
+     * prefixes or contain a small typo.
+     */
+    @GetMapping("/search")
+    public ResponseEntity<?> searchProducts(@RequestParam String q,
+                                            @RequestParam(defaultValue = "20") int limit) {
+        if (limit < 1 || limit > ProductService.MAX_PAGE_SIZE) {
+            return ResponseEntity.badRequest()
+                .body(Map.of("error", "limit must be between 1 and " + ProductService.MAX_PAGE_SIZE));
+        }
+        return ResponseEntity.ok(productService.search(q, limit));
+    }
+
+    /**
+     * Per-category product count, stock total, stock value and low-stock count.
+     */
+    @GetMapping("/facets")
+    public ResponseEntity<Map<String, Object>> getFacets() {
+        return ResponseEntity.ok(productService.getFacets());
+    }
+
+    @GetMapping("/search/stats")
+    public ResponseEntity<Map<String, Object>> getSearchStats() {
+        return ResponseEntity.ok(productService.getSearchStats());
+    }
+
+    /**
+     * Bulk upsert on skuId. The body is read as a stream: CSV with a header
+     * row (text/csv) or one JSON object per line (application/x-ndjson).
+     * Invalid rows are skipped and listed in the response.
+     */
+    @PostMapping(value = "/import", consumes = { "text/csv", "application/x-ndjson" })
+    public ResponseEntity<?> importProducts(HttpServletRequest request) {
+        ProductImportService.Format format = request.getContentType().toLowerCase().startsWith("text/csv")
+            ? ProductImportService.Format.CSV
+            : ProductImportService.Format.NDJSON;
+        try {
+            return ResponseEntity.ok(productImportService.importProducts(request.getInputStream(), format));
+        } catch (IllegalArgumentException ex) {
+            return ResponseEntity.badRequest().body(Map.of("error", ex.getMessage()));
+        } catch (IOException ex) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Failed to read request body"));
+        }
+    }
+
+    /**
+     * Changes the stock of many products in one transaction. Each entry names
+     * a productId or skuId and gives a delta or an absolute stockLevel, plus
+     * an optional reason. All entries are applied or none.
+     */
+    @PostMapping("/stock-adjustments")
+    public ResponseEntity<?> adjustStock(@RequestBody List<StockAdjustment> adjustments) {
+        try {
+            return ResponseEntity.ok(stockAdjustmentService.apply(adjustments));
+        } catch (IllegalArgumentException ex) {
+            return ResponseEntity.badRequest().body(Map.of("error", ex.getMessage()));
+        }
+    }
+
+    /**
+     * Full catalog as NDJSON, streamed from a database cursor. Gzipped when
+     * the client sends Accept-Encoding: gzip.
+     */
+    @GetMapping("/export")
+    public void exportProducts(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        String acceptEncoding = request.getHeader(HttpHeaders.ACCEPT_ENCODING);
+        boolean gzip = acceptEncoding != null && acceptEncoding.toLowerCase().contains("gzip");
+        response.setContentType("application/x-ndjson");
+        response.setCharacterEncoding("UTF-8");
+        response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        OutputStream out = response.getOutputStream();
+        if (gzip) {
+            // syncFlush so each flushed batch of rows reaches the client
+            try (GZIPOutputStream compressed = new GZIPOutputStream(out, 8192, true)) {
+                catalogExportService.exportNdjson(compressed);
+            }
+        } else {
+            catalogExportService.exportNdjson(out);
+        }
+        out.flush();
+    }
+
+    @GetMapping("/cache/stats")
+    public ResponseEntity<Map<String, Object>> getCacheStats() {
+        return ResponseEntity.ok(productService.getCacheStats());
+    }
+
+    /**
+     * Tagged with the product id and version; conditional requests get 304.
+     */
     @GetMapping("/{id}")
     public ResponseEntity<Product> getProductById(@PathVariable Long id) {
         Product product = productService.getById(id);
-        return ResponseEntity.ok(product);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok().eTag(etag(product));
+        if (product.getLastModified() != null) {
+            response.lastModified(product.getLastModified());
+        }
+        return response.body(product);
     }
 
     @PostMapping
@@ -33,10 +180,56 @@ public class ProductController {
         return ResponseEntity.ok(createdProduct);
     }
 
+    /**
+     * With If-Match set to the product's ETag the update only applies if the
+     * product is unchanged since it was read, otherwise 412. Without it the
+     * update is unconditional.
+     */
     @PutMapping("/{id}")
-    public ResponseEntity<Product> updateProduct(@PathVariable Long id, @RequestBody Product product) {
-        Product updatedProduct = productService.update(id, product);
-        return ResponseEntity.ok(updatedProduct);
+    public ResponseEntity<?> updateProduct(@PathVariable Long id, @RequestBody Product product,
+                                           @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        Long expectedVersion = null;
+        if (ifMatch != null && !ifMatch.trim().equals("*")) {
+            expectedVersion = versionOf(id, ifMatch);
+            if (expectedVersion == null) {
+                return preconditionFailed();
+            }
+        }
+        try {
+            Product updatedProduct = productService.update(id, product, expectedVersion);
+            return ResponseEntity.ok().eTag(etag(updatedProduct)).body(updatedProduct);
+        } catch (OptimisticLockingFailureException ex) {
+            return preconditionFailed();
+        }
+    }
+
+    private static String etag(Product product) {
+        return product.getId() + "-" + product.getVersion();
+    }
+
+    /**
+     * @return the version in an If-Match of this product's ETag, or null if it names another entity
+     */
+    static Long versionOf(Long id, String ifMatch) {
+        String tag = ifMatch.trim();
+        if (tag.startsWith("W/")) {
+            tag = tag.substring(2);
+        }
+        tag = tag.replace("\"", "");
+        String prefix = id + "-";
+        if (!tag.startsWith(prefix)) {
+            return null;
+        }
+        try {
+            return Long.valueOf(tag.substring(prefix.length()));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static ResponseEntity<?> preconditionFailed() {
+        return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED)
+            .body(Map.of("error", "Product was changed since it was read"));
     }
 
     @DeleteMapping("/{id}")
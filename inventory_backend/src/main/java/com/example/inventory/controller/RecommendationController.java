@@ -2,12 +2,15 @@ package com.example.inventory.controller;
 
 import com.example.inventory.model.Product;
 import com.example.inventory.services.RecommendationService;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 import java.util.stream.Collectors;
 
 @RestController
@@ -15,17 +18,23 @@ import java.util.stream.Collectors;
 public class RecommendationController {
     
     private final RecommendationService recommendationService;
+    private final Executor mlExecutor;
     
-    public RecommendationController(RecommendationService recommendationService) {
+    public RecommendationController(RecommendationService recommendationService,
+                                    @Qualifier("mlExecutor") Executor mlExecutor) {
         this.recommendationService = recommendationService;
+        this.mlExecutor = mlExecutor;
     }
     
     @GetMapping
-    public ResponseEntity<List<Map<String, Object>>> getRecommendations(
+    public CompletableFuture<ResponseEntity<List<Map<String, Object>>>> getRecommendations(
             @RequestParam(defaultValue = "10") int limit) {
-        List<RecommendationService.ProductRecommendation> recommendations = 
-            recommendationService.getRecommendations(limit);
-        
+        // Scoring may call the model when the ranking is not ready, keep it off the servlet threads
+        return CompletableFuture.supplyAsync(() -> toResponse(recommendationService.getRecommendations(limit)), mlExecutor);
+    }
+    
+    private ResponseEntity<List<Map<String, Object>>> toResponse(
+            List<RecommendationService.ProductRecommendation> recommendations) {
         List<Map<String, Object>> result = recommendations.stream()
             .map(rec -> {
                 Map<String, Object> item = new HashMap<>();
@@ -38,6 +47,7 @@ public class RecommendationController {
                 item.put("description", p.getDescription());
                 item.put("imageUrl", p.getImageUrl());
                 item.put("predictedDemand", rec.getPredictedDemand());
+                item.put("predictionSource", rec.isModelScored() ? "model" : "fallback");
                 return item;
             })
             .collect(Collectors.toList());
@@ -45,6 +55,11 @@ public class RecommendationController {
         return ResponseEntity.ok(result);
     }
     
+    @GetMapping("/ranking/status")
+    public ResponseEntity<Map<String, Object>> getRankingStatus() {
+        return ResponseEntity.ok(recommendationService.getRankingStatus());
+    }
+    
     @GetMapping("/featured")
     public ResponseEntity<List<Product>> getFeaturedProducts(
             @RequestParam(defaultValue = "12") int limit) {
@@ -53,8 +68,9 @@ public class RecommendationController {
     
     @GetMapping("/low-stock")
     public ResponseEntity<List<Product>> getLowStockProducts(
-            @RequestParam(defaultValue = "10") int threshold) {
-        return ResponseEntity.ok(recommendationService.getLowStockProducts(threshold));
+            @RequestParam(defaultValue = "10") int threshold,
+            @RequestParam(required = false) Integer limit) {
+        return ResponseEntity.ok(recommendationService.getLowStockProducts(threshold, limit));
     }
 }
 
@@ -11,6 +11,11 @@ public class OrderDTO {
 
     public OrderDTO() {}
 
+    // Used by the projection query in OrderRepositoryImpl
+    public OrderDTO(Long id, String productName, Integer quantity, Instant timestamp) {
+        this(id, productName, quantity, timestamp, "Pending");
+    }
+
     public OrderDTO(Long id, String productName, Integer quantity, Instant timestamp, String status) {
         this.id = id;
         this.productName = productName;
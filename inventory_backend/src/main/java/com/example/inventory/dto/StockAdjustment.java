@@ -0,0 +1,63 @@
+package com.example.inventory.dto;
+
+/**
+ * One entry of POST /api/products/stock-adjustments. The product is named by
+ * productId or skuId; exactly one of delta and stockLevel is given.
+ */
+public class StockAdjustment {
+    private Long productId;
+    private String skuId;
+    private Integer delta;
+    private Integer stockLevel;
+    private String reason;
+
+    public StockAdjustment() {}
+
+    public StockAdjustment(Long productId, String skuId, Integer delta, Integer stockLevel, String reason) {
+        this.productId = productId;
+        this.skuId = skuId;
+        this.delta = delta;
+        this.stockLevel = stockLevel;
+        this.reason = reason;
+    }
+
+    public Long getProductId() {
+        return productId;
+    }
+
+    public void setProductId(Long productId) {
+        this.productId = productId;
+    }
+
+    public String getSkuId() {
+        return skuId;
+    }
+
+    public void setSkuId(String skuId) {
+        this.skuId = skuId;
+    }
+
+    public Integer getDelta() {
+        return delta;
+    }
+
+    public void setDelta(Integer delta) {
+        this.delta = delta;
+    }
+
+    public Integer getStockLevel() {
+        return stockLevel;
+    }
+
+    public void setStockLevel(Integer stockLevel) {
+        this.stockLevel = stockLevel;
+    }
+
+    public String getReason() {
+        return reason;
+    }
+
+    public void setReason(String reason) {
+        this.reason = reason;
+    }
+}
@@ -5,7 +5,15 @@ import com.fasterxml.jackson.annotation.JsonIgnore;
 import java.time.Instant;
 
 @Entity
-@Table(name = "orders")
+@Table(name = "orders", indexes = {
+    // Orders whose stock decrement is not yet in products.stock_level, see StockLedger
+    @Index(name = "idx_orders_stock_settled", columnList = "stock_settled"),
+    // Keyset pages of GET /api/orders, newest first
+    @Index(name = "idx_orders_timestamp_id", columnList = "timestamp, order_id"),
+    // History of one user or one product in a time window, in keyset order
+    @Index(name = "idx_orders_user_timestamp", columnList = "user_id, timestamp, order_id"),
+    @Index(name = "idx_orders_product_timestamp", columnList = "product_id, timestamp, order_id")
+})
 public class OrderEntity {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -28,6 +36,11 @@ public class OrderEntity {
     @Column(nullable = false, updatable = false)
     private Instant timestamp = Instant.now();
 
+    // False while the stock reserved in memory has not been written to the product
+    @Column(name = "stock_settled", nullable = false, columnDefinition = "boolean default true not null")
+    @JsonIgnore
+    private boolean stockSettled = true;
+
     @PrePersist
     protected void onCreate() {
         if (timestamp == null) {
@@ -85,6 +98,14 @@ public class OrderEntity {
         this.timestamp = timestamp;
     }
     
+    public boolean isStockSettled() {
+        return stockSettled;
+    }
+
+    public void setStockSettled(boolean stockSettled) {
+        this.stockSettled = stockSettled;
+    }
+    
     // Helper methods to get IDs from relationships
     public Long getUserId() {
         return user != null ? user.getUserId() : null;
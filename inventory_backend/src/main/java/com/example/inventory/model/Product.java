@@ -1,10 +1,21 @@
 package com.example.inventory.model;
 
+import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.persistence.*;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.time.Instant;
 import java.util.Objects;
 
 @Entity
-@Table(name = "products")
+@Table(name = "products", indexes = {
+    // Keyset pages filtered by category walk this index in product_id order
+    @Index(name = "idx_products_category_id", columnList = "category, product_id"),
+    // Low-stock alerts: range scan on stock_level, ties in id order
+    @Index(name = "idx_products_stock_id", columnList = "stock_level, product_id"),
+    // Featured products: top-K read straight off the index in sort order
+    @Index(name = "idx_products_stock_price", columnList = "stock_level DESC, price ASC")
+})
 public class Product {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -32,6 +43,18 @@ public class Product {
     @Column(name = "sku_id", unique = true, length = 50)
     private String skuId; // For ML model integration
 
+    // Bumped on every update, also by the JDBC bulk paths; part of the ETag.
+    // Clients send it back as If-Match, a version in a request body is ignored
+    @Version
+    @Column(nullable = false, columnDefinition = "bigint default 0 not null")
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private Long version;
+
+    @UpdateTimestamp
+    @Column(name = "last_modified")
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private Instant lastModified;
+
     // For backward compatibility
     public Long getProductId() {
         return id;
@@ -105,6 +128,22 @@ public class Product {
         this.skuId = skuId;
     }
     
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
+    public Instant getLastModified() {
+        return lastModified;
+    }
+
+    public void setLastModified(Instant lastModified) {
+        this.lastModified = lastModified;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -0,0 +1,87 @@
+package com.example.inventory.model;
+
+import jakarta.persistence.*;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.util.Objects;
+
+/**
+ * Units and revenue of one product on one UTC day, kept up to date as orders
+ * are placed; see SalesRollupService. Category and revenue use the product's
+ * category and price when the order was rolled up.
+ */
+@Entity
+@Table(name = "sales_daily")
+@IdClass(SalesDaily.Key.class)
+public class SalesDaily {
+    @Id
+    @Column(nullable = false)
+    private LocalDate day;
+
+    @Id
+    @Column(name = "product_id", nullable = false)
+    private Long productId;
+
+    @Column(length = 100)
+    private String category;
+
+    @Column(nullable = false)
+    private long units;
+
+    @Column(nullable = false)
+    private double revenue;
+
+    @Column(name = "order_count", nullable = false)
+    private long orderCount;
+
+    public LocalDate getDay() {
+        return day;
+    }
+
+    public Long getProductId() {
+        return productId;
+    }
+
+    public String getCategory() {
+        return category;
+    }
+
+    public long getUnits() {
+        return units;
+    }
+
+    public double getRevenue() {
+        return revenue;
+    }
+
+    public long getOrderCount() {
+        return orderCount;
+    }
+
+    public static class Key implements Serializable {
+        private LocalDate day;
+        private Long productId;
+
+        public Key() {
+        }
+
+        public Key(LocalDate day, Long productId) {
+            this.day = day;
+            this.productId = productId;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key)) return false;
+            Key key = (Key) o;
+            return Objects.equals(day, key.day) && Objects.equals(productId, key.productId);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(day, productId);
+        }
+    }
+}
@@ -7,7 +7,7 @@ import org.springframework.stereotype.Repository;
 import java.util.List;
 
 @Repository
-public interface OrderRepository extends JpaRepository<OrderEntity, Long> {
+public interface OrderRepository extends JpaRepository<OrderEntity, Long>, OrderRepositoryCustom {
     List<OrderEntity> findByUser_Id(Long userId);
     List<OrderEntity> findByProduct_Id(Long productId);
 }
\ No newline at end of file
@@ -0,0 +1,25 @@
+package com.example.inventory.repository;
+
+import com.example.inventory.dto.OrderDTO;
+
+import java.time.Instant;
+import java.util.List;
+
+public interface OrderRepositoryCustom {
+
+    /**
+     * Orders newest first, projected straight into {@link OrderDTO} with one
+     * join to products. Keyset paged on (timestamp, order_id); only the
+     * filters that are set become predicates.
+     *
+     * @param beforeTimestamp with {@code beforeId}, the last order of the previous page, or null
+     * @param beforeId        order id of the last order of the previous page, or null
+     * @param userId          orders of this user, or null
+     * @param productId       orders of this product, or null
+     * @param from            inclusive lower timestamp bound, or null
+     * @param to              exclusive upper timestamp bound, or null
+     * @param limit           maximum number of orders, or null for all
+     */
+    List<OrderDTO> findPage(Instant beforeTimestamp, Long beforeId, Long userId, Long productId,
+                            Instant from, Instant to, Integer limit);
+}
@@ -0,0 +1,62 @@
+package com.example.inventory.repository;
+
+import com.example.inventory.dto.OrderDTO;
+import com.example.inventory.model.OrderEntity;
+import com.example.inventory.model.Product;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.*;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+public class OrderRepositoryImpl implements OrderRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<OrderDTO> findPage(Instant beforeTimestamp, Long beforeId, Long userId, Long productId,
+                                   Instant from, Instant to, Integer limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<OrderDTO> query = cb.createQuery(OrderDTO.class);
+        Root<OrderEntity> order = query.from(OrderEntity.class);
+        Join<OrderEntity, Product> product = order.join("product");
+        Path<Instant> timestamp = order.get("timestamp");
+        Path<Long> id = order.get("id");
+
+        List<Predicate> where = new ArrayList<>();
+        if (beforeTimestamp != null && beforeId != null) {
+            // Redundant with the OR below, but only this bound lets the (timestamp, order_id)
+            // indexes start the scan at the cursor instead of at the newest order
+            where.add(cb.lessThanOrEqualTo(timestamp, beforeTimestamp));
+            where.add(cb.or(
+                cb.lessThan(timestamp, beforeTimestamp),
+                cb.and(cb.equal(timestamp, beforeTimestamp), cb.lessThan(id, beforeId))));
+        }
+        if (userId != null) {
+            // Compares the foreign key column, users is not joined
+            where.add(cb.equal(order.get("user").get("id"), userId));
+        }
+        if (productId != null) {
+            where.add(cb.equal(product.get("id"), productId));
+        }
+        if (from != null) {
+            where.add(cb.greaterThanOrEqualTo(timestamp, from));
+        }
+        if (to != null) {
+            where.add(cb.lessThan(timestamp, to));
+        }
+
+        query.select(cb.construct(OrderDTO.class, id, product.get("name"), order.get("quantity"), timestamp))
+            .where(where.toArray(new Predicate[0]))
+            .orderBy(cb.desc(timestamp), cb.desc(id));
+        TypedQuery<OrderDTO> typed = entityManager.createQuery(query);
+        if (limit != null) {
+            typed.setMaxResults(limit);
+        }
+        return typed.getResultList();
+    }
+}
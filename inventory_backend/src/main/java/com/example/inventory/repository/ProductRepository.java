@@ -1,9 +1,40 @@
 package com.example.inventory.repository;
 
 import com.example.inventory.model.Product;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.Instant;
+import java.util.List;
+
 @Repository
-public interface ProductRepository extends JpaRepository<Product, Long> {
-}
\ No newline at end of file
+public interface ProductRepository extends JpaRepository<Product, Long>, ProductRepositoryCustom {
+
+    /**
+     * Well stocked, priced products, most stock first then cheapest.
+     * Reads idx_products_stock_price in order and stops after {@code limit} rows.
+     */
+    List<Product> findByStockLevelGreaterThanAndPriceGreaterThanOrderByStockLevelDescPriceAsc(
+        int minStockExclusive, double minPriceExclusive, Limit limit);
+
+    /**
+     * Products at or below {@code threshold}, lowest stock first.
+     * A range scan on idx_products_stock_id.
+     */
+    List<Product> findByStockLevelLessThanEqualOrderByStockLevelAscIdAsc(int threshold, Limit limit);
+
+    /**
+     * Takes {@code quantity} off the stock in one statement, only if that much
+     * is available. The row lock is held just for this update, and concurrent
+     * callers re-check the condition against the committed level.
+     * @return 1 if the stock was reserved, 0 if the product is missing or short
+     */
+    @Modifying
+    @Query("UPDATE Product p SET p.stockLevel = p.stockLevel - :quantity, p.version = p.version + 1, " +
+           "p.lastModified = :now WHERE p.id = :id AND p.stockLevel >= :quantity")
+    int decrementStock(@Param("id") Long id, @Param("quantity") int quantity, @Param("now") Instant now);
+}
@@ -0,0 +1,23 @@
+package com.example.inventory.repository;
+
+import com.example.inventory.model.Product;
+
+import java.util.List;
+
+public interface ProductRepositoryCustom {
+
+    /**
+     * Keyset page of products ordered by id. Only the filters that are set
+     * become predicates, so the query stays a range scan on the primary key
+     * (or the category index) and never uses OFFSET.
+     *
+     * @param afterId  return products with a larger id, or null for the first page
+     * @param category exact category, or null
+     * @param minPrice inclusive lower price bound, or null
+     * @param maxPrice inclusive upper price bound, or null
+     * @param inStock  true for products with stock, false for those without, or null
+     * @param limit    maximum number of products
+     */
+    List<Product> findPage(Long afterId, String category, Double minPrice, Double maxPrice,
+                           Boolean inStock, int limit);
+}
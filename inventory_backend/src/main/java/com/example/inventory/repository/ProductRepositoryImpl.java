@@ -0,0 +1,52 @@
+package com.example.inventory.repository;
+
+import com.example.inventory.model.Product;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class ProductRepositoryImpl implements ProductRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<Product> findPage(Long afterId, String category, Double minPrice, Double maxPrice,
+                                  Boolean inStock, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Product> query = cb.createQuery(Product.class);
+        Root<Product> product = query.from(Product.class);
+
+        List<Predicate> where = new ArrayList<>();
+        if (afterId != null) {
+            where.add(cb.greaterThan(product.get("id"), afterId));
+        }
+        if (category != null) {
+            where.add(cb.equal(product.get("category"), category));
+        }
+        if (minPrice != null) {
+            where.add(cb.greaterThanOrEqualTo(product.get("price"), minPrice));
+        }
+        if (maxPrice != null) {
+            where.add(cb.lessThanOrEqualTo(product.get("price"), maxPrice));
+        }
+        if (inStock != null) {
+            where.add(inStock
+                ? cb.greaterThan(product.get("stockLevel"), 0)
+                : cb.or(cb.isNull(product.get("stockLevel")), cb.lessThanOrEqualTo(product.get("stockLevel"), 0)));
+        }
+
+        query.select(product)
+            .where(where.toArray(new Predicate[0]))
+            .orderBy(cb.asc(product.get("id")));
+        return entityManager.createQuery(query)
+            .setMaxResults(limit)
+            .getResultList();
+    }
+}
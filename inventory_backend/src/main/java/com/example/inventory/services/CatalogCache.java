@@ -0,0 +1,240 @@
+package com.example.inventory.services;
+
+import com.example.inventory.model.Product;
+import com.example.inventory.repository.ProductRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * In-process copy of the product catalog.
+ *
+ * <p>Products live in a map sorted by id. A product change replaces that
+ * one entry and moves the catalog version, without locks or copying, so
+ * order intake pays O(log n) per changed product. The full list is
+ * materialized on the first read after a change and shared by every read
+ * until the next one, which coalesces any number of changes into one copy.
+ *
+ * <p>The version is a counter that moves on each change. Together with the
+ * instance epoch it identifies the catalog contents served by this
+ * process, which makes it usable as an ETag.
+ */
+@Component
+public class CatalogCache {
+    private static final Logger logger = LoggerFactory.getLogger(CatalogCache.class);
+
+    private final ProductRepository productRepository;
+
+    private final ConcurrentSkipListMap<Long, Product> products = new ConcurrentSkipListMap<>();
+    private volatile boolean loaded;
+    private final AtomicReference<Stamp> stamp = new AtomicReference<>(new Stamp(0, Instant.now()));
+    private volatile Snapshot snapshot;
+    private final Object materializeLock = new Object();
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong updates = new AtomicLong();
+    private final AtomicLong materializations = new AtomicLong();
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private volatile Instant loadedAt;
+
+    public CatalogCache(ProductRepository productRepository) {
+        this.productRepository = productRepository;
+    }
+
+    /**
+     * All products ordered by id. The list is read-only.
+     */
+    public List<Product> getAll() {
+        return snapshot().products;
+    }
+
+    /**
+     * The current catalog with its version. Read products, version and
+     * time from the same snapshot so they agree with each other.
+     */
+    public Snapshot snapshot() {
+        if (!loaded) {
+            misses.incrementAndGet();
+            load();
+        } else {
+            hits.incrementAndGet();
+        }
+        // Read before copying: a change racing the copy gets a newer stamp, never an older one
+        Stamp current = stamp.get();
+        Snapshot s = snapshot;
+        if (s != null && s.stamp == current) {
+            return s;
+        }
+        synchronized (materializeLock) {
+            s = snapshot;
+            current = stamp.get();
+            if (s == null || s.stamp != current) {
+                s = new Snapshot(List.copyOf(products.values()), current, epoch);
+                snapshot = s;
+                materializations.incrementAndGet();
+            }
+            return s;
+        }
+    }
+
+    /**
+     * @return the product, or empty if it does not exist
+     */
+    public Optional<Product> getById(Long id) {
+        if (!loaded) {
+            load();
+        }
+        Product product = products.get(id);
+        if (product != null) {
+            hits.incrementAndGet();
+            return Optional.of(product);
+        }
+        // Written outside the services that publish change events, e.g. seeding.
+        // Not cached: the list and its version would no longer match what reads return.
+        // The product joins the catalog with its next change event or reload.
+        misses.incrementAndGet();
+        return productRepository.findById(id);
+    }
+
+    /**
+     * The cached product, or null if the catalog does not hold it. Never
+     * queries the product by id; listeners that run after this cache use
+     * it to read the state this cache just refreshed.
+     */
+    Product getCached(Long id) {
+        if (!loaded) {
+            load();
+        }
+        return products.get(id);
+    }
+
+    // Runs before the other listeners, which may read the catalog
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChange(ProductChangeEvent event) {
+        if (event.getProductId() != null) {
+            refresh(event.getProductId());
+        } else {
+            invalidate();
+        }
+    }
+
+    /**
+     * Drops the catalog; the next read loads it again.
+     */
+    public void invalidate() {
+        synchronized (this) {
+            loaded = false;
+            products.clear();
+        }
+        snapshot = null;
+        nextStamp();
+    }
+
+    public Map<String, Object> getStats() {
+        long h = hits.get();
+        long m = misses.get();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("loaded", loaded);
+        stats.put("size", products.size());
+        stats.put("version", loaded ? version(stamp.get(), epoch) : null);
+        stats.put("hits", h);
+        stats.put("misses", m);
+        stats.put("hitRate", h + m == 0 ? 0.0 : (double) h / (h + m));
+        stats.put("updates", updates.get());
+        stats.put("materializations", materializations.get());
+        stats.put("loadedAt", loadedAt != null ? loadedAt.toString() : null);
+        return stats;
+    }
+
+    private synchronized void load() {
+        if (loaded) {
+            return;
+        }
+        products.clear();
+        for (Product p : productRepository.findAll()) {
+            products.put(p.getId(), p);
+        }
+        loaded = true;
+        loadedAt = Instant.now();
+        nextStamp();
+        logger.info("Catalog cache loaded {} products", products.size());
+    }
+
+    private void refresh(Long productId) {
+        if (!loaded) {
+            // Wait out a load in progress, which may have read the catalog before this change
+            synchronized (this) {
+                if (!loaded) {
+                    // Loaded on first read, which will see this change
+                    return;
+                }
+            }
+        }
+        Optional<Product> product = productRepository.findById(productId);
+        if (product.isPresent()) {
+            Product fresh = product.get();
+            // Two refreshes of one product may finish out of order, keep the later version
+            products.merge(productId, fresh, (old, p) -> isNewer(p, old) ? p : old);
+        } else {
+            products.remove(productId);
+        }
+        nextStamp();
+        updates.incrementAndGet();
+    }
+
+    private static boolean isNewer(Product candidate, Product current) {
+        return candidate.getVersion() == null || current.getVersion() == null
+            || candidate.getVersion() >= current.getVersion();
+    }
+
+    private void nextStamp() {
+        stamp.updateAndGet(s -> new Stamp(s.counter + 1, Instant.now()));
+    }
+
+    private static String version(Stamp stamp, String epoch) {
+        return epoch + "-" + stamp.counter;
+    }
+
+    /** Catalog version counter and the time it last moved. */
+    private record Stamp(long counter, Instant at) {}
+
+    /**
+     * Immutable catalog contents. The version changes whenever the contents do.
+     */
+    public static final class Snapshot {
+        final List<Product> products;
+        final Stamp stamp;
+        final String version;
+
+        Snapshot(List<Product> products, Stamp stamp, String epoch) {
+            this.products = products;
+            this.stamp = stamp;
+            this.version = version(stamp, epoch);
+        }
+
+        /** All products ordered by id, read-only. */
+        public List<Product> getProducts() {
+            return products;
+        }
+
+        public String getVersion() {
+            return version;
+        }
+
+        /** When the catalog last changed. */
+        public Instant getCreatedAt() {
+            return stamp.at;
+        }
+    }
+}
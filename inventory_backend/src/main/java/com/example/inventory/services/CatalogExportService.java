@@ -0,0 +1,99 @@
+package com.example.inventory.services;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Streams the product table as NDJSON, one product per line.
+ *
+ * <p>Rows are read through a forward-only JDBC cursor and written through
+ * Jackson's streaming generator as they arrive, so memory use does not
+ * grow with the table. The PostgreSQL driver only honours the fetch size
+ * with autocommit off, hence the read-only transaction.
+ */
+@Service
+public class CatalogExportService {
+    private static final Logger logger = LoggerFactory.getLogger(CatalogExportService.class);
+
+    private static final String EXPORT_SQL =
+        "SELECT product_id, name, category, price, stock_level, description, image_url, sku_id " +
+        "FROM products ORDER BY product_id";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+
+    public CatalogExportService(DataSource dataSource, ObjectMapper objectMapper,
+                                @Value("${catalog.export.fetch-size:1000}") int fetchSize) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(fetchSize);
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Writes every product to {@code out}. The stream is flushed but not closed.
+     * @return the number of products written
+     */
+    @Transactional(readOnly = true)
+    public long exportNdjson(OutputStream out) throws IOException {
+        long[] count = { 0 };
+        try (JsonGenerator json = objectMapper.getFactory().createGenerator(out)) {
+            json.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            // Lines are separated explicitly, not by the default root separator
+            json.setRootValueSeparator(null);
+            jdbcTemplate.query(EXPORT_SQL, rs -> {
+                try {
+                    writeProduct(json, rs);
+                    // Hand complete chunks to the client as the generator buffer fills
+                    if (++count[0] % 500 == 0) {
+                        json.flush();
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            json.flush();
+        } catch (UncheckedIOException e) {
+            // Usually the client went away mid-export
+            logger.warn("Catalog export aborted after {} products: {}", count[0], e.getCause().getMessage());
+            throw e.getCause();
+        }
+        return count[0];
+    }
+
+    private static void writeProduct(JsonGenerator json, ResultSet rs) throws SQLException, IOException {
+        json.writeStartObject();
+        json.writeNumberField("productId", rs.getLong("product_id"));
+        json.writeStringField("name", rs.getString("name"));
+        json.writeStringField("category", rs.getString("category"));
+        writeNullableNumber(json, "price", rs.getObject("price") == null ? null : rs.getDouble("price"));
+        writeNullableNumber(json, "stockLevel", rs.getObject("stock_level") == null ? null : rs.getInt("stock_level"));
+        json.writeStringField("description", rs.getString("description"));
+        json.writeStringField("imageUrl", rs.getString("image_url"));
+        json.writeStringField("skuId", rs.getString("sku_id"));
+        json.writeEndObject();
+        json.writeRaw('\n');
+    }
+
+    private static void writeNullableNumber(JsonGenerator json, String field, Number value) throws IOException {
+        if (value == null) {
+            json.writeNullField(field);
+        } else if (value instanceof Integer) {
+            json.writeNumberField(field, value.intValue());
+        } else {
+            json.writeNumberField(field, value.doubleValue());
+        }
+    }
+}
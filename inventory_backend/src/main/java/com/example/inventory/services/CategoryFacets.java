@@ -0,0 +1,125 @@
+package com.example.inventory.services;
+
+import com.example.inventory.model.Product;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.*;
+
+/**
+ * Per-category product count, stock total, stock value and low-stock count.
+ *
+ * <p>Each product's contribution is remembered, so a change subtracts the
+ * old contribution and adds the new one instead of rescanning the catalog.
+ * Reading the facets costs O(categories).
+ */
+@Component
+public class CategoryFacets {
+    static final String UNCATEGORIZED = "Uncategorized";
+
+    private final CatalogCache catalog;
+    private final int lowStockThreshold;
+
+    private Map<Long, Contribution> byProduct;
+    private final Map<String, Totals> byCategory = new TreeMap<>();
+
+    public CategoryFacets(CatalogCache catalog,
+                          @Value("${catalog.facets.low-stock-threshold:10}") int lowStockThreshold) {
+        this.catalog = catalog;
+        this.lowStockThreshold = lowStockThreshold;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onProductChange(ProductChangeEvent event) {
+        if (event.getProductId() == null) {
+            byProduct = null;
+        }
+        if (byProduct == null) {
+            // Loaded again on the next read, which sees the change
+            return;
+        }
+        // CatalogCache listens first and has already reloaded the product
+        Product product = catalog.getCached(event.getProductId());
+        apply(event.getProductId(), product != null ? contribution(product) : null);
+    }
+
+    public synchronized Map<String, Object> getFacets() {
+        if (byProduct == null) {
+            load();
+        }
+        List<Map<String, Object>> categories = new ArrayList<>(byCategory.size());
+        Totals overall = new Totals();
+        byCategory.forEach((name, totals) -> {
+            Map<String, Object> item = totals.toMap();
+            item.put("category", name);
+            categories.add(item);
+            overall.productCount += totals.productCount;
+            overall.totalStock += totals.totalStock;
+            overall.stockValue += totals.stockValue;
+            overall.lowStockCount += totals.lowStockCount;
+        });
+        Map<String, Object> facets = new LinkedHashMap<>();
+        facets.put("categories", categories);
+        facets.put("totals", overall.toMap());
+        facets.put("lowStockThreshold", lowStockThreshold);
+        return facets;
+    }
+
+    private void load() {
+        byProduct = new HashMap<>();
+        byCategory.clear();
+        for (Product p : catalog.getAll()) {
+            apply(p.getId(), contribution(p));
+        }
+    }
+
+    private void apply(Long productId, Contribution updated) {
+        Contribution previous = updated == null ? byProduct.remove(productId) : byProduct.put(productId, updated);
+        if (previous != null) {
+            Totals totals = byCategory.get(previous.category);
+            totals.add(previous, -1);
+            if (totals.productCount == 0) {
+                byCategory.remove(previous.category);
+            }
+        }
+        if (updated != null) {
+            byCategory.computeIfAbsent(updated.category, c -> new Totals()).add(updated, 1);
+        }
+    }
+
+    private Contribution contribution(Product p) {
+        String category = p.getCategory() == null || p.getCategory().isBlank() ? UNCATEGORIZED : p.getCategory();
+        int stock = p.getStockLevel() != null ? p.getStockLevel() : 0;
+        double price = p.getPrice() != null ? p.getPrice() : 0.0;
+        // Same rule as RecommendationService.getLowStockProducts
+        boolean lowStock = p.getStockLevel() != null && stock <= lowStockThreshold;
+        return new Contribution(category, stock, price * stock, lowStock);
+    }
+
+    private record Contribution(String category, long stock, double value, boolean lowStock) {}
+
+    private static final class Totals {
+        long productCount;
+        long totalStock;
+        double stockValue;
+        long lowStockCount;
+
+        void add(Contribution c, int sign) {
+            productCount += sign;
+            totalStock += sign * c.stock();
+            stockValue += sign * c.value();
+            lowStockCount += c.lowStock() ? sign : 0;
+        }
+
+        Map<String, Object> toMap() {
+            Map<String, Object> map = new LinkedHashMap<>();
+            map.put("productCount", productCount);
+            map.put("totalStock", totalStock);
+            // Rounded to cents so repeated add/subtract drift does not show
+            map.put("stockValue", Math.round(stockValue * 100.0) / 100.0);
+            map.put("lowStockCount", lowStockCount);
+            return map;
+        }
+    }
+}
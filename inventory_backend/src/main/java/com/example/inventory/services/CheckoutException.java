@@ -0,0 +1,21 @@
+package com.example.inventory.services;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A batch checkout was refused; nothing was written. Carries one entry per
+ * failing line with its index, product_id and error.
+ */
+public class CheckoutException extends IllegalArgumentException {
+    private final List<Map<String, Object>> lineErrors;
+
+    public CheckoutException(List<Map<String, Object>> lineErrors) {
+        super(lineErrors.size() == 1 ? "1 order line failed" : lineErrors.size() + " order lines failed");
+        this.lineErrors = List.copyOf(lineErrors);
+    }
+
+    public List<Map<String, Object>> getLineErrors() {
+        return lineErrors;
+    }
+}
@@ -0,0 +1,179 @@
+package com.example.inventory.services;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.util.*;
+
+/**
+ * Count-based circuit breaker for one prediction backend.
+ *
+ * <p>The outcomes of the last {@code windowSize} calls are kept in a ring.
+ * Once at least {@code minimumCalls} are recorded and either the failure
+ * rate or the slow call rate reaches its threshold, the breaker opens and
+ * {@link #tryAcquire()} refuses calls for {@code openDurationMs}. It then
+ * lets {@code halfOpenCalls} trial calls through: if they all succeed it
+ * closes again, any failure opens it for another period.
+ */
+public class CircuitBreaker {
+
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private static final int MAX_TRANSITIONS = 20;
+    private static final byte SUCCESS = 0;
+    private static final byte FAILURE = 1;
+    private static final byte SLOW = 2;
+
+    private final String name;
+    private final int minimumCalls;
+    private final double failureRateThreshold;
+    private final double slowCallRateThreshold;
+    private final long slowCallNanos;
+    private final long openDurationMs;
+    private final int halfOpenCalls;
+    private final Clock clock;
+
+    private final byte[] window;
+    private int windowCount;
+    private int windowNext;
+    private int failures;
+    private int slowCalls;
+
+    private State state = State.CLOSED;
+    private Instant openedAt;
+    private int halfOpenPermitted;
+    private int halfOpenSucceeded;
+    private long notPermittedCalls;
+    private final Deque<Map<String, Object>> transitions = new ArrayDeque<>();
+
+    public CircuitBreaker(String name, int windowSize, int minimumCalls, double failureRateThreshold,
+                          double slowCallRateThreshold, long slowCallMs, long openDurationMs,
+                          int halfOpenCalls, Clock clock) {
+        this.name = name;
+        this.window = new byte[Math.max(1, windowSize)];
+        this.minimumCalls = Math.max(1, Math.min(minimumCalls, window.length));
+        this.failureRateThreshold = failureRateThreshold;
+        this.slowCallRateThreshold = slowCallRateThreshold;
+        this.slowCallNanos = slowCallMs * 1_000_000L;
+        this.openDurationMs = openDurationMs;
+        this.halfOpenCalls = Math.max(1, halfOpenCalls);
+        this.clock = clock;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return true if the call may go to the backend; the caller must then
+     *         report the outcome with {@link #onSuccess} or {@link #onFailure}
+     */
+    public synchronized boolean tryAcquire() {
+        if (state == State.OPEN && !clock.instant().isBefore(openedAt.plusMillis(openDurationMs))) {
+            transition(State.HALF_OPEN, "open period elapsed");
+        }
+        switch (state) {
+            case CLOSED:
+                return true;
+            case HALF_OPEN:
+                if (halfOpenPermitted < halfOpenCalls) {
+                    halfOpenPermitted++;
+                    return true;
+                }
+                break;
+            default:
+                break;
+        }
+        notPermittedCalls++;
+        return false;
+    }
+
+    public synchronized void onSuccess(long durationNanos) {
+        boolean slow = durationNanos >= slowCallNanos;
+        if (state == State.HALF_OPEN) {
+            if (slow) {
+                transition(State.OPEN, "slow trial call");
+            } else if (++halfOpenSucceeded >= halfOpenCalls) {
+                transition(State.CLOSED, halfOpenCalls + " trial calls succeeded");
+            }
+            return;
+        }
+        record(slow ? SLOW : SUCCESS);
+    }
+
+    public synchronized void onFailure() {
+        if (state == State.HALF_OPEN) {
+            transition(State.OPEN, "trial call failed");
+            return;
+        }
+        record(FAILURE);
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    public synchronized Map<String, Object> getMetrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("state", state.name());
+        metrics.put("bufferedCalls", windowCount);
+        metrics.put("failureRate", rate(failures));
+        metrics.put("slowCallRate", rate(slowCalls));
+        metrics.put("notPermittedCalls", notPermittedCalls);
+        metrics.put("openedAt", openedAt != null ? openedAt.toString() : null);
+        metrics.put("transitions", new ArrayList<>(transitions));
+        return metrics;
+    }
+
+    private void record(byte outcome) {
+        if (windowCount == window.length) {
+            byte evicted = window[windowNext];
+            if (evicted == FAILURE) failures--;
+            if (evicted == SLOW) slowCalls--;
+        } else {
+            windowCount++;
+        }
+        window[windowNext] = outcome;
+        windowNext = (windowNext + 1) % window.length;
+        if (outcome == FAILURE) failures++;
+        if (outcome == SLOW) slowCalls++;
+
+        if (state == State.CLOSED && windowCount >= minimumCalls) {
+            double failureRate = rate(failures);
+            double slowCallRate = rate(slowCalls);
+            if (failureRate >= failureRateThreshold) {
+                transition(State.OPEN, String.format("failure rate %.0f%%", failureRate));
+            } else if (slowCallRate >= slowCallRateThreshold) {
+                transition(State.OPEN, String.format("slow call rate %.0f%%", slowCallRate));
+            }
+        }
+    }
+
+    private double rate(int count) {
+        return windowCount == 0 ? 0.0 : 100.0 * count / windowCount;
+    }
+
+    private void transition(State to, String reason) {
+        Map<String, Object> entry = new LinkedHashMap<>();
+        entry.put("from", state.name());
+        entry.put("to", to.name());
+        entry.put("at", clock.instant().toString());
+        entry.put("reason", reason);
+        transitions.addFirst(entry);
+        if (transitions.size() > MAX_TRANSITIONS) {
+            transitions.removeLast();
+        }
+
+        state = to;
+        halfOpenPermitted = 0;
+        halfOpenSucceeded = 0;
+        if (to == State.OPEN) {
+            openedAt = clock.instant();
+        } else if (to == State.CLOSED) {
+            Arrays.fill(window, SUCCESS);
+            windowCount = 0;
+            windowNext = 0;
+            failures = 0;
+            slowCalls = 0;
+        }
+    }
+}
@@ -0,0 +1,303 @@
+package com.example.inventory.services;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * RandomForest regressor exported by ml/export_forest.py, held in flat
+ * primitive arrays. Holds both the preprocessing of the pipeline's input
+ * columns (imputation, scaling, one-hot/ordinal encoding) and the trees,
+ * so a product can be scored without Python.
+ *
+ * <p>Scoring allocates nothing: callers encode into a reusable buffer and
+ * {@link #predict(double[])} only walks the node arrays.
+ */
+public final class DemandForest {
+
+    static final int MAGIC = 0x44464D31; // "DFM1"
+    static final int VERSION = 1;
+
+    static final byte NUMERIC = 0;
+    static final byte ONE_HOT = 1;
+    static final byte ORDINAL = 2;
+
+    // Raw input columns built by ml/demand_features.py
+    private static final String[] SOURCES = {
+        "sku_id", "qty_in", "current_stock", "batch_id", "expiry_date", "manufacture_date",
+        "transaction_type", "location", "price", "year", "month", "day", "day_of_week",
+        "expiry_days", "manufacture_days"
+    };
+    private static final int SKU_ID = 0, QTY_IN = 1, CURRENT_STOCK = 2, BATCH_ID = 3, EXPIRY_DATE = 4,
+        MANUFACTURE_DATE = 5, TRANSACTION_TYPE = 6, LOCATION = 7, PRICE = 8, YEAR = 9, MONTH = 10,
+        DAY = 11, DAY_OF_WEEK = 12, EXPIRY_DAYS = 13, MANUFACTURE_DAYS = 14, UNKNOWN = -1;
+    private static final int BATCH_COUNT = 5000;
+
+    private final int featureCount;
+    private final Column[] columns;
+
+    private final int[] roots;
+    private final int[] feature;
+    private final double[] threshold;
+    private final int[] left;
+    private final int[] right;
+    private final double[] value;
+
+    private final String[] batchIds = new String[BATCH_COUNT + 1];
+    private volatile DayContext day;
+
+    private DemandForest(int featureCount, Column[] columns, int[] roots, int[] feature,
+                         double[] threshold, int[] left, int[] right, double[] value) {
+        this.featureCount = featureCount;
+        this.columns = columns;
+        this.roots = roots;
+        this.feature = feature;
+        this.threshold = threshold;
+        this.left = left;
+        this.right = right;
+        this.value = value;
+    }
+
+    public static DemandForest load(Path path) throws IOException {
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(path), 1 << 16)) {
+            return read(in);
+        }
+    }
+
+    public static DemandForest read(InputStream stream) throws IOException {
+        DataInputStream in = new DataInputStream(stream);
+        if (in.readInt() != MAGIC) {
+            throw new IOException("Not a demand forest file");
+        }
+        int version = in.readInt();
+        if (version != VERSION) {
+            throw new IOException("Unsupported demand forest version: " + version);
+        }
+        int featureCount = in.readInt();
+        Column[] columns = new Column[in.readInt()];
+        for (int c = 0; c < columns.length; c++) {
+            columns[c] = Column.read(in, featureCount);
+        }
+
+        int treeCount = in.readInt();
+        int nodeCount = in.readInt();
+        int[] roots = new int[treeCount];
+        for (int t = 0; t < treeCount; t++) {
+            roots[t] = in.readInt();
+        }
+        int[] feature = new int[nodeCount];
+        double[] threshold = new double[nodeCount];
+        int[] left = new int[nodeCount];
+        int[] right = new int[nodeCount];
+        double[] value = new double[nodeCount];
+        for (int n = 0; n < nodeCount; n++) {
+            feature[n] = in.readInt();
+            threshold[n] = in.readDouble();
+            left[n] = in.readInt();
+            right[n] = in.readInt();
+            value[n] = in.readDouble();
+            if (feature[n] >= featureCount) {
+                throw new IOException("Node " + n + " splits on unknown feature " + feature[n]);
+            }
+        }
+        return new DemandForest(featureCount, columns, roots, feature, threshold, left, right, value);
+    }
+
+    public int getFeatureCount() {
+        return featureCount;
+    }
+
+    public int getTreeCount() {
+        return roots.length;
+    }
+
+    public int getNodeCount() {
+        return feature.length;
+    }
+
+    /**
+     * Mean of the tree outputs for an encoded feature row. Like scikit-learn,
+     * feature values are compared at float precision against the thresholds.
+     */
+    public double predict(double[] features) {
+        double sum = 0;
+        for (int root : roots) {
+            int node = root;
+            while (feature[node] >= 0) {
+                node = (float) features[feature[node]] <= threshold[node] ? left[node] : right[node];
+            }
+            sum += value[node];
+        }
+        return sum / roots.length;
+    }
+
+    /**
+     * Builds the same input row as ml/demand_features.py and applies the
+     * exported preprocessing, writing the model features into {@code out}.
+     */
+    public void encode(long productId, double currentStock, double price, String skuId, LocalDate asOf, double[] out) {
+        DayContext ctx = day;
+        if (ctx == null || !ctx.date.equals(asOf)) {
+            ctx = new DayContext(asOf);
+            day = ctx;
+        }
+        Arrays.fill(out, 0, featureCount, 0.0);
+        for (Column column : columns) {
+            switch (column.kind) {
+                case NUMERIC -> {
+                    double x = numeric(column.source, productId, currentStock, price, ctx);
+                    if (Double.isNaN(x)) x = column.fill;
+                    out[column.outIndex] = (x - column.offset) / column.scale;
+                }
+                case ONE_HOT -> {
+                    Integer index = column.categories.get(text(column, productId, currentStock, price, skuId, ctx));
+                    if (index != null && index >= 0) out[index] = 1.0;
+                }
+                default -> {
+                    Integer position = column.categories.get(text(column, productId, currentStock, price, skuId, ctx));
+                    out[column.outIndex] = position != null ? position : column.unknownValue;
+                }
+            }
+        }
+    }
+
+    private static double numeric(int source, long productId, double currentStock, double price, DayContext ctx) {
+        return switch (source) {
+            case QTY_IN -> Math.max(0, currentStock - 10);
+            case CURRENT_STOCK -> currentStock;
+            case PRICE -> price;
+            case YEAR -> ctx.year;
+            case MONTH -> ctx.month;
+            case DAY -> ctx.dayOfMonth;
+            case DAY_OF_WEEK -> ctx.dayOfWeek;
+            case EXPIRY_DAYS -> 180;
+            case MANUFACTURE_DAYS -> 30;
+            default -> Double.NaN;
+        };
+    }
+
+    private String text(Column column, long productId, double currentStock, double price, String skuId, DayContext ctx) {
+        String s = switch (column.source) {
+            case SKU_ID -> skuId != null ? skuId : String.format("SKU_%04d", productId);
+            case BATCH_ID -> batchId(productId);
+            case EXPIRY_DATE -> ctx.expiryDate;
+            case MANUFACTURE_DATE -> ctx.manufactureDate;
+            case TRANSACTION_TYPE -> "sale";
+            case LOCATION -> "WH_A";
+            case QTY_IN, CURRENT_STOCK, PRICE -> Double.toString(numeric(column.source, productId, currentStock, price, ctx));
+            case YEAR, MONTH, DAY, DAY_OF_WEEK, EXPIRY_DAYS, MANUFACTURE_DAYS ->
+                Integer.toString((int) numeric(column.source, productId, currentStock, price, ctx));
+            default -> null;
+        };
+        return s != null ? s : column.fillText;
+    }
+
+    private String batchId(long productId) {
+        int n = (int) Math.floorMod(productId, (long) BATCH_COUNT) + 1;
+        String id = batchIds[n];
+        if (id == null) {
+            id = String.format("BATCH_%05d", n);
+            batchIds[n] = id;
+        }
+        return id;
+    }
+
+    private static final class Column {
+        final int source;
+        final byte kind;
+        final int outIndex;
+        final double fill;
+        final double offset;
+        final double scale;
+        final String fillText;
+        final double unknownValue;
+        final Map<String, Integer> categories;
+
+        private Column(int source, byte kind, int outIndex, double fill, double offset, double scale,
+                       String fillText, double unknownValue, Map<String, Integer> categories) {
+            this.source = source;
+            this.kind = kind;
+            this.outIndex = outIndex;
+            this.fill = fill;
+            this.offset = offset;
+            this.scale = scale;
+            this.fillText = fillText;
+            this.unknownValue = unknownValue;
+            this.categories = categories;
+        }
+
+        static Column read(DataInputStream in, int featureCount) throws IOException {
+            String name = in.readUTF();
+            int source = Arrays.asList(SOURCES).indexOf(name);
+            if (source < 0) source = UNKNOWN;
+            byte kind = in.readByte();
+            switch (kind) {
+                case NUMERIC -> {
+                    int outIndex = checkIndex(in.readInt(), featureCount, name);
+                    double fill = in.readDouble();
+                    double offset = in.readDouble();
+                    double scale = in.readDouble();
+                    return new Column(source, kind, outIndex, fill, offset, scale == 0 ? 1 : scale,
+                        null, Double.NaN, null);
+                }
+                case ONE_HOT -> {
+                    String fill = in.readUTF();
+                    int n = in.readInt();
+                    Map<String, Integer> categories = new HashMap<>(n * 2);
+                    for (int i = 0; i < n; i++) {
+                        String category = in.readUTF();
+                        int index = in.readInt();
+                        categories.put(category, index < 0 ? -1 : checkIndex(index, featureCount, name));
+                    }
+                    return new Column(source, kind, -1, Double.NaN, 0, 1, fill, Double.NaN, categories);
+                }
+                case ORDINAL -> {
+                    int outIndex = checkIndex(in.readInt(), featureCount, name);
+                    String fill = in.readUTF();
+                    double unknownValue = in.readDouble();
+                    int n = in.readInt();
+                    Map<String, Integer> categories = new HashMap<>(n * 2);
+                    for (int i = 0; i < n; i++) {
+                        categories.put(in.readUTF(), i);
+                    }
+                    return new Column(source, kind, outIndex, Double.NaN, 0, 1, fill, unknownValue, categories);
+                }
+                default -> throw new IOException("Unknown column kind " + kind + " for " + name);
+            }
+        }
+
+        private static int checkIndex(int index, int featureCount, String name) throws IOException {
+            if (index < 0 || index >= featureCount) {
+                throw new IOException("Column " + name + " maps to feature " + index + " of " + featureCount);
+            }
+            return index;
+        }
+    }
+
+    /**
+     * Date-derived inputs, which only change once a day.
+     */
+    private static final class DayContext {
+        final LocalDate date;
+        final int year;
+        final int month;
+        final int dayOfMonth;
+        final int dayOfWeek;
+        final String expiryDate;
+        final String manufactureDate;
+
+        DayContext(LocalDate date) {
+            this.date = date;
+            this.year = date.getYear();
+            this.month = date.getMonthValue();
+            this.dayOfMonth = date.getDayOfMonth();
+            this.dayOfWeek = date.getDayOfWeek().getValue() - 1; // pandas: Monday = 0
+            this.expiryDate = date.plusDays(180).toString();
+            this.manufactureDate = date.minusDays(30).toString();
+        }
+    }
+}
@@ -0,0 +1,209 @@
+package com.example.inventory.services;
+
+import com.example.inventory.model.Product;
+import com.example.inventory.repository.ProductRepository;
+import com.example.inventory.services.RecommendationService.ProductRecommendation;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Products ordered by predicted demand, kept up to date in the background.
+ *
+ * <p>The ranking is built once at startup and fully rebuilt on a long
+ * interval. In between, only products reported by a {@link ProductChangeEvent}
+ * are rescored, so reading the top N costs O(N) instead of scoring and
+ * sorting the whole catalog per request. All writes happen on the single
+ * ranking thread.
+ */
+@Component
+public class DemandRanking {
+    private static final Logger logger = LoggerFactory.getLogger(DemandRanking.class);
+
+    private static final Comparator<Entry> BY_DEMAND = Comparator
+        .comparingDouble((Entry e) -> e.recommendation.getPredictedDemand()).reversed()
+        .thenComparingLong(e -> e.productId);
+
+    private final ProductRepository productRepository;
+    private final DemandScorer demandScorer;
+
+    @Value("${recommendations.ranking.rescore-interval-ms:500}")
+    private long rescoreIntervalMs;
+
+    @Value("${recommendations.ranking.full-rebuild-interval-ms:600000}")
+    private long fullRebuildIntervalMs;
+
+    @Value("${recommendations.ranking.batch-size:2000}")
+    private int batchSize;
+
+    @Value("${recommendations.ranking.scoring-deadline-ms:30000}")
+    private long scoringDeadlineMs;
+
+    private final ConcurrentSkipListSet<Entry> ranking = new ConcurrentSkipListSet<>(BY_DEMAND);
+    private final ConcurrentHashMap<Long, Entry> byProduct = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Long, Instant> pending = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "demand-ranking");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private volatile boolean ready;
+    private volatile Instant lastRescoredAt;
+    private volatile Instant lastFullRebuildAt;
+
+    public DemandRanking(ProductRepository productRepository, DemandScorer demandScorer) {
+        this.productRepository = productRepository;
+        this.demandScorer = demandScorer;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        scheduler.scheduleWithFixedDelay(this::rebuild, 0, fullRebuildIntervalMs, TimeUnit.MILLISECONDS);
+        scheduler.scheduleWithFixedDelay(this::rescorePending, rescoreIntervalMs, rescoreIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void stop() {
+        scheduler.shutdownNow();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChange(ProductChangeEvent event) {
+        if (event.getProductId() != null) {
+            pending.putIfAbsent(event.getProductId(), Instant.now());
+        } else if (ready) {
+            scheduler.execute(this::rebuild);
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * The {@code limit} products with the highest predicted demand.
+     */
+    public List<ProductRecommendation> top(int limit) {
+        List<ProductRecommendation> result = new ArrayList<>(Math.max(0, Math.min(limit, byProduct.size())));
+        Set<Long> seen = new HashSet<>();
+        for (Entry entry : ranking) {
+            if (result.size() >= limit) break;
+            // A product being rescored can briefly appear twice
+            if (seen.add(entry.productId)) {
+                result.add(entry.recommendation);
+            }
+        }
+        return result;
+    }
+
+    public Map<String, Object> getStatus() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("ready", ready);
+        status.put("size", byProduct.size());
+        status.put("pendingChanges", pending.size());
+        Instant oldest = pending.values().stream().min(Comparator.naturalOrder()).orElse(null);
+        status.put("stalenessMs", oldest == null ? 0 : Math.max(0, Instant.now().toEpochMilli() - oldest.toEpochMilli()));
+        status.put("fallbackScored", byProduct.values().stream().filter(e -> !e.recommendation.isModelScored()).count());
+        status.put("lastRescoredAt", lastRescoredAt != null ? lastRescoredAt.toString() : null);
+        status.put("lastFullRebuildAt", lastFullRebuildAt != null ? lastFullRebuildAt.toString() : null);
+        return status;
+    }
+
+    void rebuild() {
+        try {
+            Instant started = Instant.now();
+            List<Product> products = productRepository.findAll();
+            Map<Long, Entry> rebuilt = new HashMap<>(products.size() * 2);
+            for (ProductRecommendation rec : score(products)) {
+                Entry entry = new Entry(rec);
+                rebuilt.put(entry.productId, entry);
+            }
+
+            byProduct.keySet().retainAll(rebuilt.keySet());
+            for (Entry entry : rebuilt.values()) {
+                put(entry);
+            }
+            ranking.removeIf(e -> byProduct.get(e.productId) != e);
+
+            // Changes seen before this rebuild started are covered by it
+            pending.values().removeIf(seen -> seen.isBefore(started));
+            lastFullRebuildAt = Instant.now();
+            lastRescoredAt = lastFullRebuildAt;
+            ready = true;
+            logger.info("Demand ranking rebuilt for {} products in {} ms", rebuilt.size(),
+                lastFullRebuildAt.toEpochMilli() - started.toEpochMilli());
+        } catch (Exception e) {
+            logger.error("Demand ranking rebuild failed", e);
+        }
+    }
+
+    void rescorePending() {
+        if (pending.isEmpty() || !ready) {
+            return;
+        }
+        try {
+            List<Long> ids = new ArrayList<>(pending.keySet());
+            ids.forEach(pending::remove);
+
+            List<Product> products = productRepository.findAllById(ids);
+            Set<Long> found = new HashSet<>();
+            for (ProductRecommendation rec : score(products)) {
+                found.add(rec.getProduct().getProductId());
+                put(new Entry(rec));
+            }
+            for (Long id : ids) {
+                if (!found.contains(id)) {
+                    Entry removed = byProduct.remove(id);
+                    if (removed != null) ranking.remove(removed);
+                }
+            }
+            lastRescoredAt = Instant.now();
+        } catch (Exception e) {
+            logger.error("Demand ranking rescore failed", e);
+        }
+    }
+
+    private List<ProductRecommendation> score(List<Product> products) {
+        List<ProductRecommendation> scored = new ArrayList<>(products.size());
+        for (int from = 0; from < products.size(); from += batchSize) {
+            List<Product> slice = products.subList(from, Math.min(products.size(), from + batchSize));
+            scored.addAll(demandScorer.scoreProducts(slice, scoringDeadlineMs));
+        }
+        return scored;
+    }
+
+    private void put(Entry entry) {
+        Entry previous = byProduct.put(entry.productId, entry);
+        if (previous == null) {
+            ranking.add(entry);
+        } else if (BY_DEMAND.compare(previous, entry) != 0) {
+            // Insert before removing so concurrent readers never miss the product
+            ranking.add(entry);
+            ranking.remove(previous);
+        } else {
+            // Same position in the ranking, the set would keep the old element
+            ranking.remove(previous);
+            ranking.add(entry);
+        }
+    }
+
+    private static final class Entry {
+        final long productId;
+        final ProductRecommendation recommendation;
+
+        Entry(ProductRecommendation recommendation) {
+            this.productId = recommendation.getProduct().getProductId();
+            this.recommendation = recommendation;
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package com.example.inventory.services;
+
+import com.example.inventory.model.Product;
+import com.example.inventory.services.RecommendationService.ProductRecommendation;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Scores products against the demand model on a bounded executor.
+ */
+@Component
+public class DemandScorer {
+    private static final Logger logger = LoggerFactory.getLogger(DemandScorer.class);
+
+    private final MlPredictionService mlPredictionService;
+    private final ThreadPoolExecutor scoringExecutor;
+    private final int chunkSize;
+    private final long deadlineMs;
+
+    public DemandScorer(MlPredictionService mlPredictionService,
+                        @Value("${recommendations.scoring.concurrency:4}") int concurrency,
+                        @Value("${recommendations.scoring.queue-capacity:256}") int queueCapacity,
+                        @Value("${recommendations.scoring.chunk-size:50}") int chunkSize,
+                        @Value("${recommendations.scoring.deadline-ms:1500}") long deadlineMs) {
+        this.mlPredictionService = mlPredictionService;
+        this.chunkSize = Math.max(1, chunkSize);
+        this.deadlineMs = deadlineMs;
+        AtomicInteger threads = new AtomicInteger();
+        this.scoringExecutor = new ThreadPoolExecutor(concurrency, concurrency, 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(queueCapacity), r -> {
+                Thread t = new Thread(r, "recommendation-scoring-" + threads.incrementAndGet());
+                t.setDaemon(true);
+                return t;
+            });
+    }
+
+    @PreDestroy
+    void shutdown() {
+        scoringExecutor.shutdownNow();
+    }
+
+    /**
+     * Scores products in chunks spread over the scoring executor. Chunks that
+     * are not scored by the model before the deadline use the fallback
+     * heuristic, so latency is bounded by the deadline, not the catalog size.
+     */
+    public List<ProductRecommendation> scoreProducts(List<Product> products) {
+        return scoreProducts(products, deadlineMs);
+    }
+    
+    public List<ProductRecommendation> scoreProducts(List<Product> products, long deadlineMs) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(deadlineMs);
+        List<Future<Double[]>> futures = new ArrayList<>();
+        for (int from = 0; from < products.size(); from += chunkSize) {
+            List<Product> chunk = products.subList(from, Math.min(products.size(), from + chunkSize));
+            try {
+                futures.add(scoringExecutor.submit(() -> mlPredictionService.predictModelBatch(chunk)));
+            } catch (RejectedExecutionException e) {
+                futures.add(null);
+            }
+        }
+        
+        List<ProductRecommendation> recommendations = new ArrayList<>(products.size());
+        int fallbacks = 0;
+        for (int c = 0; c < futures.size(); c++) {
+            Double[] predictions = awaitChunk(futures.get(c), deadline);
+            int from = c * chunkSize;
+            int to = Math.min(products.size(), from + chunkSize);
+            for (int i = from; i < to; i++) {
+                Product p = products.get(i);
+                Double predicted = predictions != null ? predictions[i - from] : null;
+                if (predicted != null) {
+                    recommendations.add(new ProductRecommendation(p, predicted, true));
+                } else {
+                    recommendations.add(new ProductRecommendation(p,
+                        mlPredictionService.calculateFallbackDemand(p.getStockLevel(), p.getPrice()), false));
+                    fallbacks++;
+                }
+            }
+        }
+        if (fallbacks > 0) {
+            logger.debug("{} of {} products scored with the fallback heuristic", fallbacks, products.size());
+        }
+        return recommendations;
+    }
+    
+    private Double[] awaitChunk(Future<Double[]> future, long deadline) {
+        if (future == null) {
+            return null;
+        }
+        try {
+            return future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            // Let a running chunk finish (it may warm the prediction cache) but drop queued ones
+            future.cancel(false);
+            return null;
+        } catch (ExecutionException e) {
+            logger.error("Recommendation scoring failed", e.getCause());
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+    }
+}
@@ -0,0 +1,202 @@
+package com.example.inventory.services;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps the feature importance JSON of the demand model in memory.
+ * ml/feature_importance.py runs once at startup and again only when the
+ * model file's modification time and content hash change. A failed run
+ * is retried with exponential backoff.
+ */
+@Service
+public class FeatureImportanceService {
+    private static final Logger logger = LoggerFactory.getLogger(FeatureImportanceService.class);
+
+    @Value("${ml.python.path:python3}")
+    private String pythonPath;
+
+    @Value("${ml.model.path:../ml/demand_model.joblib}")
+    private String modelPath;
+
+    @Value("${ml.feature-importance.script:../ml/feature_importance.py}")
+    private String scriptPath;
+
+    @Value("${ml.feature-importance.check-interval-ms:10000}")
+    private long checkIntervalMs;
+
+    @Value("${ml.feature-importance.timeout-ms:60000}")
+    private long timeoutMs;
+
+    private final ObjectMapper objectMapper;
+    private ScheduledExecutorService scheduler;
+
+    @Value("${ml.feature-importance.max-retry-interval-ms:600000}")
+    private long maxRetryIntervalMs;
+
+    private volatile Snapshot snapshot;
+    private long modelModified = -1;
+    // Model content of the current snapshot
+    private String modelHash;
+    // Model content whose last run failed, retried from retryAt on
+    private String failedHash;
+    private int failures;
+    private long retryAt;
+
+    public FeatureImportanceService(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    @PostConstruct
+    void start() {
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "feature-importance");
+            t.setDaemon(true);
+            return t;
+        });
+        scheduler.scheduleWithFixedDelay(this::refreshIfModelChanged, 0, checkIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void stop() {
+        scheduler.shutdownNow();
+    }
+
+    /**
+     * @return the latest computed result, or null before the first successful run
+     */
+    public Snapshot getSnapshot() {
+        return snapshot;
+    }
+
+    void refreshIfModelChanged() {
+        try {
+            Path model = resolve(modelPath);
+            if (!Files.exists(model)) {
+                return;
+            }
+            long modified = Files.getLastModifiedTime(model).toMillis();
+            boolean retryDue = failedHash != null && System.currentTimeMillis() >= retryAt;
+            if (modified == modelModified && !retryDue) {
+                return;
+            }
+            String hash = sha256(Files.readAllBytes(model));
+            modelModified = modified;
+            if (hash.equals(modelHash) || (hash.equals(failedHash) && !retryDue)) {
+                return;
+            }
+            byte[] body = null;
+            try {
+                body = compute(model);
+            } catch (Exception e) {
+                logger.error("Feature importance script could not be run", e);
+            }
+            if (body != null) {
+                snapshot = new Snapshot(body, "\"" + sha256(body) + "\"", Instant.now());
+                modelHash = hash;
+                failedHash = null;
+                failures = 0;
+                logger.info("Feature importance recomputed for model {}", hash.substring(0, 12));
+            } else {
+                if (!hash.equals(failedHash)) {
+                    failedHash = hash;
+                    failures = 0;
+                }
+                failures++;
+                long delay = Math.min(maxRetryIntervalMs, checkIntervalMs << Math.min(failures, 20));
+                retryAt = System.currentTimeMillis() + delay;
+                logger.warn("Feature importance for model {} failed {} times, retrying in {} ms",
+                    hash.substring(0, 12), failures, delay);
+            }
+        } catch (Exception e) {
+            logger.error("Feature importance refresh failed", e);
+        }
+    }
+
+    private byte[] compute(Path model) throws Exception {
+        Path script = resolve(scriptPath);
+        ProcessBuilder pb = new ProcessBuilder(pythonPath, script.toString(), model.toString());
+        pb.directory(script.getParent().toFile());
+        pb.redirectError(ProcessBuilder.Redirect.INHERIT);
+        // Output goes to a file so nothing blocks on the pipe and the timeout always applies
+        Path output = Files.createTempFile("feature-importance", ".json");
+        pb.redirectOutput(output.toFile());
+        String text;
+        try {
+            Process process = pb.start();
+            if (!process.waitFor(timeoutMs, TimeUnit.MILLISECONDS)) {
+                process.destroyForcibly();
+                logger.error("Feature importance script timed out after {} ms", timeoutMs);
+                return null;
+            }
+            if (process.exitValue() != 0) {
+                logger.error("Feature importance script failed with exit code: {}", process.exitValue());
+                return null;
+            }
+            text = Files.readString(output, StandardCharsets.UTF_8).trim();
+        } finally {
+            Files.deleteIfExists(output);
+        }
+
+        JsonNode result = objectMapper.readTree(text);
+        if (result == null || result.isMissingNode() || result.has("error")) {
+            logger.error("Feature importance extraction failed: {}", result);
+            return null;
+        }
+        return objectMapper.writeValueAsBytes(result);
+    }
+
+    private static Path resolve(String path) {
+        Path p = Paths.get(path);
+        return p.isAbsolute() ? p : new File(System.getProperty("user.dir"), path).toPath().normalize();
+    }
+
+    private static String sha256(byte[] bytes) throws Exception {
+        return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(bytes));
+    }
+
+    /**
+     * Serialized feature importance JSON with its entity tag.
+     */
+    public static class Snapshot {
+        private final byte[] body;
+        private final String etag;
+        private final Instant computedAt;
+
+        Snapshot(byte[] body, String etag, Instant computedAt) {
+            this.body = body;
+            this.etag = etag;
+            this.computedAt = computedAt;
+        }
+
+        public byte[] getBody() {
+            return body;
+        }
+
+        public String getEtag() {
+            return etag;
+        }
+
+        public Instant getComputedAt() {
+            return computedAt;
+        }
+    }
+}
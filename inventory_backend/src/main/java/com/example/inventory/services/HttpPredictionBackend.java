@@ -0,0 +1,249 @@
+package com.example.inventory.services;
+
+import com.example.inventory.model.Product;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Scores products through the FastAPI service in predict_service.py.
+ *
+ * <p>Rows from concurrent callers are queued and a dispatcher thread sends
+ * whatever arrived within {@code ml.http.batch-window-ms} (or up to
+ * {@code ml.http.max-batch-rows}) as one {@code POST /predict}, then hands
+ * each caller its own result. The JDK client keeps HTTP/1.1 connections
+ * alive, so a batch costs one round trip on an already open socket.
+ */
+@Component
+public class HttpPredictionBackend implements PredictionBackend {
+    private static final Logger logger = LoggerFactory.getLogger(HttpPredictionBackend.class);
+
+    @Value("${ml.http.url:http://127.0.0.1:5000}")
+    private String baseUrl;
+
+    @Value("${ml.http.batch-window-ms:3}")
+    private long batchWindowMs;
+
+    @Value("${ml.http.max-batch-rows:64}")
+    private int maxBatchRows;
+
+    @Value("${ml.http.timeout-ms:2000}")
+    private long timeoutMs;
+
+    @Value("${ml.http.max-in-flight:4}")
+    private int maxInFlight;
+
+    @Value("${ml.http.health-check-interval-ms:15000}")
+    private long healthCheckIntervalMs;
+
+    private final ObjectMapper objectMapper;
+    private final BlockingQueue<PendingRow> queue = new LinkedBlockingQueue<>();
+    private HttpClient client;
+    private Semaphore inFlight;
+    private Thread dispatcher;
+    private ScheduledExecutorService scheduler;
+    private volatile boolean available;
+    private volatile boolean running;
+
+    public HttpPredictionBackend(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    @PostConstruct
+    void start() {
+        client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofMillis(timeoutMs))
+            .executor(Executors.newCachedThreadPool(r -> {
+                Thread t = new Thread(r, "ml-http-client");
+                t.setDaemon(true);
+                return t;
+            }))
+            .build();
+        inFlight = new Semaphore(Math.max(1, maxInFlight));
+        running = true;
+        dispatcher = new Thread(this::dispatchLoop, "ml-http-batcher");
+        dispatcher.setDaemon(true);
+        dispatcher.start();
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "ml-http-health");
+            t.setDaemon(true);
+            return t;
+        });
+        scheduler.scheduleWithFixedDelay(this::healthCheck, 0, healthCheckIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void stop() {
+        running = false;
+        if (dispatcher != null) {
+            dispatcher.interrupt();
+        }
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+        List<PendingRow> abandoned = new ArrayList<>();
+        queue.drainTo(abandoned);
+        abandoned.forEach(p -> p.result.completeExceptionally(new CancellationException("shutting down")));
+    }
+
+    @Override
+    public String getName() {
+        return "http";
+    }
+
+    @Override
+    public boolean isAvailable() {
+        return available;
+    }
+
+    /**
+     * Queues the products for the next batch and waits for their results.
+     * @return one prediction per product, or null when the service did not answer in time
+     */
+    @Override
+    public double[] predict(List<Product> products) {
+        if (!running) {
+            return null;
+        }
+        List<CompletableFuture<Double>> futures = new ArrayList<>(products.size());
+        for (Product p : products) {
+            PendingRow pending = new PendingRow(PredictionBackend.featureRow(p));
+            futures.add(pending.result);
+            queue.offer(pending);
+        }
+
+        // Large requests are split into several batches, allow them to drain
+        long batches = (products.size() + maxBatchRows - 1) / Math.max(1, maxBatchRows);
+        long waitMs = batchWindowMs + timeoutMs * Math.max(1, (batches + maxInFlight - 1) / Math.max(1, maxInFlight));
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(waitMs);
+        double[] result = new double[products.size()];
+        try {
+            for (int i = 0; i < result.length; i++) {
+                result[i] = futures.get(i).get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+            }
+            return result;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            logger.warn("HTTP prediction failed: {}", e.getCause().toString());
+        } catch (TimeoutException e) {
+            logger.warn("HTTP prediction timed out after {} ms", waitMs);
+        }
+        // Rows still queued are skipped by the dispatcher
+        futures.forEach(f -> f.cancel(false));
+        return null;
+    }
+
+    private void dispatchLoop() {
+        while (running) {
+            try {
+                PendingRow first = queue.take();
+                List<PendingRow> batch = new ArrayList<>(maxBatchRows);
+                batch.add(first);
+                long windowEnd = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(batchWindowMs);
+                while (batch.size() < maxBatchRows) {
+                    long remaining = windowEnd - System.nanoTime();
+                    PendingRow next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : queue.poll();
+                    if (next == null) break;
+                    batch.add(next);
+                }
+                batch.removeIf(p -> p.result.isDone());
+                if (!batch.isEmpty()) {
+                    inFlight.acquire();
+                    send(batch);
+                }
+            } catch (InterruptedException e) {
+                if (!running) return;
+            } catch (Exception e) {
+                logger.error("HTTP prediction dispatcher error", e);
+            }
+        }
+    }
+
+    private void send(List<PendingRow> batch) {
+        CompletableFuture<HttpResponse<byte[]>> call;
+        try {
+            List<Map<String, Object>> rows = new ArrayList<>(batch.size());
+            batch.forEach(p -> rows.add(p.row));
+            HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/predict"))
+                .timeout(Duration.ofMillis(timeoutMs))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(Map.of("rows", rows))))
+                .build();
+            call = client.sendAsync(request, HttpResponse.BodyHandlers.ofByteArray());
+        } catch (Exception e) {
+            inFlight.release();
+            batch.forEach(p -> p.result.completeExceptionally(e));
+            return;
+        }
+        call.whenComplete((response, error) -> {
+            inFlight.release();
+            try {
+                if (error != null) {
+                    throw error instanceof Exception ? (Exception) error : new RuntimeException(error);
+                }
+                if (response.statusCode() != 200) {
+                    throw new IllegalStateException("prediction service returned HTTP " + response.statusCode());
+                }
+                JsonNode predictions = objectMapper.readTree(response.body()).get("predictions");
+                if (predictions == null || predictions.size() != batch.size()) {
+                    throw new IllegalStateException("prediction service returned "
+                        + (predictions == null ? 0 : predictions.size()) + " results for " + batch.size() + " rows");
+                }
+                available = true;
+                for (int i = 0; i < batch.size(); i++) {
+                    batch.get(i).result.complete(predictions.get(i).asDouble());
+                }
+            } catch (Exception e) {
+                available = false;
+                batch.forEach(p -> p.result.completeExceptionally(e));
+            }
+        });
+    }
+
+    private void healthCheck() {
+        try {
+            HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/health"))
+                .timeout(Duration.ofMillis(timeoutMs))
+                .GET()
+                .build();
+            HttpResponse<byte[]> response = client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+            boolean healthy = response.statusCode() == 200
+                && objectMapper.readTree(response.body()).path("model_loaded").asBoolean(false);
+            if (healthy != available) {
+                logger.info("Prediction service at {} is {}", baseUrl, healthy ? "available" : "unavailable");
+            }
+            available = healthy;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            if (available) {
+                logger.info("Prediction service at {} is unavailable: {}", baseUrl, e.getMessage());
+            }
+            available = false;
+        }
+    }
+
+    private static final class PendingRow {
+        final Map<String, Object> row;
+        final CompletableFuture<Double> result = new CompletableFuture<>();
+
+        PendingRow(Map<String, Object> row) {
+            this.row = row;
+        }
+    }
+}
@@ -1,22 +1,39 @@
 package com.example.inventory.services;
 
-import org.springframework.stereotype.Service;
+import com.example.inventory.model.Product;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.io.*;
 import java.util.*;
 
 @Service
 public class MlPredictionService {
     private static final Logger logger = LoggerFactory.getLogger(MlPredictionService.class);
     
-    @Value("${ml.model.path:../ml/demand_model.joblib}")
-    private String modelPath;
+    private final List<PredictionBackend> backends;
+    private final PredictionCache predictionCache;
+    private final PredictionCircuitBreakers circuitBreakers;
     
-    @Value("${ml.python.path:python3}")
-    private String pythonPath;
+    public MlPredictionService(NativeDemandModel nativeModel,
+                               HttpPredictionBackend httpBackend,
+                               PythonWorkerPool workerPool,
+                               PredictionCache predictionCache,
+                               PredictionCircuitBreakers circuitBreakers,
+                               @Value("${ml.backend:auto}") String backend) {
+        // auto prefers in-process scoring, then the batching HTTP service, then the workers
+        List<PredictionBackend> all = List.of(nativeModel, httpBackend, workerPool);
+        this.backends = "auto".equals(backend)
+            ? all
+            : all.stream().filter(b -> b.getName().equals(backend)).toList();
+        if (this.backends.isEmpty()) {
+            throw new IllegalArgumentException("Unknown ml.backend: " + backend);
+        }
+        this.predictionCache = predictionCache;
+        this.circuitBreakers = circuitBreakers;
+        this.backends.forEach(b -> circuitBreakers.forBackend(b.getName()));
+    }
     
     /**
      * Predicts demand quantity for a product using the ML model
@@ -28,83 +45,146 @@ public class MlPredictionService {
      * @return Predicted demand quantity
      */
     public Double predictDemand(Long productId, Integer currentStock, Double price, String category, String skuId) {
+        Double cached = predictionCache.get(productId, currentStock, price, skuId);
+        if (cached != null) {
+            return cached;
+        }
         try {
-            // Get the script path (relative to project root)
-            File projectRoot = new File(System.getProperty("user.dir"));
-            File scriptFile = new File(projectRoot, "../ml/predict_demand.py");
-            if (!scriptFile.exists()) {
-                // Try alternative path
-                scriptFile = new File(projectRoot.getParentFile(), "ml/predict_demand.py");
-            }
-            
-            if (!scriptFile.exists()) {
-                logger.warn("Python prediction script not found, using fallback calculation");
+            Product product = new Product();
+            product.setProductId(productId);
+            product.setStockLevel(currentStock);
+            product.setPrice(price);
+            product.setCategory(category);
+            product.setSkuId(skuId);
+            double[] predictions = score(List.of(product));
+            if (predictions == null) {
                 return calculateFallbackDemand(currentStock, price);
             }
-            
-            // Execute Python script
-            ProcessBuilder pb = new ProcessBuilder(
-                pythonPath,
-                scriptFile.getAbsolutePath(),
-                String.valueOf(productId),
-                String.valueOf(currentStock != null ? currentStock : 50),
-                String.valueOf(price != null ? price : 100.0),
-                skuId != null ? skuId : ""
-            );
-            pb.directory(scriptFile.getParentFile());
-            pb.redirectErrorStream(true);
-            
-            Process process = pb.start();
-            
-            // Read output
-            StringBuilder output = new StringBuilder();
-            StringBuilder errorOutput = new StringBuilder();
-            
-            try (BufferedReader reader = new BufferedReader(
-                    new InputStreamReader(process.getInputStream()));
-                 BufferedReader errorReader = new BufferedReader(
-                    new InputStreamReader(process.getErrorStream()))) {
-                String line;
-                while ((line = reader.readLine()) != null) {
-                    if (line.startsWith("ERROR")) {
-                        errorOutput.append(line).append("\n");
-                    } else {
-                        output.append(line).append("\n");
-                    }
-                }
-                while ((line = errorReader.readLine()) != null) {
-                    errorOutput.append(line).append("\n");
-                }
+            double prediction = Math.max(0, predictions[0]); // Ensure non-negative
+            predictionCache.put(productId, currentStock, price, skuId, prediction);
+            return prediction;
+        } catch (Exception e) {
+            logger.error("Error predicting demand", e);
+            return calculateFallbackDemand(currentStock, price);
+        }
+    }
+    
+    /**
+     * Predicts demand for many products with a single model call
+     * @param products Products to score
+     * @return Predicted demand per product, in the same order as the input
+     */
+    public List<Double> predictDemandBatch(List<Product> products) {
+        Double[] result = predictModelBatch(products);
+        for (int i = 0; i < result.length; i++) {
+            if (result[i] == null) {
+                Product p = products.get(i);
+                result[i] = calculateFallbackDemand(p.getStockLevel(), p.getPrice());
             }
-            
-            int exitCode = process.waitFor();
-            if (exitCode != 0) {
-                logger.error("Python script failed with exit code: {}", exitCode);
-                logger.error("Error output: {}", errorOutput.toString());
-                return calculateFallbackDemand(currentStock, price);
+        }
+        return Arrays.asList(result);
+    }
+    
+    /**
+     * Scores products with the model only, without the heuristic fallback
+     * @param products Products to score
+     * @return Model prediction per product, null where the model could not answer
+     */
+    public Double[] predictModelBatch(List<Product> products) {
+        Double[] result = new Double[products.size()];
+        List<Integer> missing = new ArrayList<>();
+        List<Product> toScore = new ArrayList<>();
+        for (int i = 0; i < products.size(); i++) {
+            Product p = products.get(i);
+            result[i] = predictionCache.get(p.getProductId(), p.getStockLevel(), p.getPrice(), p.getSkuId());
+            if (result[i] == null) {
+                missing.add(i);
+                toScore.add(p);
+            }
+        }
+        if (missing.isEmpty()) {
+            return result;
+        }
+
+        double[] predictions = null;
+        try {
+            predictions = score(toScore);
+        } catch (Exception e) {
+            logger.error("Error predicting demand for batch of {} products", toScore.size(), e);
+        }
+        if (predictions == null) {
+            return result;
+        }
+
+        for (int j = 0; j < missing.size(); j++) {
+            int i = missing.get(j);
+            Product p = products.get(i);
+            result[i] = Math.max(0, predictions[j]);
+            predictionCache.put(p.getProductId(), p.getStockLevel(), p.getPrice(), p.getSkuId(), result[i]);
+        }
+        return result;
+    }
+    
+    /**
+     * Runs the first available backend whose circuit breaker permits the call,
+     * falling through to the next one when it cannot answer
+     */
+    private double[] score(List<Product> products) {
+        for (PredictionBackend backend : backends) {
+            if (!backend.isAvailable()) {
+                continue;
             }
-            
-            // Parse prediction from output
-            String result = output.toString().trim();
-            // Remove any error messages that might be in output
-            String[] lines = result.split("\n");
-            String lastLine = lines[lines.length - 1];
-            
+            CircuitBreaker breaker = circuitBreakers.forBackend(backend.getName());
+            if (!breaker.tryAcquire()) {
+                continue;
+            }
+            long start = System.nanoTime();
+            double[] predictions;
             try {
-                double prediction = Double.parseDouble(lastLine);
-                return Math.max(0, prediction); // Ensure non-negative
-            } catch (NumberFormatException e) {
-                logger.error("Failed to parse prediction result: {}", result);
-                return calculateFallbackDemand(currentStock, price);
+                predictions = backend.predict(products);
+            } catch (RuntimeException e) {
+                logger.error("Prediction backend {} failed", backend.getName(), e);
+                breaker.onFailure();
+                continue;
             }
-            
-        } catch (Exception e) {
-            logger.error("Error predicting demand", e);
-            return calculateFallbackDemand(currentStock, price);
+            if (predictions == null) {
+                breaker.onFailure();
+                continue;
+            }
+            breaker.onSuccess(System.nanoTime() - start);
+            return predictions;
         }
+        return null;
     }
     
-    private Double calculateFallbackDemand(Integer currentStock, Double price) {
+    /**
+     * Name of the backend that currently answers predictions
+     */
+    public String getActiveBackend() {
+        return backends.stream()
+            .filter(b -> b.isAvailable() && circuitBreakers.forBackend(b.getName()).getState() != CircuitBreaker.State.OPEN)
+            .findFirst()
+            .map(PredictionBackend::getName).orElse("fallback");
+    }
+    
+    /**
+     * Circuit breaker state, rates and recent transitions per backend
+     */
+    public Map<String, Object> getBreakerMetrics() {
+        return circuitBreakers.getMetrics();
+    }
+    
+    /**
+     * Hit, miss and eviction counters of the prediction cache
+     */
+    public Map<String, Object> getCacheStats() {
+        return predictionCache.getStats();
+    }
+    
+    /**
+     * Heuristic demand estimate used whenever the model is unavailable
+     */
+    public Double calculateFallbackDemand(Integer currentStock, Double price) {
         // Simple heuristic: higher stock and lower price = higher predicted demand
         if (currentStock == null) currentStock = 50;
         if (price == null) price = 100.0;
@@ -0,0 +1,108 @@
+package com.example.inventory.services;
+
+import com.example.inventory.model.Product;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * In-process scoring with the forest exported by ml/export_forest.py.
+ * When the export is missing, {@link #isLoaded()} is false and callers
+ * use the Python workers instead.
+ */
+@Component
+public class NativeDemandModel implements PredictionBackend {
+    private static final Logger logger = LoggerFactory.getLogger(NativeDemandModel.class);
+
+    @Value("${ml.forest.path:../ml/demand_forest.bin}")
+    private String forestPath;
+
+    private volatile DemandForest forest;
+    private final ThreadLocal<double[]> buffers = new ThreadLocal<>();
+
+    @PostConstruct
+    void load() {
+        Path path = Paths.get(forestPath);
+        if (!path.isAbsolute()) {
+            path = Paths.get(System.getProperty("user.dir")).resolve(forestPath).normalize();
+        }
+        if (!Files.exists(path)) {
+            logger.info("No exported demand forest at {}, using Python workers", path);
+            return;
+        }
+        try {
+            forest = DemandForest.load(path);
+            logger.info("Loaded demand forest: {} trees, {} nodes, {} features",
+                forest.getTreeCount(), forest.getNodeCount(), forest.getFeatureCount());
+        } catch (Exception e) {
+            logger.error("Failed to load demand forest from {}", path, e);
+        }
+    }
+
+    public boolean isLoaded() {
+        return forest != null;
+    }
+
+    @Override
+    public String getName() {
+        return "native";
+    }
+
+    @Override
+    public boolean isAvailable() {
+        return isLoaded();
+    }
+
+    @Override
+    public double[] predict(List<Product> products) {
+        DemandForest f = forest;
+        if (f == null) {
+            return null;
+        }
+        LocalDate today = LocalDate.now();
+        double[] result = new double[products.size()];
+        for (int i = 0; i < result.length; i++) {
+            Product p = products.get(i);
+            result[i] = predict(f, today, p.getProductId(), p.getStockLevel(), p.getPrice(), p.getSkuId());
+        }
+        return result;
+    }
+
+    private double predict(DemandForest f, LocalDate asOf, Long productId, Integer currentStock, Double price, String skuId) {
+        double stock = currentStock != null ? currentStock : 50;
+        double[] features = buffers.get();
+        if (features == null || features.length < f.getFeatureCount()) {
+            features = new double[f.getFeatureCount()];
+            buffers.set(features);
+        }
+        f.encode(productId != null ? productId : 0, stock, price != null ? price : 100.0, skuId, asOf, features);
+        return adjustForStock(f.predict(features), stock);
+    }
+
+    /**
+     * Inverse stock-demand scaling, mirrors adjust_for_stock in ml/demand_features.py.
+     */
+    static double adjustForStock(double prediction, double currentStock) {
+        double base = prediction * 0.5;
+        if (currentStock < 10) {
+            base *= 3.0;
+        } else if (currentStock < 50) {
+            base *= 2.0;
+        } else if (currentStock < 100) {
+            base *= 1.2;
+        } else if (currentStock > 150) {
+            base *= 0.3;
+        } else {
+            base *= 0.6;
+        }
+        return Math.max(0.0, base);
+    }
+}
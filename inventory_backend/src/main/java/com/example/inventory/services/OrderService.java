@@ -1,28 +1,75 @@
 package com.example.inventory.services;
 
+import com.example.inventory.dto.OrderDTO;
 import com.example.inventory.model.OrderEntity;
 import com.example.inventory.model.Product;
-import com.example.inventory.model.User;
 import com.example.inventory.repository.OrderRepository;
 import com.example.inventory.repository.ProductRepository;
 import com.example.inventory.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.util.List;
+import javax.sql.DataSource;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.*;
 
 @Service
 public class OrderService {
+    public static final int MAX_ORDER_LINES = 100;
+
+    // Locks the cart's products in id order, so two carts never wait on each other in a cycle.
+    // NO KEY UPDATE, as the key never changes, lets concurrent order inserts pass their foreign key checks
+    private static final String LOCK_PRODUCTS_SQL =
+        "SELECT product_id, name, stock_level FROM products WHERE product_id = ANY(?) " +
+        "ORDER BY product_id FOR NO KEY UPDATE";
+
+    private static final String TAKE_STOCK_SQL =
+        "UPDATE products p SET stock_level = p.stock_level - a.quantity, " +
+        "version = p.version + 1, last_modified = now() " +
+        "FROM unnest(?::bigint[], ?::int[]) AS a(product_id, quantity) " +
+        "WHERE p.product_id = a.product_id";
+
+    private static final String INSERT_ORDER_SQL =
+        "INSERT INTO orders (user_id, product_id, quantity, timestamp, stock_settled) VALUES (?, ?, ?, ?, ?)";
+
     private final OrderRepository orderRepository;
     private final ProductRepository productRepository;
     private final UserRepository userRepository;
+    private final ApplicationEventPublisher events;
+    private final StockLedger stockLedger;
+    private final SalesRollupService salesRollups;
+    private final JdbcTemplate jdbcTemplate;
+    // sync: conditional UPDATE per order; ledger: reserve in memory, write back in batches
+    private final boolean ledgerMode;
 
     public OrderService(OrderRepository orderRepository, 
                        ProductRepository productRepository,
-                       UserRepository userRepository) {
+                       UserRepository userRepository,
+                       ApplicationEventPublisher events,
+                       StockLedger stockLedger,
+                       SalesRollupService salesRollups,
+                       DataSource dataSource,
+                       @Value("${orders.intake.mode:sync}") String intakeMode) {
         this.orderRepository = orderRepository;
         this.productRepository = productRepository;
         this.userRepository = userRepository;
+        this.events = events;
+        this.stockLedger = stockLedger;
+        this.salesRollups = salesRollups;
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.ledgerMode = "ledger".equalsIgnoreCase(intakeMode);
     }
 
     @Transactional
@@ -31,45 +78,275 @@ public class OrderService {
             throw new IllegalArgumentException("Quantity must be greater than zero");
         }
 
-        User user = userRepository.findById(userId)
-            .orElseThrow(() -> new IllegalArgumentException("User not found with id: " + userId));
-            
-        Product product = productRepository.findById(productId)
-            .orElseThrow(() -> new IllegalArgumentException("Product not found with id: " + productId));
-            
-        if (product.getStockLevel() == null || product.getStockLevel() < quantity) {
-            throw new IllegalArgumentException("Insufficient stock for product: " + product.getName() + 
-                                             ". Available: " + (product.getStockLevel() != null ? product.getStockLevel() : 0));
+        if (!userRepository.existsById(userId)) {
+            throw new IllegalArgumentException("User not found with id: " + userId);
+        }
+
+        if (ledgerMode) {
+            return placeOrderFromLedger(userId, productId, quantity);
         }
-        
-        // Update product stock
-        product.setStockLevel(product.getStockLevel() - quantity);
-        productRepository.save(product);
 
-        // Create and save order
+        // Reserve the stock with a conditional update instead of read-modify-write
+        if (productRepository.decrementStock(productId, quantity, Instant.now()) == 0) {
+            throw insufficientStock(productId, null);
+        }
+        events.publishEvent(new ProductChangeEvent(productId, ProductChangeEvent.Type.STOCK_CHANGED));
+
+        // References only, the insert needs nothing but the ids
         OrderEntity order = new OrderEntity();
-        order.setUser(user);
-        order.setProduct(product);
+        order.setUser(userRepository.getReferenceById(userId));
+        order.setProduct(productRepository.getReferenceById(productId));
         order.setQuantity(quantity);
-        
-        return orderRepository.save(order);
+        OrderEntity saved = orderRepository.save(order);
+        salesRollups.record(saved.getTimestamp(), Map.of(productId, quantity), Map.of(productId, 1));
+        return saved;
+    }
+
+    /** One cart line of a batch checkout. */
+    public record OrderLine(Long productId, int quantity) {}
+
+    /**
+     * Places one order per line, all or nothing. Stock for every line is
+     * checked and taken under row locks in one transaction, and the orders
+     * are inserted as one JDBC batch. In sync mode the sales rollups are
+     * updated in the same transaction; ledger orders are rolled up when the
+     * ledger settles them.
+     * @return the order ids, in line order
+     * @throws CheckoutException listing every failing line
+     * @throws IllegalArgumentException if the request as a whole is invalid
+     */
+    @Transactional
+    public List<Long> placeOrders(Long userId, List<OrderLine> lines) {
+        if (lines == null || lines.isEmpty()) {
+            throw new IllegalArgumentException("At least one order line is required");
+        }
+        if (lines.size() > MAX_ORDER_LINES) {
+            throw new IllegalArgumentException("At most " + MAX_ORDER_LINES + " order lines per checkout");
+        }
+        List<Map<String, Object>> errors = new ArrayList<>();
+        // Sorted by product id, the order rows are locked in
+        Map<Long, Integer> totals = new TreeMap<>();
+        for (int i = 0; i < lines.size(); i++) {
+            OrderLine line = lines.get(i);
+            if (line.productId() == null) {
+                errors.add(lineError(i, null, "product_id is required"));
+            } else if (line.quantity() <= 0) {
+                errors.add(lineError(i, line.productId(), "Quantity must be greater than zero"));
+            } else {
+                totals.merge(line.productId(), line.quantity(), Math::addExact);
+            }
+        }
+        if (!errors.isEmpty()) {
+            throw new CheckoutException(errors);
+        }
+        if (!userRepository.existsById(userId)) {
+            throw new IllegalArgumentException("User not found with id: " + userId);
+        }
+
+        List<StockLedger.Reservation> reservations = null;
+        if (ledgerMode) {
+            reservations = reserveFromLedger(lines, errors);
+        } else {
+            takeStock(lines, totals, errors);
+        }
+        if (!errors.isEmpty()) {
+            // Rolls back; ledger reservations are released with it
+            throw new CheckoutException(errors);
+        }
+
+        Instant now = Instant.now();
+        List<Long> orderIds = insertOrders(userId, lines, now, !ledgerMode);
+        if (ledgerMode) {
+            for (int i = 0; i < lines.size(); i++) {
+                reservations.get(i).setOrderId(orderIds.get(i));
+            }
+        } else {
+            Map<Long, Integer> orderCounts = new HashMap<>();
+            lines.forEach(line -> orderCounts.merge(line.productId(), 1, Integer::sum));
+            salesRollups.record(now, totals, orderCounts);
+            ProductChangeEvent.stockChanged(totals.keySet()).forEach(events::publishEvent);
+        }
+        return orderIds;
+    }
+
+    private void takeStock(List<OrderLine> lines, Map<Long, Integer> totals, List<Map<String, Object>> errors) {
+        Long[] ids = totals.keySet().toArray(Long[]::new);
+        Map<Long, Object[]> locked = new HashMap<>();
+        jdbcTemplate.query(LOCK_PRODUCTS_SQL,
+            ps -> ps.setArray(1, ps.getConnection().createArrayOf("bigint", ids)),
+            (RowCallbackHandler) rs -> locked.put(rs.getLong("product_id"),
+                new Object[] { rs.getString("name"), rs.getInt("stock_level") }));
+        for (int i = 0; i < lines.size(); i++) {
+            Long productId = lines.get(i).productId();
+            Object[] product = locked.get(productId);
+            if (product == null) {
+                errors.add(lineError(i, productId, "Product not found with id: " + productId));
+            } else if ((Integer) product[1] < totals.get(productId)) {
+                errors.add(lineError(i, productId, "Insufficient stock for product: " + product[0] +
+                    ". Available: " + product[1]));
+            }
+        }
+        if (errors.isEmpty()) {
+            Integer[] quantities = totals.values().toArray(Integer[]::new);
+            jdbcTemplate.update(TAKE_STOCK_SQL, ps -> {
+                ps.setArray(1, ps.getConnection().createArrayOf("bigint", ids));
+                ps.setArray(2, ps.getConnection().createArrayOf("integer", quantities));
+            });
+        }
+    }
+
+    private List<StockLedger.Reservation> reserveFromLedger(List<OrderLine> lines, List<Map<String, Object>> errors) {
+        StockLedger.Reservation[] reservations = new StockLedger.Reservation[lines.size()];
+        Integer[] byProduct = new Integer[lines.size()];
+        for (int i = 0; i < byProduct.length; i++) {
+            byProduct[i] = i;
+        }
+        Arrays.sort(byProduct, Comparator.comparing(i -> lines.get(i).productId()));
+        for (int i : byProduct) {
+            OrderLine line = lines.get(i);
+            try {
+                reservations[i] = stockLedger.reserve(line.productId(), line.quantity());
+                if (reservations[i] == null) {
+                    errors.add(lineError(i, line.productId(), insufficientStock(line.productId(),
+                        stockLedger.getAvailable(line.productId())).getMessage()));
+                }
+            } catch (IllegalArgumentException e) {
+                errors.add(lineError(i, line.productId(), e.getMessage()));
+            }
+        }
+        errors.sort(Comparator.comparing(e -> (Integer) e.get("line")));
+        return Arrays.asList(reservations);
+    }
+
+    private List<Long> insertOrders(Long userId, List<OrderLine> lines, Instant placedAt, boolean stockSettled) {
+        Timestamp now = Timestamp.from(placedAt);
+        KeyHolder keys = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(con -> con.prepareStatement(INSERT_ORDER_SQL, new String[] { "order_id" }),
+            new BatchPreparedStatementSetter() {
+                @Override
+                public void setValues(PreparedStatement ps, int i) throws SQLException {
+                    ps.setLong(1, userId);
+                    ps.setLong(2, lines.get(i).productId());
+                    ps.setInt(3, lines.get(i).quantity());
+                    ps.setTimestamp(4, now);
+                    ps.setBoolean(5, stockSettled);
+                }
+
+                @Override
+                public int getBatchSize() {
+                    return lines.size();
+                }
+            }, keys);
+        List<Long> ids = new ArrayList<>(lines.size());
+        keys.getKeyList().forEach(k -> ids.add(((Number) k.get("order_id")).longValue()));
+        return ids;
+    }
+
+    private static Map<String, Object> lineError(int line, Long productId, String error) {
+        Map<String, Object> entry = new LinkedHashMap<>();
+        entry.put("line", line);
+        entry.put("product_id", productId);
+        entry.put("error", error);
+        return entry;
+    }
+
+    /**
+     * Products and sales rollups are not written here; the ledger settles
+     * committed orders in its next flush.
+     */
+    private OrderEntity placeOrderFromLedger(Long userId, Long productId, int quantity) {
+        StockLedger.Reservation reservation = stockLedger.reserve(productId, quantity);
+        if (reservation == null) {
+            throw insufficientStock(productId, stockLedger.getAvailable(productId));
+        }
+        OrderEntity order = new OrderEntity();
+        order.setUser(userRepository.getReferenceById(userId));
+        order.setProduct(productRepository.getReferenceById(productId));
+        order.setQuantity(quantity);
+        order.setStockSettled(false);
+        OrderEntity saved = orderRepository.save(order);
+        reservation.setOrderId(saved.getId());
+        return saved;
+    }
+
+    private IllegalArgumentException insufficientStock(Long productId, Integer available) {
+        Product product = productRepository.findById(productId)
+            .orElseThrow(() -> new IllegalArgumentException("Product not found with id: " + productId));
+        int shown = available != null ? available : product.getStockLevel() != null ? product.getStockLevel() : 0;
+        return new IllegalArgumentException("Insufficient stock for product: " + product.getName() + 
+                                            ". Available: " + shown);
+    }
+
+    public Map<String, Object> getLedgerStats() {
+        Map<String, Object> stats = new LinkedHashMap<>(stockLedger.getStats());
+        stats.put("mode", ledgerMode ? "ledger" : "sync");
+        return stats;
     }
 
     public List<OrderEntity> getAllOrders() {
         return orderRepository.findAll();
     }
     
-    @Transactional(readOnly = true)
-    public List<OrderEntity> getAllOrdersWithJoins() {
-        List<OrderEntity> orders = orderRepository.findAll();
-        // Force initialization of lazy relationships
-        orders.forEach(order -> {
-            order.getUser(); // Initialize user
-            order.getProduct(); // Initialize product
-        });
-        return orders;
+    /**
+     * Every order, newest first, read with one query.
+     */
+    public List<OrderDTO> getOrderSummaries() {
+        return orderRepository.findPage(null, null, null, null, null, null, null);
+    }
+
+    /**
+     * Keyset page of orders, newest first.
+     * @param cursor nextCursor of the previous page, or null for the first page
+     * @return items and nextCursor, which is null on the last page
+     * @throws IllegalArgumentException if the cursor or limit is invalid
+     */
+    public Map<String, Object> getOrdersPage(String cursor, Integer limit, Long userId, Long productId,
+                                             Instant from, Instant to) {
+        int size = limit == null ? ProductService.DEFAULT_PAGE_SIZE : limit;
+        if (size < 1 || size > ProductService.MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("limit must be between 1 and " + ProductService.MAX_PAGE_SIZE);
+        }
+        if (from != null && to != null && !from.isBefore(to)) {
+            throw new IllegalArgumentException("from must be before to");
+        }
+        Instant beforeTimestamp = null;
+        Long beforeId = null;
+        if (cursor != null && !cursor.isEmpty()) {
+            String[] position = decodeCursor(cursor);
+            beforeTimestamp = Instant.parse(position[0]);
+            beforeId = Long.valueOf(position[1]);
+        }
+        // One extra row tells whether another page follows
+        List<OrderDTO> rows = orderRepository.findPage(beforeTimestamp, beforeId, userId, productId, from, to, size + 1);
+        boolean hasMore = rows.size() > size;
+        List<OrderDTO> items = hasMore ? rows.subList(0, size) : rows;
+
+        Map<String, Object> page = new LinkedHashMap<>();
+        page.put("items", items);
+        page.put("nextCursor", hasMore ? encodeCursor(items.get(items.size() - 1)) : null);
+        return page;
+    }
+
+    static String encodeCursor(OrderDTO last) {
+        String position = last.getTimestamp() + "|" + last.getId();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(position.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static String[] decodeCursor(String cursor) {
+        try {
+            String[] position = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("\\|");
+            if (position.length != 2) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            Instant.parse(position[0]);
+            Long.valueOf(position[1]);
+            return position;
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
     }
 
+    // Unbounded, full entities; time windows go through getOrdersPage
     public List<OrderEntity> getOrdersByUser(Long userId) {
         return orderRepository.findByUser_Id(userId);
     }
@@ -0,0 +1,45 @@
+package com.example.inventory.services;
+
+import com.example.inventory.model.Product;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A way of running the demand model. MlPredictionService picks one per
+ * call according to {@code ml.backend} and applies caching and the
+ * heuristic fallback on top of it.
+ */
+public interface PredictionBackend {
+
+    /**
+     * Name used in {@code ml.backend} and in metrics.
+     */
+    String getName();
+
+    /**
+     * Whether the backend can currently take requests.
+     */
+    boolean isAvailable();
+
+    /**
+     * Scores products with the model.
+     * @return one prediction per product, in input order,
+     *         or null when the backend could not answer
+     */
+    double[] predict(List<Product> products);
+
+    /**
+     * Feature row understood by ml/demand_features.py.
+     */
+    static Map<String, Object> featureRow(Product p) {
+        Map<String, Object> row = new HashMap<>();
+        row.put("product_id", p.getProductId());
+        row.put("current_stock", p.getStockLevel() != null ? p.getStockLevel() : 50);
+        row.put("price", p.getPrice() != null ? p.getPrice() : 100.0);
+        row.put("category", p.getCategory());
+        row.put("sku_id", p.getSkuId());
+        return row;
+    }
+}
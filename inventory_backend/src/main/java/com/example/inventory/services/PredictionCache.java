@@ -0,0 +1,142 @@
+package com.example.inventory.services;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded LRU cache of model predictions keyed by the product state that
+ * feeds the model. Entries expire after a TTL and are dropped as soon as
+ * the product they belong to changes; a per-product key index keeps that
+ * proportional to the product's own entries.
+ */
+@Component
+public class PredictionCache {
+
+    private final int maxEntries;
+    private final long ttlNanos;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong expirations = new AtomicLong();
+    private final AtomicLong invalidations = new AtomicLong();
+
+    // Both guarded by entries
+    private final LinkedHashMap<Key, Entry> entries;
+    private final Map<Long, Set<Key>> keysByProduct = new HashMap<>();
+
+    public PredictionCache(@Value("${ml.cache.max-entries:10000}") int maxEntries,
+                           @Value("${ml.cache.ttl-seconds:600}") long ttlSeconds) {
+        this.maxEntries = maxEntries;
+        this.ttlNanos = TimeUnit.SECONDS.toNanos(ttlSeconds);
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+                if (size() > PredictionCache.this.maxEntries) {
+                    evictions.incrementAndGet();
+                    unindex(eldest.getKey());
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * @return the cached prediction, or null when absent or expired
+     */
+    public Double get(Long productId, Integer stockLevel, Double price, String skuId) {
+        Key key = new Key(productId, stockLevel, price, skuId);
+        synchronized (entries) {
+            Entry entry = entries.get(key);
+            if (entry != null && System.nanoTime() - entry.createdAt >= ttlNanos) {
+                entries.remove(key);
+                unindex(key);
+                expirations.incrementAndGet();
+                entry = null;
+            }
+            if (entry == null) {
+                misses.incrementAndGet();
+                return null;
+            }
+            hits.incrementAndGet();
+            return entry.value;
+        }
+    }
+
+    public void put(Long productId, Integer stockLevel, Double price, String skuId, double value) {
+        Key key = new Key(productId, stockLevel, price, skuId);
+        synchronized (entries) {
+            keysByProduct.computeIfAbsent(productId, id -> new HashSet<>()).add(key);
+            entries.put(key, new Entry(value, System.nanoTime()));
+        }
+    }
+
+    /**
+     * Drops every cached prediction for the given product.
+     */
+    public void invalidateProduct(Long productId) {
+        synchronized (entries) {
+            Set<Key> keys = keysByProduct.remove(productId);
+            if (keys != null) {
+                keys.forEach(entries::remove);
+                invalidations.addAndGet(keys.size());
+            }
+        }
+    }
+
+    public void clear() {
+        synchronized (entries) {
+            invalidations.addAndGet(entries.size());
+            entries.clear();
+            keysByProduct.clear();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChange(ProductChangeEvent event) {
+        if (event.getProductId() != null) {
+            invalidateProduct(event.getProductId());
+        } else {
+            clear();
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        long h = hits.get();
+        long m = misses.get();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        synchronized (entries) {
+            stats.put("size", entries.size());
+        }
+        stats.put("maxEntries", maxEntries);
+        stats.put("ttlSeconds", TimeUnit.NANOSECONDS.toSeconds(ttlNanos));
+        stats.put("hits", h);
+        stats.put("misses", m);
+        stats.put("hitRate", h + m == 0 ? 0.0 : (double) h / (h + m));
+        stats.put("evictions", evictions.get());
+        stats.put("expirations", expirations.get());
+        stats.put("invalidations", invalidations.get());
+        return stats;
+    }
+
+    private void unindex(Key key) {
+        Set<Key> keys = keysByProduct.get(key.productId());
+        if (keys != null && keys.remove(key) && keys.isEmpty()) {
+            keysByProduct.remove(key.productId());
+        }
+    }
+
+    private record Key(Long productId, Integer stockLevel, Double price, String skuId) { }
+
+    private record Entry(double value, long createdAt) { }
+}
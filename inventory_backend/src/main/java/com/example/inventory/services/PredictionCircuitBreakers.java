@@ -0,0 +1,57 @@
+package com.example.inventory.services;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * One {@link CircuitBreaker} per prediction backend, all sharing the
+ * {@code ml.breaker.*} settings.
+ */
+@Component
+public class PredictionCircuitBreakers {
+
+    @Value("${ml.breaker.window-size:20}")
+    private int windowSize;
+
+    @Value("${ml.breaker.minimum-calls:10}")
+    private int minimumCalls;
+
+    @Value("${ml.breaker.failure-rate-threshold:50}")
+    private double failureRateThreshold;
+
+    @Value("${ml.breaker.slow-call-ms:1000}")
+    private long slowCallMs;
+
+    @Value("${ml.breaker.slow-call-rate-threshold:80}")
+    private double slowCallRateThreshold;
+
+    @Value("${ml.breaker.open-duration-ms:10000}")
+    private long openDurationMs;
+
+    @Value("${ml.breaker.half-open-calls:3}")
+    private int halfOpenCalls;
+
+    private final Map<String, CircuitBreaker> breakers = new ConcurrentHashMap<>();
+
+    public CircuitBreaker forBackend(String name) {
+        return breakers.computeIfAbsent(name, n -> new CircuitBreaker(n, windowSize, minimumCalls,
+            failureRateThreshold, slowCallRateThreshold, slowCallMs, openDurationMs, halfOpenCalls,
+            Clock.systemUTC()));
+    }
+
+    /**
+     * Metrics of every breaker, keyed by backend name.
+     */
+    public Map<String, Object> getMetrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        breakers.values().stream()
+            .sorted((a, b) -> a.getName().compareTo(b.getName()))
+            .forEach(b -> metrics.put(b.getName(), b.getMetrics()));
+        return metrics;
+    }
+}
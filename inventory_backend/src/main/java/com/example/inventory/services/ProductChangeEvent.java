@@ -0,0 +1,70 @@
+package com.example.inventory.services;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Published whenever a product is created, modified or removed, so that
+ * in-memory views of the catalog can refresh the affected product.
+ */
+public class ProductChangeEvent {
+
+    public enum Type {
+        CREATED,
+        UPDATED,
+        DELETED,
+        STOCK_CHANGED,
+        /** Many products changed at once, e.g. a bulk import; there is no product id */
+        BULK
+    }
+
+    /** Above this many products one bulk event replaces the per-product events. */
+    static final int BULK_EVENT_THRESHOLD = 100;
+
+    private final Long productId;
+    private final Type type;
+
+    public ProductChangeEvent(Long productId, Type type) {
+        this.productId = productId;
+        this.type = type;
+    }
+
+    public static ProductChangeEvent bulk() {
+        return new ProductChangeEvent(null, Type.BULK);
+    }
+
+    /**
+     * Events for a statement that changed the stock of many products:
+     * one per product, or a single bulk event for large changes.
+     */
+    static List<ProductChangeEvent> stockChanged(Collection<Long> productIds) {
+        if (productIds.size() > BULK_EVENT_THRESHOLD) {
+            return List.of(bulk());
+        }
+        List<ProductChangeEvent> events = new ArrayList<>(productIds.size());
+        for (Long id : productIds) {
+            events.add(new ProductChangeEvent(id, Type.STOCK_CHANGED));
+        }
+        return events;
+    }
+
+    /**
+     * @return the changed product, or null for {@link Type#BULK}
+     */
+    public Long getProductId() {
+        return productId;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    @Override
+    public String toString() {
+        return "ProductChangeEvent{" +
+               "productId=" + productId +
+               ", type=" + type +
+               '}';
+    }
+}
@@ -0,0 +1,343 @@
+package com.example.inventory.services;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * Bulk product import from CSV or NDJSON, upserting on sku_id.
+ *
+ * <p>The body is parsed row by row and valid rows are written with JDBC
+ * batches of {@code INSERT ... ON CONFLICT (sku_id) DO UPDATE}. Ids come
+ * from the products identity column inside the insert, which Hibernate
+ * cannot batch but plain JDBC can. A batch the database rejects is retried
+ * row by row so the error is reported against the offending row.
+ */
+@Service
+public class ProductImportService {
+    private static final Logger logger = LoggerFactory.getLogger(ProductImportService.class);
+
+    private static final String UPSERT_SQL =
+        "INSERT INTO products (name, category, price, stock_level, description, image_url, sku_id, " +
+        "version, last_modified) " +
+        "VALUES (?, ?, ?, ?, ?, ?, ?, 0, now()) " +
+        "ON CONFLICT (sku_id) DO UPDATE SET name = EXCLUDED.name, category = EXCLUDED.category, " +
+        "price = EXCLUDED.price, stock_level = EXCLUDED.stock_level, " +
+        "description = COALESCE(EXCLUDED.description, products.description), " +
+        "image_url = COALESCE(EXCLUDED.image_url, products.image_url), " +
+        "version = products.version + 1, last_modified = now()";
+
+    static final int MAX_REPORTED_ERRORS = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final ApplicationEventPublisher events;
+    private final int batchSize;
+
+    public ProductImportService(DataSource dataSource, ObjectMapper objectMapper, ApplicationEventPublisher events,
+                                @Value("${catalog.import.batch-size:1000}") int batchSize) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.objectMapper = objectMapper;
+        this.events = events;
+        this.batchSize = Math.max(1, batchSize);
+    }
+
+    public enum Format { CSV, NDJSON }
+
+    /**
+     * Imports every row of {@code body}. Invalid rows are skipped and reported.
+     * @return counts, per-row errors and throughput
+     */
+    public Map<String, Object> importProducts(InputStream body, Format format) throws IOException {
+        long start = System.nanoTime();
+        Batch batch = new Batch();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+        try {
+            if (format == Format.CSV) {
+                readCsv(reader, batch);
+            } else {
+                readNdjson(reader, batch);
+            }
+            batch.flush();
+        } finally {
+            if (batch.imported > 0) {
+                // Many products changed at once, in-memory views reload
+                events.publishEvent(ProductChangeEvent.bulk());
+            }
+        }
+
+        double seconds = (System.nanoTime() - start) / 1e9;
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("format", format.name());
+        result.put("rowsRead", batch.rowsRead);
+        result.put("imported", batch.imported);
+        result.put("failed", batch.failed);
+        result.put("errors", batch.errors);
+        result.put("errorsTruncated", batch.failed > batch.errors.size());
+        result.put("elapsedMs", Math.round(seconds * 1000));
+        result.put("rowsPerSecond", seconds > 0 ? Math.round(batch.rowsRead / seconds) : batch.rowsRead);
+        logger.info("Imported {} of {} products ({} failed) in {} ms", batch.imported, batch.rowsRead,
+            batch.failed, result.get("elapsedMs"));
+        return result;
+    }
+
+    private void readNdjson(BufferedReader reader, Batch batch) throws IOException {
+        String line;
+        long row = 0;
+        while ((line = reader.readLine()) != null) {
+            row++;
+            if (line.isBlank()) continue;
+            batch.rowsRead++;
+            Map<String, String> fields = new HashMap<>();
+            try {
+                JsonNode node = objectMapper.readTree(line);
+                if (node == null || !node.isObject()) {
+                    throw new IllegalArgumentException("expected a JSON object");
+                }
+                node.fields().forEachRemaining(e -> fields.put(normalize(e.getKey()),
+                    e.getValue().isNull() ? null : e.getValue().asText()));
+            } catch (IOException | IllegalArgumentException e) {
+                batch.reject(row, null, "Invalid JSON: " + e.getMessage());
+                continue;
+            }
+            batch.add(row, fields);
+        }
+    }
+
+    private void readCsv(BufferedReader reader, Batch batch) throws IOException {
+        CsvReader csv = new CsvReader(reader);
+        List<String> header = csv.next();
+        if (header == null) {
+            return;
+        }
+        List<String> columns = header.stream().map(ProductImportService::normalize).toList();
+        if (!columns.contains("name") || !columns.contains("price") || !columns.contains("skuid")) {
+            throw new IllegalArgumentException("CSV header must include name, price and skuId");
+        }
+        List<String> values;
+        while ((values = csv.next()) != null) {
+            long row = csv.record;
+            if (values.size() == 1 && values.get(0).isEmpty()) continue;
+            batch.rowsRead++;
+            if (values.size() != columns.size()) {
+                batch.reject(row, null, "Expected " + columns.size() + " fields, found " + values.size());
+                continue;
+            }
+            Map<String, String> fields = new HashMap<>();
+            for (int i = 0; i < columns.size(); i++) {
+                fields.put(columns.get(i), values.get(i).isEmpty() ? null : values.get(i));
+            }
+            batch.add(row, fields);
+        }
+    }
+
+    /** Lower-cases and drops separators so skuId, sku_id and SKU ID all match. */
+    private static String normalize(String column) {
+        return column.toLowerCase(Locale.ROOT).replaceAll("[^a-z]", "");
+    }
+
+    /**
+     * @return the row as upsert parameters
+     * @throws IllegalArgumentException with a message for the client if the row is invalid
+     */
+    static Object[] validate(Map<String, String> fields) {
+        String name = trimToNull(fields.get("name"));
+        String sku = trimToNull(fields.get("skuid"));
+        String category = trimToNull(fields.get("category"));
+        String description = trimToNull(fields.get("description"));
+        String imageUrl = trimToNull(fields.get("imageurl"));
+        if (name == null) throw new IllegalArgumentException("name is required");
+        if (sku == null) throw new IllegalArgumentException("skuId is required");
+        checkLength("name", name, 100);
+        checkLength("skuId", sku, 50);
+        checkLength("category", category, 100);
+        checkLength("description", description, 500);
+        checkLength("imageUrl", imageUrl, 255);
+
+        double price;
+        try {
+            price = Double.parseDouble(Objects.requireNonNull(trimToNull(fields.get("price")), "price is required"));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("price must be a number");
+        } catch (NullPointerException e) {
+            throw new IllegalArgumentException(e.getMessage());
+        }
+        if (!(price >= 0) || Double.isInfinite(price)) throw new IllegalArgumentException("price must be >= 0");
+
+        String stockText = trimToNull(fields.containsKey("stocklevel") ? fields.get("stocklevel") : fields.get("stock"));
+        int stock = 0;
+        if (stockText != null) {
+            try {
+                stock = Integer.parseInt(stockText);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("stockLevel must be an integer");
+            }
+            if (stock < 0) throw new IllegalArgumentException("stockLevel must be >= 0");
+        }
+        return new Object[] { name, category, price, stock, description, imageUrl, sku };
+    }
+
+    private static void checkLength(String field, String value, int max) {
+        if (value != null && value.length() > max) {
+            throw new IllegalArgumentException(field + " is longer than " + max + " characters");
+        }
+    }
+
+    private static String trimToNull(String value) {
+        if (value == null) return null;
+        String trimmed = value.trim();
+        return trimmed.isEmpty() ? null : trimmed;
+    }
+
+    /** Rows waiting to be written, plus the running counts. */
+    private final class Batch {
+        final List<Object[]> params = new ArrayList<>();
+        final List<Long> rows = new ArrayList<>();
+        final Set<String> skus = new HashSet<>();
+        final List<Map<String, Object>> errors = new ArrayList<>();
+        long rowsRead;
+        long imported;
+        long failed;
+
+        void add(long row, Map<String, String> fields) {
+            Object[] values;
+            try {
+                values = validate(fields);
+            } catch (IllegalArgumentException e) {
+                reject(row, fields.get("skuid"), e.getMessage());
+                return;
+            }
+            // One upsert statement cannot touch the same row twice, later rows win
+            if (!skus.add((String) values[6])) {
+                flush();
+                skus.add((String) values[6]);
+            }
+            params.add(values);
+            rows.add(row);
+            if (params.size() >= batchSize) {
+                flush();
+            }
+        }
+
+        void flush() {
+            if (params.isEmpty()) return;
+            try {
+                jdbcTemplate.batchUpdate(UPSERT_SQL, params);
+                imported += params.size();
+            } catch (DataAccessException batchError) {
+                logger.debug("Import batch failed, retrying row by row: {}", batchError.getMessage());
+                for (int i = 0; i < params.size(); i++) {
+                    try {
+                        jdbcTemplate.update(UPSERT_SQL, params.get(i));
+                        imported++;
+                    } catch (DataAccessException e) {
+                        reject(rows.get(i), (String) params.get(i)[6], e.getMostSpecificCause().getMessage());
+                    }
+                }
+            }
+            params.clear();
+            rows.clear();
+            skus.clear();
+        }
+
+        void reject(long row, String sku, String message) {
+            failed++;
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                Map<String, Object> error = new LinkedHashMap<>();
+                error.put("row", row);
+                error.put("skuId", sku);
+                error.put("error", message);
+                errors.add(error);
+            }
+        }
+    }
+
+    /**
+     * Minimal RFC 4180 reader: comma separated, double-quoted fields may
+     * contain commas, quotes ("") and line breaks.
+     */
+    static final class CsvReader {
+        private final Reader reader;
+        private int peeked = -2;
+        /** Line number where the last returned record started. */
+        long record;
+        private long line = 1;
+
+        CsvReader(Reader reader) {
+            this.reader = reader;
+        }
+
+        List<String> next() throws IOException {
+            int c = read();
+            if (c == -1) {
+                return null;
+            }
+            record = line;
+            List<String> fields = new ArrayList<>();
+            StringBuilder field = new StringBuilder();
+            boolean quoted = false;
+            while (true) {
+                if (quoted) {
+                    if (c == -1) {
+                        throw new IllegalArgumentException("Unterminated quoted field starting on line " + record);
+                    }
+                    if (c == '"') {
+                        int n = read();
+                        if (n == '"') {
+                            field.append('"');
+                        } else {
+                            quoted = false;
+                            c = n;
+                            continue;
+                        }
+                    } else {
+                        field.append((char) c);
+                    }
+                } else if (c == '"' && field.length() == 0) {
+                    quoted = true;
+                } else if (c == ',') {
+                    fields.add(field.toString());
+                    field.setLength(0);
+                } else if (c == '\n' || c == '\r' || c == -1) {
+                    if (c == '\r') {
+                        int n = read();
+                        if (n != '\n') unread(n);
+                    }
+                    fields.add(field.toString());
+                    return fields;
+                } else {
+                    field.append((char) c);
+                }
+                c = read();
+            }
+        }
+
+        private int read() throws IOException {
+            int c;
+            if (peeked != -2) {
+                c = peeked;
+                peeked = -2;
+            } else {
+                c = reader.read();
+            }
+            if (c == '\n') line++;
+            return c;
+        }
+
+        private void unread(int c) {
+            if (c == '\n') line--;
+            peeked = c;
+        }
+    }
+}
@@ -0,0 +1,472 @@
+package com.example.inventory.services;
+
+import com.example.inventory.model.Product;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.*;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+/**
+ * In-memory inverted index over product name, category, description and SKU.
+ *
+ * <p>Each product gets a slot; postings are parallel int/float arrays of
+ * slots and field weights. Whole tokens go into {@code terms}, and leading
+ * n-grams of name, category and SKU tokens into {@code prefixes} so partial
+ * words match while typing. A query token with no exact or prefix match is
+ * looked up by trigram in the vocabulary and accepted within a small edit
+ * distance. Every query token must match; results are ranked by the sum of
+ * field weight times inverse document frequency.
+ *
+ * <p>Changes are applied incrementally: a changed product's old slot is
+ * tombstoned and a new one appended. The index is rebuilt once tombstones
+ * make up a quarter of the slots.
+ */
+@Component
+public class ProductSearchIndex {
+    private static final Logger logger = LoggerFactory.getLogger(ProductSearchIndex.class);
+
+    private static final Pattern SPLIT = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final float NAME_WEIGHT = 3f;
+    private static final float SKU_WEIGHT = 3f;
+    private static final float CATEGORY_WEIGHT = 2f;
+    private static final float DESCRIPTION_WEIGHT = 1f;
+    private static final float PREFIX_FACTOR = 0.6f;
+    private static final float FUZZY_FACTOR = 0.4f;
+    private static final int MIN_PREFIX = 2;
+    private static final int MAX_PREFIX = 12;
+    private static final int MIN_FUZZY = 4;
+
+    private final CatalogCache catalog;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private volatile Index index;
+    private volatile long lastBuildMs;
+
+    public ProductSearchIndex(CatalogCache catalog) {
+        this.catalog = catalog;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildInBackground() {
+        Thread t = new Thread(this::ensureBuilt, "product-search-index");
+        t.setDaemon(true);
+        t.start();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChange(ProductChangeEvent event) {
+        if (event.getProductId() == null) {
+            if (index != null) {
+                // Rebuilt off the publishing thread; searches wait for it under the write lock
+                Thread t = new Thread(() -> rebuild(catalog.getAll()), "product-search-index");
+                t.setDaemon(true);
+                t.start();
+            }
+            return;
+        }
+        if (index == null) {
+            return;
+        }
+        // CatalogCache listens first and has already reloaded the product, so
+        // searches only wait for the index update, never for the database
+        Product product = catalog.getCached(event.getProductId());
+        lock.writeLock().lock();
+        try {
+            if (index == null) {
+                return;
+            }
+            if (product == null) {
+                index.remove(event.getProductId());
+            } else if (event.getType() == ProductChangeEvent.Type.STOCK_CHANGED) {
+                // Searchable text is unchanged, only swap the returned instance
+                index.replace(product);
+            } else {
+                index.remove(event.getProductId());
+                index.add(product);
+            }
+            if (index.deleted > 1000 && index.deleted * 4 > index.size) {
+                rebuild(index.liveProducts());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Products matching every token of {@code query}, best match first.
+     */
+    public List<Product> search(String query, int limit) {
+        ensureBuilt();
+        List<String> tokens = tokenize(query);
+        if (tokens.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        lock.readLock().lock();
+        try {
+            return index.search(tokens, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        lock.readLock().lock();
+        try {
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("built", index != null);
+            stats.put("products", index != null ? index.size - index.deleted : 0);
+            stats.put("tombstones", index != null ? index.deleted : 0);
+            stats.put("terms", index != null ? index.terms.size() : 0);
+            stats.put("prefixes", index != null ? index.prefixes.size() : 0);
+            stats.put("lastBuildMs", lastBuildMs);
+            return stats;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    void ensureBuilt() {
+        if (index != null) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            if (index == null) {
+                rebuild(catalog.getAll());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Replaces the index with one built from {@code products}.
+     */
+    void rebuild(Collection<Product> products) {
+        lock.writeLock().lock();
+        try {
+            long start = System.nanoTime();
+            Index built = new Index(products.size());
+            for (Product p : products) {
+                built.add(p);
+            }
+            index = built;
+            lastBuildMs = (System.nanoTime() - start) / 1_000_000;
+            logger.info("Product search index built for {} products in {} ms", products.size(), lastBuildMs);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    static List<String> tokenize(String text) {
+        if (text == null || text.isBlank()) {
+            return List.of();
+        }
+        List<String> tokens = new ArrayList<>();
+        for (String token : SPLIT.split(text.toLowerCase(Locale.ROOT))) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+
+    /**
+     * Optimal string alignment distance, giving up once it exceeds {@code max}.
+     */
+    static int editDistance(String a, String b, int max) {
+        if (Math.abs(a.length() - b.length()) > max) {
+            return max + 1;
+        }
+        int[] prev2 = new int[b.length() + 1];
+        int[] prev = new int[b.length() + 1];
+        int[] cur = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) prev[j] = j;
+        for (int i = 1; i <= a.length(); i++) {
+            cur[0] = i;
+            int rowMin = cur[0];
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                cur[j] = Math.min(Math.min(cur[j - 1] + 1, prev[j] + 1), prev[j - 1] + cost);
+                if (i > 1 && j > 1 && a.charAt(i - 1) == b.charAt(j - 2) && a.charAt(i - 2) == b.charAt(j - 1)) {
+                    cur[j] = Math.min(cur[j], prev2[j - 2] + 1);
+                }
+                rowMin = Math.min(rowMin, cur[j]);
+            }
+            if (rowMin > max) {
+                return max + 1;
+            }
+            int[] t = prev2; prev2 = prev; prev = cur; cur = t;
+        }
+        return prev[b.length()];
+    }
+
+    private static final ThreadLocal<Scratch> SCRATCH = ThreadLocal.withInitial(Scratch::new);
+
+    /**
+     * Per-thread score arrays indexed by slot. Only the touched slots are
+     * reset after a query, so a query costs O(matching postings).
+     */
+    private static final class Scratch {
+        float[] total = new float[0];
+        float[] best = new float[0];
+        int[] matched = new int[0];
+        int[] tokenSlots = new int[64];
+        int[] candidates = new int[64];
+
+        Scratch ensure(int slots) {
+            if (total.length < slots) {
+                int capacity = Math.max(slots, total.length * 3 / 2);
+                total = new float[capacity];
+                best = new float[capacity];
+                matched = new int[capacity];
+            }
+            return this;
+        }
+    }
+
+    private static List<String> trigrams(String term) {
+        String padded = "$" + term + "$";
+        List<String> grams = new ArrayList<>(padded.length());
+        for (int i = 0; i + 3 <= padded.length(); i++) {
+            grams.add(padded.substring(i, i + 3));
+        }
+        return grams;
+    }
+
+    /** Slots and weights of the products containing one term. */
+    private static final class Postings {
+        int[] slots = new int[2];
+        float[] weights = new float[2];
+        int size;
+        float factor = 1f;
+
+        /** View over the same arrays with a different score factor. */
+        Postings withFactor(float factor) {
+            if (factor == this.factor) return this;
+            Postings view = new Postings();
+            view.slots = slots;
+            view.weights = weights;
+            view.size = size;
+            view.factor = factor;
+            return view;
+        }
+
+        void add(int slot, float weight) {
+            if (size == slots.length) {
+                slots = Arrays.copyOf(slots, size * 2);
+                weights = Arrays.copyOf(weights, size * 2);
+            }
+            slots[size] = slot;
+            weights[size] = weight;
+            size++;
+        }
+    }
+
+    private static final class Index {
+        Product[] docs;
+        int size;
+        int deleted;
+        final Map<Long, Integer> slotById;
+        final Map<String, Postings> terms = new HashMap<>();
+        final Map<String, Postings> prefixes = new HashMap<>();
+        final Map<String, List<String>> vocabulary = new HashMap<>();
+
+        Index(int capacity) {
+            docs = new Product[Math.max(16, capacity)];
+            slotById = new HashMap<>(Math.max(16, capacity * 2));
+        }
+
+        void add(Product p) {
+            if (size == docs.length) {
+                docs = Arrays.copyOf(docs, size * 2);
+            }
+            int slot = size++;
+            docs[slot] = p;
+            slotById.put(p.getId(), slot);
+
+            Map<String, Float> exact = new HashMap<>();
+            Map<String, Float> partial = new HashMap<>();
+            collect(p.getName(), NAME_WEIGHT, true, exact, partial);
+            collect(p.getSkuId(), SKU_WEIGHT, true, exact, partial);
+            collect(p.getCategory(), CATEGORY_WEIGHT, true, exact, partial);
+            collect(p.getDescription(), DESCRIPTION_WEIGHT, false, exact, partial);
+            exact.forEach((term, weight) -> {
+                Postings postings = terms.get(term);
+                if (postings == null) {
+                    postings = new Postings();
+                    terms.put(term, postings);
+                    if (term.length() >= MIN_FUZZY - 1) {
+                        for (String gram : trigrams(term)) {
+                            vocabulary.computeIfAbsent(gram, g -> new ArrayList<>(4)).add(term);
+                        }
+                    }
+                }
+                postings.add(slot, weight);
+            });
+            partial.forEach((prefix, weight) -> prefixes.computeIfAbsent(prefix, k -> new Postings()).add(slot, weight));
+        }
+
+        private static void collect(String text, float weight, boolean withPrefixes,
+                                    Map<String, Float> exact, Map<String, Float> partial) {
+            for (String token : tokenize(text)) {
+                exact.merge(token, weight, Float::sum);
+                if (withPrefixes) {
+                    for (int len = MIN_PREFIX; len < token.length() && len <= MAX_PREFIX; len++) {
+                        partial.merge(token.substring(0, len), weight, Math::max);
+                    }
+                }
+            }
+        }
+
+        void remove(Long productId) {
+            Integer slot = slotById.remove(productId);
+            if (slot != null && docs[slot] != null) {
+                docs[slot] = null;
+                deleted++;
+            }
+        }
+
+        void replace(Product p) {
+            Integer slot = slotById.get(p.getId());
+            if (slot != null) {
+                docs[slot] = p;
+            } else {
+                add(p);
+            }
+        }
+
+        List<Product> liveProducts() {
+            List<Product> live = new ArrayList<>(size - deleted);
+            for (int i = 0; i < size; i++) {
+                if (docs[i] != null) live.add(docs[i]);
+            }
+            return live;
+        }
+
+        List<Product> search(List<String> tokens, int limit) {
+            Scratch scratch = SCRATCH.get().ensure(size);
+            // Most selective token first keeps the candidate set small
+            List<List<Postings>> matches = new ArrayList<>(tokens.size());
+            for (String token : tokens) {
+                List<Postings> postings = match(token);
+                if (postings.isEmpty()) {
+                    return List.of();
+                }
+                matches.add(postings);
+            }
+            matches.sort(Comparator.comparingInt(Index::postingCount));
+
+            float[] total = scratch.total;
+            float[] best = scratch.best;
+            int[] matched = scratch.matched;
+            int candidates = 0;
+            try {
+                for (int k = 0; k < matches.size(); k++) {
+                    int touched = 0;
+                    for (Postings postings : matches.get(k)) {
+                        float factor = postings.factor * idf(postings.size);
+                        for (int i = 0; i < postings.size; i++) {
+                            int slot = postings.slots[i];
+                            if (matched[slot] != k || docs[slot] == null) continue;
+                            float score = postings.weights[i] * factor;
+                            if (best[slot] == 0f) scratch.tokenSlots = push(scratch.tokenSlots, touched++, slot);
+                            if (score > best[slot]) best[slot] = score;
+                        }
+                    }
+                    for (int i = 0; i < touched; i++) {
+                        int slot = scratch.tokenSlots[i];
+                        total[slot] += best[slot];
+                        best[slot] = 0f;
+                        matched[slot] = k + 1;
+                        if (k == 0) scratch.candidates = push(scratch.candidates, candidates++, slot);
+                    }
+                    if (touched == 0) {
+                        return List.of();
+                    }
+                }
+
+                PriorityQueue<Integer> top = new PriorityQueue<>(limit + 1, (a, b) -> total[a] != total[b]
+                    ? Float.compare(total[a], total[b]) : Integer.compare(b, a));
+                for (int i = 0; i < candidates; i++) {
+                    int slot = scratch.candidates[i];
+                    if (matched[slot] == matches.size()) {
+                        top.offer(slot);
+                        if (top.size() > limit) top.poll();
+                    }
+                }
+                List<Product> result = new ArrayList<>(top.size());
+                while (!top.isEmpty()) {
+                    result.add(docs[top.poll()]);
+                }
+                Collections.reverse(result);
+                return result;
+            } finally {
+                for (int i = 0; i < candidates; i++) {
+                    int slot = scratch.candidates[i];
+                    total[slot] = 0f;
+                    matched[slot] = 0;
+                }
+            }
+        }
+
+        /** Postings that match one query token, each carrying its score factor. */
+        private List<Postings> match(String token) {
+            List<Postings> found = new ArrayList<>(2);
+            Postings exact = terms.get(token);
+            if (exact != null) found.add(exact.withFactor(1f));
+            Postings prefix = prefixes.get(token);
+            if (prefix != null) found.add(prefix.withFactor(PREFIX_FACTOR));
+            if (found.isEmpty() && token.length() >= MIN_FUZZY) {
+                int maxDistance = token.length() >= 8 ? 2 : 1;
+                for (String candidate : fuzzyCandidates(token, maxDistance)) {
+                    found.add(terms.get(candidate).withFactor(FUZZY_FACTOR));
+                }
+            }
+            return found;
+        }
+
+        private static int postingCount(List<Postings> postings) {
+            int count = 0;
+            for (Postings p : postings) count += p.size;
+            return count;
+        }
+
+        private float idf(int documentFrequency) {
+            return (float) Math.log(1.0 + (double) (size - deleted) / Math.max(1, documentFrequency));
+        }
+
+        private static int[] push(int[] array, int index, int value) {
+            if (index == array.length) {
+                array = Arrays.copyOf(array, array.length * 2);
+            }
+            array[index] = value;
+            return array;
+        }
+
+        private Set<String> fuzzyCandidates(String token, int maxDistance) {
+            List<String> grams = trigrams(token);
+            // Each edit changes at most three trigrams
+            int needed = Math.max(1, grams.size() - 3 * maxDistance);
+            Map<String, Integer> shared = new HashMap<>();
+            for (String gram : grams) {
+                for (String term : vocabulary.getOrDefault(gram, List.of())) {
+                    shared.merge(term, 1, Integer::sum);
+                }
+            }
+            Set<String> candidates = new HashSet<>();
+            shared.forEach((term, count) -> {
+                if (count >= needed && editDistance(token, term, maxDistance) <= maxDistance) {
+                    candidates.add(term);
+                }
+            });
+            return candidates;
+        }
+    }
+}
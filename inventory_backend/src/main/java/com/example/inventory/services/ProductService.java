@@ -2,20 +2,99 @@ package com.example.inventory.services;
 
 import com.example.inventory.model.Product;
 import com.example.inventory.repository.ProductRepository;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
 
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 @Service
 public class ProductService {
+    public static final int DEFAULT_PAGE_SIZE = 50;
+    public static final int MAX_PAGE_SIZE = 500;
+
     private final ProductRepository repo;
-    public ProductService(ProductRepository repo) { this.repo = repo; }
+    private final ApplicationEventPublisher events;
+    private final CatalogCache catalog;
+    private final ProductSearchIndex searchIndex;
+    private final CategoryFacets facets;
+    public ProductService(ProductRepository repo, ApplicationEventPublisher events, CatalogCache catalog,
+                          ProductSearchIndex searchIndex, CategoryFacets facets) {
+        this.repo = repo;
+        this.events = events;
+        this.catalog = catalog;
+        this.searchIndex = searchIndex;
+        this.facets = facets;
+    }
+
+    // Reads are served from the catalog snapshot; the returned products are shared, do not modify them
+    public List<Product> getAll() { return catalog.getAll(); }
+    public CatalogCache.Snapshot getCatalog() { return catalog.snapshot(); }
+    public Product getById(Long id) { return catalog.getById(id).orElseThrow(); }
+    public Map<String, Object> getCacheStats() { return catalog.getStats(); }
+    public List<Product> search(String query, int limit) { return searchIndex.search(query, limit); }
+    public Map<String, Object> getSearchStats() { return searchIndex.getStats(); }
+    public Map<String, Object> getFacets() { return facets.getFacets(); }
+
+    /**
+     * Keyset page of products in id order, read from the database.
+     * @param cursor nextCursor of the previous page, or null for the first page
+     * @return items and nextCursor, which is null on the last page
+     * @throws IllegalArgumentException if the cursor or limit is invalid
+     */
+    public Map<String, Object> getPage(String cursor, Integer limit, String category,
+                                       Double minPrice, Double maxPrice, Boolean inStock) {
+        int size = limit == null ? DEFAULT_PAGE_SIZE : limit;
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("limit must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        // One extra row tells whether another page follows
+        List<Product> rows = repo.findPage(decodeCursor(cursor), category, minPrice, maxPrice, inStock, size + 1);
+        boolean hasMore = rows.size() > size;
+        List<Product> items = hasMore ? rows.subList(0, size) : rows;
+
+        Map<String, Object> page = new LinkedHashMap<>();
+        page.put("items", items);
+        page.put("nextCursor", hasMore ? encodeCursor(items.get(items.size() - 1).getId()) : null);
+        return page;
+    }
 
-    public List<Product> getAll() { return repo.findAll(); }
-    public Product getById(Long id) { return repo.findById(id).orElseThrow(); }
-    public Product create(Product p) { return repo.save(p); }
-    public Product update(Long id, Product p) {
-        Product existing = getById(id);
+    static String encodeCursor(Long lastId) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(("id:" + lastId).getBytes(StandardCharsets.UTF_8));
+    }
+
+    static Long decodeCursor(String cursor) {
+        if (cursor == null || cursor.isEmpty()) {
+            return null;
+        }
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            if (!decoded.startsWith("id:")) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            return Long.valueOf(decoded.substring(3));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+    public Product create(Product p) {
+        Product saved = repo.save(p);
+        events.publishEvent(new ProductChangeEvent(saved.getId(), ProductChangeEvent.Type.CREATED));
+        return saved;
+    }
+    /**
+     * @param expectedVersion version the client read, or null to update unconditionally
+     * @throws OptimisticLockingFailureException if the product is no longer at {@code expectedVersion}
+     */
+    public Product update(Long id, Product p, Long expectedVersion) {
+        Product existing = repo.findById(id).orElseThrow();
+        if (expectedVersion != null && !expectedVersion.equals(existing.getVersion())) {
+            throw new OptimisticLockingFailureException("Product " + id + " is at version " + existing.getVersion());
+        }
         existing.setName(p.getName());
         existing.setCategory(p.getCategory());
         existing.setPrice(p.getPrice());
@@ -23,7 +102,12 @@ public class ProductService {
         if (p.getDescription() != null) existing.setDescription(p.getDescription());
         if (p.getImageUrl() != null) existing.setImageUrl(p.getImageUrl());
         if (p.getSkuId() != null) existing.setSkuId(p.getSkuId());
-        return repo.save(existing);
+        Product saved = repo.save(existing);
+        events.publishEvent(new ProductChangeEvent(id, ProductChangeEvent.Type.UPDATED));
+        return saved;
+    }
+    public void delete(Long id) {
+        repo.deleteById(id);
+        events.publishEvent(new ProductChangeEvent(id, ProductChangeEvent.Type.DELETED));
     }
-    public void delete(Long id) { repo.deleteById(id); }
 }
@@ -0,0 +1,384 @@
+package com.example.inventory.services;
+
+import com.example.inventory.model.Product;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Pool of long-lived Python processes running ml/predict_worker.py.
+ * Each worker loads the model once and answers line-delimited JSON
+ * requests over stdin/stdout, so a prediction no longer pays for
+ * interpreter startup and model loading. Large batches are split into
+ * chunks that run on several workers at once, so every request stays
+ * within the per-request timeout whatever the catalog size.
+ */
+@Component
+public class PythonWorkerPool implements PredictionBackend {
+    private static final Logger logger = LoggerFactory.getLogger(PythonWorkerPool.class);
+
+    @Value("${ml.python.path:python3}")
+    private String pythonPath;
+
+    @Value("${ml.model.path:../ml/demand_model.joblib}")
+    private String modelPath;
+
+    @Value("${ml.worker.script:../ml/predict_worker.py}")
+    private String scriptPath;
+
+    @Value("${ml.worker.pool-size:2}")
+    private int poolSize;
+
+    @Value("${ml.worker.request-timeout-ms:2000}")
+    private long requestTimeoutMs;
+
+    @Value("${ml.worker.max-batch-rows:256}")
+    private int maxBatchRows;
+
+    @Value("${ml.worker.startup-timeout-ms:60000}")
+    private long startupTimeoutMs;
+
+    @Value("${ml.worker.health-check-interval-ms:15000}")
+    private long healthCheckIntervalMs;
+
+    private final ObjectMapper objectMapper;
+    private final BlockingQueue<Worker> idle = new LinkedBlockingQueue<>();
+    private final Set<Worker> workers = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger starting = new AtomicInteger();
+    private final AtomicLong requestIds = new AtomicLong();
+    private ScheduledExecutorService scheduler;
+    private ExecutorService dispatcher;
+    private volatile boolean shuttingDown;
+
+    public PythonWorkerPool(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    @PostConstruct
+    void start() {
+        scheduler = Executors.newScheduledThreadPool(1, r -> {
+            Thread t = new Thread(r, "ml-worker-pool");
+            t.setDaemon(true);
+            return t;
+        });
+        AtomicInteger dispatchThreads = new AtomicInteger();
+        dispatcher = Executors.newCachedThreadPool(r -> {
+            Thread t = new Thread(r, "ml-worker-dispatch-" + dispatchThreads.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        if (resolveScript() == null) {
+            logger.warn("Prediction worker script {} not found, predictions will use the fallback", scriptPath);
+            return;
+        }
+        for (int i = 0; i < poolSize; i++) {
+            scheduleStart(0);
+        }
+        scheduler.scheduleWithFixedDelay(this::healthCheck,
+            healthCheckIntervalMs, healthCheckIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void stop() {
+        shuttingDown = true;
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+        if (dispatcher != null) {
+            dispatcher.shutdownNow();
+        }
+        workers.forEach(Worker::destroy);
+        workers.clear();
+        idle.clear();
+    }
+
+    @Override
+    public String getName() {
+        return "worker";
+    }
+
+    @Override
+    public boolean isAvailable() {
+        return !workers.isEmpty();
+    }
+
+    @Override
+    public double[] predict(List<Product> products) {
+        List<Map<String, Object>> rows = new ArrayList<>(products.size());
+        for (Product p : products) {
+            rows.add(PredictionBackend.featureRow(p));
+        }
+        return predictRows(rows);
+    }
+
+    /**
+     * Scores the given feature rows, in chunks of at most
+     * {@code ml.worker.max-batch-rows} that run on the workers in parallel.
+     * @return one prediction per row, or null when a chunk got no answer in time
+     */
+    public double[] predictRows(List<Map<String, Object>> rows) {
+        int chunkSize = Math.max(1, maxBatchRows);
+        if (rows.size() <= chunkSize) {
+            return predictChunk(rows);
+        }
+        List<CompletableFuture<double[]>> others = new ArrayList<>();
+        try {
+            for (int from = chunkSize; from < rows.size(); from += chunkSize) {
+                List<Map<String, Object>> chunk = rows.subList(from, Math.min(rows.size(), from + chunkSize));
+                others.add(CompletableFuture.supplyAsync(() -> predictChunk(chunk), dispatcher));
+            }
+        } catch (RejectedExecutionException e) {
+            // Shutting down
+            return null;
+        }
+        // The first chunk runs on the calling thread
+        double[] first = predictChunk(rows.subList(0, chunkSize));
+        if (first == null) {
+            return null;
+        }
+        double[] result = new double[rows.size()];
+        System.arraycopy(first, 0, result, 0, first.length);
+        int offset = chunkSize;
+        for (CompletableFuture<double[]> other : others) {
+            double[] predictions = other.join();
+            if (predictions == null) {
+                return null;
+            }
+            System.arraycopy(predictions, 0, result, offset, predictions.length);
+            offset += predictions.length;
+        }
+        return result;
+    }
+
+    /**
+     * Scores the given feature rows on one worker.
+     * @return one prediction per row, or null when no worker answered in time
+     */
+    private double[] predictChunk(List<Map<String, Object>> rows) {
+        Worker worker;
+        try {
+            worker = idle.poll(requestTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+        if (worker == null) {
+            logger.debug("No prediction worker available within {} ms", requestTimeoutMs);
+            return null;
+        }
+
+        boolean healthy = false;
+        try {
+            Map<String, Object> request = new LinkedHashMap<>();
+            request.put("op", "predict");
+            request.put("rows", rows);
+            JsonNode response = worker.call(request, requestTimeoutMs);
+            healthy = true;
+            if (response.has("error")) {
+                logger.error("Prediction worker error: {}", response.get("error").asText());
+                return null;
+            }
+            JsonNode predictions = response.get("predictions");
+            if (predictions == null || predictions.size() != rows.size()) {
+                logger.error("Prediction worker returned {} results for {} rows",
+                    predictions == null ? 0 : predictions.size(), rows.size());
+                return null;
+            }
+            double[] result = new double[rows.size()];
+            for (int i = 0; i < result.length; i++) {
+                result[i] = predictions.get(i).asDouble();
+            }
+            return result;
+        } catch (Exception e) {
+            logger.warn("Prediction worker {} failed: {}", worker.id, e.getMessage());
+            return null;
+        } finally {
+            release(worker, healthy);
+        }
+    }
+
+    /**
+     * Number of workers currently alive and ready to take requests.
+     */
+    public int getAvailableWorkers() {
+        return idle.size();
+    }
+
+    public int getPoolSize() {
+        return poolSize;
+    }
+
+    private void release(Worker worker, boolean healthy) {
+        if (healthy && worker.isAlive() && !shuttingDown) {
+            idle.offer(worker);
+        } else {
+            retire(worker);
+        }
+    }
+
+    private void retire(Worker worker) {
+        worker.destroy();
+        if (workers.remove(worker) && !shuttingDown) {
+            scheduleStart(1000);
+        }
+    }
+
+    private void healthCheck() {
+        try {
+            List<Worker> snapshot = new ArrayList<>();
+            idle.drainTo(snapshot);
+            for (Worker worker : snapshot) {
+                boolean healthy = false;
+                try {
+                    Map<String, Object> ping = new LinkedHashMap<>();
+                    ping.put("op", "ping");
+                    healthy = worker.call(ping, requestTimeoutMs).path("ok").asBoolean(false);
+                } catch (Exception e) {
+                    logger.warn("Prediction worker {} failed health check: {}", worker.id, e.getMessage());
+                }
+                release(worker, healthy);
+            }
+            int missing = poolSize - workers.size() - starting.get();
+            for (int i = 0; i < missing; i++) {
+                scheduleStart(0);
+            }
+        } catch (Exception e) {
+            logger.error("Prediction worker health check failed", e);
+        }
+    }
+
+    private void scheduleStart(long delayMs) {
+        starting.incrementAndGet();
+        try {
+            scheduler.schedule(() -> {
+                try {
+                    startWorker();
+                } finally {
+                    starting.decrementAndGet();
+                }
+            }, delayMs, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            starting.decrementAndGet();
+        }
+    }
+
+    private void startWorker() {
+        if (shuttingDown) return;
+        File script = resolveScript();
+        if (script == null) {
+            logger.warn("Prediction worker script {} not found", scriptPath);
+            return;
+        }
+        Worker worker = null;
+        try {
+            ProcessBuilder pb = new ProcessBuilder(
+                pythonPath,
+                script.getAbsolutePath(),
+                new File(modelPath).getAbsolutePath()
+            );
+            pb.directory(script.getParentFile());
+            pb.redirectError(ProcessBuilder.Redirect.INHERIT);
+            worker = new Worker(pb.start());
+            JsonNode ready = worker.awaitLine(startupTimeoutMs);
+            if (!ready.path("ready").asBoolean(false)) {
+                throw new IOException("unexpected startup line: " + ready);
+            }
+            workers.add(worker);
+            idle.offer(worker);
+            logger.info("Prediction worker {} ready", worker.id);
+        } catch (Exception e) {
+            logger.error("Failed to start prediction worker: {}", e.getMessage());
+            if (worker != null) {
+                worker.destroy();
+            }
+        }
+    }
+
+    private File resolveScript() {
+        File script = new File(scriptPath);
+        if (!script.isAbsolute()) {
+            script = new File(System.getProperty("user.dir"), scriptPath);
+        }
+        return script.exists() ? script : null;
+    }
+
+    /**
+     * One Python process. A daemon thread drains stdout into a queue so
+     * callers can wait for a response with a timeout.
+     */
+    private class Worker {
+        private final Process process;
+        private final long id;
+        private final BufferedWriter stdin;
+        private final BlockingQueue<String> lines = new LinkedBlockingQueue<>();
+
+        Worker(Process process) {
+            this.process = process;
+            this.id = process.pid();
+            this.stdin = new BufferedWriter(new OutputStreamWriter(process.getOutputStream(), StandardCharsets.UTF_8));
+            Thread reader = new Thread(this::readLoop, "ml-worker-" + id);
+            reader.setDaemon(true);
+            reader.start();
+        }
+
+        private void readLoop() {
+            try (BufferedReader reader = new BufferedReader(
+                    new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    lines.offer(line);
+                }
+            } catch (IOException ignored) {
+                // Process was destroyed
+            }
+        }
+
+        JsonNode call(Map<String, Object> request, long timeoutMs) throws IOException, TimeoutException, InterruptedException {
+            long requestId = requestIds.incrementAndGet();
+            request.put("id", requestId);
+            stdin.write(objectMapper.writeValueAsString(request));
+            stdin.newLine();
+            stdin.flush();
+
+            long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+            while (true) {
+                JsonNode response = awaitLine(TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime()));
+                if (response.path("id").asLong(-1) == requestId) {
+                    return response;
+                }
+                // Late answer to a request that already timed out
+            }
+        }
+
+        JsonNode awaitLine(long timeoutMs) throws IOException, TimeoutException, InterruptedException {
+            String line = lines.poll(Math.max(0, timeoutMs), TimeUnit.MILLISECONDS);
+            if (line == null) {
+                if (!process.isAlive()) {
+                    throw new IOException("worker exited with code " + process.exitValue());
+                }
+                throw new TimeoutException("no response within " + timeoutMs + " ms");
+            }
+            return objectMapper.readTree(line);
+        }
+
+        boolean isAlive() {
+            return process.isAlive();
+        }
+
+        void destroy() {
+            process.destroyForcibly();
+        }
+    }
+}
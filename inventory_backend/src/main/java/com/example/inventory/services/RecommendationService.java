@@ -2,6 +2,7 @@ package com.example.inventory.services;
 
 import com.example.inventory.model.Product;
 import com.example.inventory.repository.ProductRepository;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 
 import java.util.*;
@@ -9,13 +10,18 @@ import java.util.stream.Collectors;
 
 @Service
 public class RecommendationService {
+    static final int FEATURED_MIN_STOCK = 10;
+
     private final ProductRepository productRepository;
-    private final MlPredictionService mlPredictionService;
+    private final DemandScorer demandScorer;
+    private final DemandRanking demandRanking;
     
     public RecommendationService(ProductRepository productRepository, 
-                                 MlPredictionService mlPredictionService) {
+                                 DemandScorer demandScorer,
+                                 DemandRanking demandRanking) {
         this.productRepository = productRepository;
-        this.mlPredictionService = mlPredictionService;
+        this.demandScorer = demandScorer;
+        this.demandRanking = demandRanking;
     }
     
     /**
@@ -24,61 +30,47 @@ public class RecommendationService {
      * @return List of products with predicted demand
      */
     public List<ProductRecommendation> getRecommendations(int limit) {
-        List<Product> allProducts = productRepository.findAll();
+        if (demandRanking.isReady()) {
+            return demandRanking.top(limit);
+        }
         
-        List<ProductRecommendation> recommendations = allProducts.stream()
-            .map(product -> {
-                Double predictedDemand = mlPredictionService.predictDemand(
-                    product.getProductId(),
-                    product.getStockLevel(),
-                    product.getPrice(),
-                    product.getCategory(),
-                    product.getSkuId()
-                );
-                
-                return new ProductRecommendation(product, predictedDemand);
-            })
+        // Ranking not built yet (startup), score the catalog on demand
+        List<Product> allProducts = productRepository.findAll();
+        return demandScorer.scoreProducts(allProducts).stream()
             .sorted((a, b) -> Double.compare(b.getPredictedDemand(), a.getPredictedDemand()))
             .limit(limit)
             .collect(Collectors.toList());
-        
-        return recommendations;
+    }
+    
+    /**
+     * Freshness of the precomputed demand ranking
+     */
+    public Map<String, Object> getRankingStatus() {
+        return demandRanking.getStatus();
     }
     
     /**
      * Get featured products (high stock, good price, popular categories)
      */
     public List<Product> getFeaturedProducts(int limit) {
-        return productRepository.findAll().stream()
-            .filter(p -> p.getStockLevel() != null && p.getStockLevel() > 10)
-            .filter(p -> p.getPrice() != null && p.getPrice() > 0)
-            .sorted((a, b) -> {
-                // Sort by stock level (higher first), then by price (lower first)
-                int stockCompare = Integer.compare(
-                    b.getStockLevel() != null ? b.getStockLevel() : 0,
-                    a.getStockLevel() != null ? a.getStockLevel() : 0
-                );
-                if (stockCompare != 0) return stockCompare;
-                return Double.compare(
-                    a.getPrice() != null ? a.getPrice() : Double.MAX_VALUE,
-                    b.getPrice() != null ? b.getPrice() : Double.MAX_VALUE
-                );
-            })
-            .limit(limit)
-            .collect(Collectors.toList());
+        if (limit < 1) {
+            return List.of();
+        }
+        // Sort by stock level (higher first), then by price (lower first), in the database
+        return productRepository.findByStockLevelGreaterThanAndPriceGreaterThanOrderByStockLevelDescPriceAsc(
+            FEATURED_MIN_STOCK, 0.0, Limit.of(limit));
     }
     
     /**
      * Get low stock alerts (products that need restocking)
+     * @param limit maximum number of products, or null for all of them
      */
-    public List<Product> getLowStockProducts(int threshold) {
-        return productRepository.findAll().stream()
-            .filter(p -> p.getStockLevel() != null && p.getStockLevel() <= threshold)
-            .sorted((a, b) -> Integer.compare(
-                a.getStockLevel() != null ? a.getStockLevel() : 0,
-                b.getStockLevel() != null ? b.getStockLevel() : 0
-            ))
-            .collect(Collectors.toList());
+    public List<Product> getLowStockProducts(int threshold, Integer limit) {
+        if (limit != null && limit < 1) {
+            return List.of();
+        }
+        return productRepository.findByStockLevelLessThanEqualOrderByStockLevelAscIdAsc(
+            threshold, limit == null ? Limit.unlimited() : Limit.of(limit));
     }
     
     /**
@@ -87,10 +79,12 @@ public class RecommendationService {
     public static class ProductRecommendation {
         private final Product product;
         private final Double predictedDemand;
+        private final boolean modelScored;
         
-        public ProductRecommendation(Product product, Double predictedDemand) {
+        public ProductRecommendation(Product product, Double predictedDemand, boolean modelScored) {
             this.product = product;
             this.predictedDemand = predictedDemand != null ? predictedDemand : 0.0;
+            this.modelScored = modelScored;
         }
         
         public Product getProduct() {
@@ -100,6 +94,13 @@ public class RecommendationService {
         public Double getPredictedDemand() {
             return predictedDemand;
         }
+        
+        /**
+         * @return true when the model produced the prediction, false for the fallback heuristic
+         */
+        public boolean isModelScored() {
+            return modelScored;
+        }
     }
 }
 
@@ -0,0 +1,334 @@
+package com.example.inventory.services;
+
+import com.example.inventory.model.Product;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Date;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Sales per product and UTC day in the sales_daily table, so charts never
+ * scan the orders table.
+ *
+ * <p>Sync orders are added by {@link #record} in the transaction that places
+ * them; the product row is already locked there, so the rollup row adds no
+ * new contention. Ledger orders are added by the statement that settles
+ * their stock, see StockLedger. Per-category and per-day totals are summed
+ * from the product rows when read, which keeps one hot row per category
+ * from serializing all of its orders.
+ */
+@Service
+public class SalesRollupService {
+    private static final Logger logger = LoggerFactory.getLogger(SalesRollupService.class);
+
+    public static final int DEFAULT_RANGE_DAYS = 30;
+    public static final int MAX_RANGE_DAYS = 3660;
+
+    private static final String COLUMNS = "day, product_id, category, units, revenue, order_count";
+
+    // Rows are written in key order, so concurrent writers lock them in the same order
+    private static final String RECORD_SQL =
+        "INSERT INTO sales_daily (" + COLUMNS + ") " +
+        "SELECT ?, p.product_id, p.category, a.units, COALESCE(p.price, 0) * a.units, a.orders " +
+        "FROM unnest(?::bigint[], ?::bigint[], ?::bigint[]) AS a(product_id, units, orders) " +
+        "JOIN products p ON p.product_id = a.product_id ORDER BY p.product_id" + merge("sales_daily");
+
+    // One rebuild at a time across instances, held by the snapshot transaction
+    private static final String TRY_REBUILD_LOCK_SQL = "SELECT pg_try_advisory_xact_lock(hashtext('sales_daily_rebuild'))";
+    // Blocks record and the ledger's settle statement, which both write sales_daily,
+    // but not reads, so nothing is recorded between the catch-up and the swap
+    private static final String LOCK_SQL = "LOCK TABLE sales_daily IN EXCLUSIVE MODE";
+    private static final String REBUILD_CHUNK_ORDERS =
+        "(SELECT timestamp, product_id, quantity FROM orders " +
+        "WHERE order_id >= ? AND order_id < ? AND stock_settled)";
+
+    private static final String BY_DAY_SQL =
+        "SELECT day, SUM(units) AS units, SUM(revenue) AS revenue, SUM(order_count) AS orders " +
+        "FROM sales_daily WHERE day BETWEEN ? AND ? GROUP BY day ORDER BY day";
+    private static final String BY_PRODUCT_SQL =
+        "SELECT product_id, SUM(units) AS units, SUM(revenue) AS revenue, SUM(order_count) AS orders " +
+        "FROM sales_daily WHERE day BETWEEN ? AND ? GROUP BY product_id ORDER BY revenue DESC, product_id";
+    private static final String BY_CATEGORY_SQL =
+        "SELECT category, SUM(units) AS units, SUM(revenue) AS revenue, SUM(order_count) AS orders " +
+        "FROM sales_daily WHERE day BETWEEN ? AND ? GROUP BY category ORDER BY revenue DESC, category";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate snapshotTransaction;
+    private final CatalogCache catalogCache;
+    private final int rebuildChunkSize;
+    private final int rebuildThreads;
+    private final AtomicBoolean rebuilding = new AtomicBoolean();
+
+    public SalesRollupService(DataSource dataSource, PlatformTransactionManager transactionManager,
+                              CatalogCache catalogCache,
+                              @Value("${analytics.rebuild.chunk-size:50000}") int rebuildChunkSize,
+                              @Value("${analytics.rebuild.threads:4}") int rebuildThreads) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.snapshotTransaction = new TransactionTemplate(transactionManager);
+        this.snapshotTransaction.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        this.catalogCache = catalogCache;
+        this.rebuildChunkSize = Math.max(1, rebuildChunkSize);
+        this.rebuildThreads = Math.max(1, rebuildThreads);
+    }
+
+    /**
+     * {@code INSERT ... SELECT} that adds the orders of {@code orders}, a table
+     * expression with timestamp, product_id and quantity, to the rollups.
+     */
+    static String rollUp(String orders) {
+        return rollUp("sales_daily", orders);
+    }
+
+    private static String rollUp(String table, String orders) {
+        return "INSERT INTO " + table + " (" + COLUMNS + ") " +
+            "SELECT (o.timestamp AT TIME ZONE 'UTC')::date, p.product_id, p.category, SUM(o.quantity), " +
+            "COALESCE(p.price, 0) * SUM(o.quantity), COUNT(*) " +
+            "FROM " + orders + " o JOIN products p ON p.product_id = o.product_id " +
+            "GROUP BY 1, p.product_id ORDER BY 1, 2" + merge(table);
+    }
+
+    private static String merge(String table) {
+        return " ON CONFLICT (day, product_id) DO UPDATE SET units = " + table + ".units + EXCLUDED.units, " +
+            "revenue = " + table + ".revenue + EXCLUDED.revenue, " +
+            "order_count = " + table + ".order_count + EXCLUDED.order_count";
+    }
+
+    /**
+     * Adds orders placed at {@code placedAt} to the rollups. Call it in the
+     * transaction that inserts the orders so both commit or neither does.
+     * @param units units ordered per product id
+     * @param orders number of orders per product id
+     */
+    public void record(Instant placedAt, Map<Long, Integer> units, Map<Long, Integer> orders) {
+        if (units.isEmpty()) {
+            return;
+        }
+        Long[] ids = units.keySet().toArray(Long[]::new);
+        Long[] unitCounts = new Long[ids.length];
+        Long[] orderCounts = new Long[ids.length];
+        for (int i = 0; i < ids.length; i++) {
+            unitCounts[i] = units.get(ids[i]).longValue();
+            orderCounts[i] = orders.getOrDefault(ids[i], 1).longValue();
+        }
+        jdbcTemplate.update(RECORD_SQL, ps -> {
+            ps.setDate(1, Date.valueOf(dayOf(placedAt)));
+            ps.setArray(2, ps.getConnection().createArrayOf("bigint", ids));
+            ps.setArray(3, ps.getConnection().createArrayOf("bigint", unitCounts));
+            ps.setArray(4, ps.getConnection().createArrayOf("bigint", orderCounts));
+        });
+    }
+
+    static LocalDate dayOf(Instant instant) {
+        return LocalDate.ofInstant(instant, ZoneOffset.UTC);
+    }
+
+    public enum GroupBy { DAY, PRODUCT, CATEGORY }
+
+    /**
+     * Units, revenue and order count between {@code from} and {@code to}
+     * inclusive, grouped by day, product or category. Reads the rollups only.
+     * @param from first day, defaults to {@value #DEFAULT_RANGE_DAYS} days before {@code to}
+     * @param to last day, defaults to today (UTC)
+     * @throws IllegalArgumentException if the range is invalid
+     */
+    public Map<String, Object> getSales(GroupBy groupBy, LocalDate from, LocalDate to) {
+        LocalDate last = to != null ? to : dayOf(Instant.now());
+        LocalDate first = from != null ? from : last.minusDays(DEFAULT_RANGE_DAYS - 1);
+        if (first.isAfter(last)) {
+            throw new IllegalArgumentException("from must not be after to");
+        }
+        if (ChronoUnit.DAYS.between(first, last) >= MAX_RANGE_DAYS) {
+            throw new IllegalArgumentException("At most " + MAX_RANGE_DAYS + " days per request");
+        }
+
+        String sql = switch (groupBy) {
+            case DAY -> BY_DAY_SQL;
+            case PRODUCT -> BY_PRODUCT_SQL;
+            case CATEGORY -> BY_CATEGORY_SQL;
+        };
+        long[] totalUnits = new long[1];
+        long[] totalOrders = new long[1];
+        double[] totalRevenue = new double[1];
+        List<Map<String, Object>> rows = jdbcTemplate.query(sql, (rs, rowNum) -> {
+            Map<String, Object> row = new LinkedHashMap<>();
+            switch (groupBy) {
+                case DAY -> row.put("day", rs.getDate("day").toLocalDate().toString());
+                case PRODUCT -> {
+                    long id = rs.getLong("product_id");
+                    // Names come from the in-memory catalog, products that no longer exist have none
+                    Product product = catalogCache.getCached(id);
+                    row.put("productId", id);
+                    row.put("name", product != null ? product.getName() : null);
+                }
+                case CATEGORY -> row.put("category", rs.getString("category"));
+            }
+            row.put("units", rs.getLong("units"));
+            row.put("revenue", rs.getDouble("revenue"));
+            row.put("orders", rs.getLong("orders"));
+            totalUnits[0] += rs.getLong("units");
+            totalRevenue[0] += rs.getDouble("revenue");
+            totalOrders[0] += rs.getLong("orders");
+            return row;
+        }, Date.valueOf(first), Date.valueOf(last));
+
+        Map<String, Object> totals = new LinkedHashMap<>();
+        totals.put("units", totalUnits[0]);
+        totals.put("revenue", totalRevenue[0]);
+        totals.put("orders", totalOrders[0]);
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("groupBy", groupBy.name().toLowerCase(Locale.ROOT));
+        result.put("from", first.toString());
+        result.put("to", last.toString());
+        result.put("rows", rows);
+        result.put("totals", totals);
+        return result;
+    }
+
+    /**
+     * Rebuilds the rollups from the orders table. Orders are split into
+     * order id ranges that are aggregated on {@code analytics.rebuild.threads}
+     * threads into a staging table, each range in its own statement. Unsettled
+     * ledger orders are left to the ledger, which adds them when it settles them.
+     *
+     * <p>All ranges read one exported database snapshot, taken without
+     * blocking intake. Whatever was recorded after it is the difference
+     * between sales_daily now and sales_daily in that snapshot, so a short
+     * transaction that locks sales_daily adds that difference to the staging
+     * rows and swaps them in. Reads see the old rollups until then and every
+     * order is counted exactly once.
+     * @return order id range, chunk count and elapsed time
+     * @throws IllegalStateException if a rebuild is already running
+     */
+    public Map<String, Object> rebuild() {
+        if (!rebuilding.compareAndSet(false, true)) {
+            throw new IllegalStateException("A sales rollup rebuild is already running");
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(rebuildThreads, r -> {
+            Thread t = new Thread(r, "sales-rollup-rebuild");
+            t.setDaemon(true);
+            return t;
+        });
+        // Rollups of the snapshot, and what was recorded since
+        String staging = "sales_daily_rebuild_" + Long.toString(System.currentTimeMillis(), 36);
+        String delta = staging + "_delta";
+        try {
+            long start = System.nanoTime();
+            // Committed before the workers run, which write them on their own connections
+            jdbcTemplate.execute("CREATE UNLOGGED TABLE " + staging + " (LIKE sales_daily INCLUDING ALL)");
+            jdbcTemplate.execute("CREATE UNLOGGED TABLE " + delta + " (LIKE sales_daily INCLUDING ALL)");
+            Map<String, Object> result = snapshotTransaction.execute(status -> {
+                if (!Boolean.TRUE.equals(jdbcTemplate.queryForObject(TRY_REBUILD_LOCK_SQL, Boolean.class))) {
+                    throw new IllegalStateException("A sales rollup rebuild is already running");
+                }
+                // Stays valid while this transaction is open
+                String snapshot = jdbcTemplate.queryForObject("SELECT pg_export_snapshot()", String.class);
+                Map<String, Object> bounds = jdbcTemplate.queryForMap(
+                    "SELECT MIN(order_id) AS first_id, MAX(order_id) AS last_id FROM orders");
+                Number firstId = (Number) bounds.get("first_id");
+                Number lastId = (Number) bounds.get("last_id");
+
+                List<Future<Integer>> tasks = new ArrayList<>();
+                tasks.add(executor.submit(() -> inSnapshot(snapshot,
+                    "INSERT INTO " + delta + " (" + COLUMNS + ") " +
+                    "SELECT day, product_id, category, -units, -revenue, -order_count FROM sales_daily")));
+                int chunks = 0;
+                if (firstId != null) {
+                    String chunkSql = rollUp(staging, REBUILD_CHUNK_ORDERS);
+                    for (long lo = firstId.longValue(); lo <= lastId.longValue(); lo += rebuildChunkSize) {
+                        long from = lo;
+                        long to = Math.min(lo + rebuildChunkSize, lastId.longValue() + 1);
+                        tasks.add(executor.submit(() -> inSnapshot(snapshot, chunkSql, from, to)));
+                        chunks++;
+                    }
+                }
+                await(tasks);
+
+                // On its own connection, this transaction still sees the snapshot
+                int rows = await(List.of(executor.submit(() -> swap(staging, delta)))).get(0);
+                Map<String, Object> summary = new LinkedHashMap<>();
+                summary.put("firstOrderId", firstId);
+                summary.put("lastOrderId", lastId);
+                summary.put("chunks", chunks);
+                summary.put("rollupRows", (long) rows);
+                return summary;
+            });
+            long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            result.put("elapsedMs", elapsedMs);
+            logger.info("Rebuilt sales rollups from orders {}..{} in {} chunks, {} ms",
+                result.get("firstOrderId"), result.get("lastOrderId"), result.get("chunks"), elapsedMs);
+            return result;
+        } finally {
+            executor.shutdownNow();
+            for (String table : List.of(staging, delta)) {
+                try {
+                    jdbcTemplate.execute("DROP TABLE IF EXISTS " + table);
+                } catch (RuntimeException e) {
+                    logger.warn("Could not drop sales rollup staging table {}: {}", table, e.getMessage());
+                }
+            }
+            rebuilding.set(false);
+        }
+    }
+
+    private int inSnapshot(String snapshot, String sql, Object... args) {
+        return snapshotTransaction.execute(status -> {
+            jdbcTemplate.execute("SET TRANSACTION SNAPSHOT '" + snapshot + "'");
+            return jdbcTemplate.update(sql, args);
+        });
+    }
+
+    /**
+     * Adds what sales_daily gained since the snapshot to the staging rows and
+     * replaces sales_daily with them, holding the table lock only for that.
+     * @return the number of rollup rows
+     */
+    private int swap(String staging, String delta) {
+        return transactionTemplate.execute(status -> {
+            jdbcTemplate.execute(LOCK_SQL);
+            // Rows nobody wrote meanwhile cancel out to exactly zero; categories come from the staging rows
+            jdbcTemplate.update("INSERT INTO " + delta + " (" + COLUMNS + ") " +
+                "SELECT " + COLUMNS + " FROM sales_daily" + merge(delta));
+            jdbcTemplate.update("DELETE FROM sales_daily");
+            return jdbcTemplate.update("INSERT INTO sales_daily (" + COLUMNS + ") " +
+                "SELECT day, product_id, (array_agg(category ORDER BY src))[1], " +
+                "SUM(units), SUM(revenue), SUM(order_count) " +
+                "FROM (SELECT 0 AS src, " + COLUMNS + " FROM " + staging +
+                " UNION ALL SELECT 1, " + COLUMNS + " FROM " + delta + ") r " +
+                "GROUP BY day, product_id HAVING SUM(units) <> 0 OR SUM(order_count) <> 0");
+        });
+    }
+
+    private static <T> List<T> await(List<Future<T>> tasks) {
+        List<T> results = new ArrayList<>();
+        try {
+            for (Future<T> task : tasks) {
+                results.add(task.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Sales rollup rebuild interrupted");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException("Sales rollup rebuild failed", e.getCause());
+        }
+        return results;
+    }
+}
@@ -0,0 +1,203 @@
+package com.example.inventory.services;
+
+import com.example.inventory.dto.StockAdjustment;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.util.*;
+
+/**
+ * Applies many stock changes with three statements: one resolving skus to
+ * product ids, one locking the products in id order, the same order
+ * checkout and the stock ledger use, and one {@code UPDATE ... FROM
+ * unnest(...)} writing the new levels. The levels are computed from the
+ * locked rows, so concurrent orders are not lost. Either every adjustment
+ * is applied or none is.
+ */
+@Service
+public class StockAdjustmentService {
+    private static final Logger logger = LoggerFactory.getLogger(StockAdjustmentService.class);
+
+    public static final int MAX_ADJUSTMENTS = 10_000;
+
+    private static final String RESOLVE_SKUS_SQL =
+        "SELECT sku_id, product_id FROM products WHERE sku_id = ANY(?)";
+
+    // Locks in id order, so overlapping adjustments and checkouts never wait on each other in a cycle.
+    // NO KEY UPDATE, as the key never changes, lets concurrent order inserts pass their foreign key checks
+    private static final String LOCK_PRODUCTS_SQL =
+        "SELECT product_id, sku_id, stock_level FROM products WHERE product_id = ANY(?) " +
+        "ORDER BY product_id FOR NO KEY UPDATE";
+
+    private static final String ADJUST_SQL =
+        "UPDATE products p SET stock_level = a.stock_level, " +
+        "version = p.version + 1, last_modified = now() " +
+        "FROM unnest(?::bigint[], ?::int[]) AS a(product_id, stock_level) " +
+        "WHERE p.product_id = a.product_id";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ApplicationEventPublisher events;
+
+    public StockAdjustmentService(DataSource dataSource, ApplicationEventPublisher events) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.events = events;
+    }
+
+    /**
+     * Applies {@code adjustments} in order; several entries for one product
+     * combine. Nothing is written if any entry is invalid, names an unknown
+     * product or would leave a stock level below zero.
+     * @return the new stock level of every adjusted product
+     * @throws IllegalArgumentException with a message for the client
+     */
+    @Transactional
+    public Map<String, Object> apply(List<StockAdjustment> adjustments) {
+        if (adjustments == null || adjustments.isEmpty()) {
+            throw new IllegalArgumentException("At least one adjustment is required");
+        }
+        if (adjustments.size() > MAX_ADJUSTMENTS) {
+            throw new IllegalArgumentException("At most " + MAX_ADJUSTMENTS + " adjustments per request");
+        }
+        for (int i = 0; i < adjustments.size(); i++) {
+            validate(i, adjustments.get(i));
+        }
+
+        Map<String, Long> idsBySku = resolveSkus(adjustments);
+        Map<Long, Change> changes = merge(adjustments, idsBySku);
+
+        Long[] ids = new TreeSet<>(changes.keySet()).toArray(Long[]::new);
+        List<Map<String, Object>> results = jdbcTemplate.query(LOCK_PRODUCTS_SQL,
+            ps -> ps.setArray(1, ps.getConnection().createArrayOf("bigint", ids)),
+            (rs, rowNum) -> {
+                Map<String, Object> row = new LinkedHashMap<>();
+                row.put("productId", rs.getLong("product_id"));
+                row.put("skuId", rs.getString("sku_id"));
+                row.put("stockLevel", (Integer) rs.getObject("stock_level"));
+                return row;
+            });
+        if (results.size() != ids.length) {
+            Set<Long> missing = new TreeSet<>(changes.keySet());
+            results.forEach(r -> missing.remove((Long) r.get("productId")));
+            throw new IllegalArgumentException("Unknown product ids: " + missing);
+        }
+
+        List<Long> negative = new ArrayList<>();
+        List<Long> overflow = new ArrayList<>();
+        Integer[] levels = new Integer[ids.length];
+        for (int i = 0; i < ids.length; i++) {
+            Map<String, Object> row = results.get(i);
+            long level = changes.get(ids[i]).apply((Integer) row.get("stockLevel"));
+            if (level < 0) {
+                negative.add(ids[i]);
+            } else if (level > Integer.MAX_VALUE) {
+                overflow.add(ids[i]);
+            } else {
+                levels[i] = (int) level;
+                row.put("stockLevel", levels[i]);
+            }
+        }
+        if (!negative.isEmpty()) {
+            throw new IllegalArgumentException("Stock would drop below zero for products " + negative);
+        }
+        if (!overflow.isEmpty()) {
+            throw new IllegalArgumentException("Stock would exceed " + Integer.MAX_VALUE + " for products " + overflow);
+        }
+        jdbcTemplate.update(ADJUST_SQL, ps -> {
+            ps.setArray(1, ps.getConnection().createArrayOf("bigint", ids));
+            ps.setArray(2, ps.getConnection().createArrayOf("integer", levels));
+        });
+
+        ProductChangeEvent.stockChanged(changes.keySet()).forEach(events::publishEvent);
+        Set<String> reasons = new TreeSet<>();
+        adjustments.forEach(a -> reasons.add(a.getReason() != null ? a.getReason() : "unspecified"));
+        logger.info("Applied {} stock adjustments to {} products, reasons: {}",
+            adjustments.size(), results.size(), reasons);
+
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("adjustments", adjustments.size());
+        response.put("products", results);
+        return response;
+    }
+
+    private static void validate(int index, StockAdjustment a) {
+        String at = "adjustments[" + index + "]: ";
+        if (a == null) {
+            throw new IllegalArgumentException(at + "entry is null");
+        }
+        boolean bySku = a.getSkuId() != null && !a.getSkuId().isBlank();
+        if ((a.getProductId() == null) == !bySku) {
+            throw new IllegalArgumentException(at + "give exactly one of productId and skuId");
+        }
+        if ((a.getDelta() == null) == (a.getStockLevel() == null)) {
+            throw new IllegalArgumentException(at + "give exactly one of delta and stockLevel");
+        }
+        if (a.getStockLevel() != null && a.getStockLevel() < 0) {
+            throw new IllegalArgumentException(at + "stockLevel must be >= 0");
+        }
+        if (a.getReason() != null && a.getReason().length() > 255) {
+            throw new IllegalArgumentException(at + "reason is longer than 255 characters");
+        }
+    }
+
+    private Map<String, Long> resolveSkus(List<StockAdjustment> adjustments) {
+        Set<String> skus = new LinkedHashSet<>();
+        for (StockAdjustment a : adjustments) {
+            if (a.getProductId() == null) {
+                skus.add(a.getSkuId().trim());
+            }
+        }
+        if (skus.isEmpty()) {
+            return Map.of();
+        }
+        Map<String, Long> idsBySku = new HashMap<>(skus.size() * 2);
+        jdbcTemplate.query(RESOLVE_SKUS_SQL,
+            ps -> ps.setArray(1, ps.getConnection().createArrayOf("varchar", skus.toArray())),
+            (RowCallbackHandler) rs -> idsBySku.put(rs.getString("sku_id"), rs.getLong("product_id")));
+        if (idsBySku.size() != skus.size()) {
+            skus.removeAll(idsBySku.keySet());
+            throw new IllegalArgumentException("Unknown skuIds: " + skus);
+        }
+        return idsBySku;
+    }
+
+    /**
+     * Folds the adjustments into one change per product, in request order:
+     * a stockLevel replaces everything before it, deltas add up.
+     */
+    static Map<Long, Change> merge(List<StockAdjustment> adjustments, Map<String, Long> idsBySku) {
+        Map<Long, Change> changes = new LinkedHashMap<>();
+        for (StockAdjustment a : adjustments) {
+            Long id = a.getProductId() != null ? a.getProductId() : idsBySku.get(a.getSkuId().trim());
+            Change change = changes.computeIfAbsent(id, k -> new Change());
+            if (a.getStockLevel() != null) {
+                change.stockLevel = a.getStockLevel();
+                change.delta = 0;
+            } else {
+                try {
+                    change.delta = Math.addExact(change.delta, a.getDelta());
+                } catch (ArithmeticException e) {
+                    throw new IllegalArgumentException("Deltas for product " + id + " overflow");
+                }
+            }
+        }
+        return changes;
+    }
+
+    /** Net change for one product: set to stockLevel if given, then add delta. */
+    static final class Change {
+        Integer stockLevel;
+        int delta;
+
+        /** The new level, in long so callers can range-check it. */
+        long apply(Integer current) {
+            long base = stockLevel != null ? stockLevel : current != null ? current : 0;
+            return base + delta;
+        }
+    }
+}
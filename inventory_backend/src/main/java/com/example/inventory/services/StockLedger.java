@@ -0,0 +1,395 @@
+package com.example.inventory.services;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import javax.sql.DataSource;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * In-memory stock reservations for order intake under flash-sale load
+ * ({@code orders.intake.mode=ledger}).
+ *
+ * <p>Each product has an available count, loaded from products.stock_level
+ * minus what is reserved but not yet written back, and guarded by one of
+ * {@code orders.ledger.stripes} locks. Orders are inserted with
+ * stock_settled = false; once committed they are queued, and a background
+ * flush settles them in one statement that marks the orders settled,
+ * subtracts their coalesced quantities from products and adds them to the
+ * sales rollups. Orders left unsettled by a crash are settled the same
+ * way at startup, so the table is right before the ledger loads anything.
+ *
+ * <p>The ledger is only authoritative within one process; run a single
+ * instance in this mode. In sync mode it only settles what a previous
+ * ledger-mode run left unsettled, at startup, and never flushes.
+ */
+@Component
+public class StockLedger {
+    private static final Logger logger = LoggerFactory.getLogger(StockLedger.class);
+
+    private static final String LOAD_SQL = "SELECT stock_level FROM products WHERE product_id = ?";
+
+    // Locked in id order before settling, like checkout and stock adjustments do,
+    // so a flush never deadlocks with them. NO KEY UPDATE does not conflict with the
+    // KEY SHARE locks that order inserts take for their foreign key, so intake cannot starve a flush
+    private static final String LOCK_PRODUCTS_SQL =
+        "SELECT product_id FROM products WHERE product_id = ANY(?) ORDER BY product_id FOR NO KEY UPDATE";
+    private static final String LOCK_UNSETTLED_PRODUCTS_SQL =
+        "SELECT product_id FROM products WHERE product_id IN " +
+        "(SELECT product_id FROM orders WHERE stock_settled = false) ORDER BY product_id FOR NO KEY UPDATE";
+
+    // Claiming the orders and applying them is one statement, so an order is
+    // subtracted and added to the sales rollups exactly once even if recovery and a flush race
+    private static final String SETTLE_SQL =
+        "WITH settled AS (" +
+        "  UPDATE orders SET stock_settled = true WHERE stock_settled = false %s" +
+        "  RETURNING product_id, quantity, timestamp), " +
+        "rolled_up AS (" + SalesRollupService.rollUp("settled") + ") " +
+        "UPDATE products p SET stock_level = COALESCE(p.stock_level, 0) - s.quantity, " +
+        "version = p.version + 1, last_modified = now() " +
+        "FROM (SELECT product_id, SUM(quantity) AS quantity FROM settled GROUP BY product_id) s " +
+        "WHERE p.product_id = s.product_id " +
+        "RETURNING p.product_id";
+    private static final String SETTLE_ORDERS_SQL = String.format(SETTLE_SQL, "AND order_id = ANY(?)");
+    private static final String SETTLE_ALL_SQL = String.format(SETTLE_SQL, "");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher events;
+    private final boolean enabled;
+
+    @Value("${orders.ledger.flush-interval-ms:50}")
+    private long flushIntervalMs;
+
+    @Value("${orders.ledger.max-flush-orders:5000}")
+    private int maxFlushOrders;
+
+    private final ReentrantLock[] stripes;
+    private final ConcurrentHashMap<Long, Slot> slots = new ConcurrentHashMap<>();
+    private final ConcurrentLinkedQueue<Confirmed> confirmed = new ConcurrentLinkedQueue<>();
+    // Held while a flush writes and while a slot loads, so a load never sees a flush half applied
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "stock-ledger-flush");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private final AtomicLong reservations = new AtomicLong();
+    private final AtomicLong rejections = new AtomicLong();
+    private final AtomicLong releases = new AtomicLong();
+    private final AtomicLong flushes = new AtomicLong();
+    private final AtomicLong flushedOrders = new AtomicLong();
+    private final AtomicLong flushFailures = new AtomicLong();
+    private volatile Instant lastFlushAt;
+    private volatile long lastFlushMs;
+
+    public StockLedger(DataSource dataSource, PlatformTransactionManager transactionManager,
+                       ApplicationEventPublisher events,
+                       @Value("${orders.intake.mode:sync}") String intakeMode,
+                       @Value("${orders.ledger.stripes:64}") int stripeCount) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.events = events;
+        this.enabled = "ledger".equalsIgnoreCase(intakeMode);
+        this.stripes = new ReentrantLock[Math.max(1, stripeCount)];
+        for (int i = 0; i < stripes.length; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+    }
+
+    @PostConstruct
+    void start() {
+        // Also in sync mode: a ledger-mode run may have crashed with orders unsettled
+        int recovered = recover();
+        if (recovered > 0) {
+            logger.warn("Settled stock for unsettled orders on {} products left by the previous run", recovered);
+        }
+        if (!enabled) {
+            return;
+        }
+        scheduler.scheduleWithFixedDelay(this::flush, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void stop() {
+        scheduler.shutdownNow();
+        if (enabled) {
+            flush();
+        }
+    }
+
+    /**
+     * Settles every order still marked unsettled.
+     * @return the number of products whose stock changed
+     */
+    int recover() {
+        flushLock.lock();
+        try {
+            List<Long> products = transactionTemplate.execute(status -> {
+                jdbcTemplate.queryForList(LOCK_UNSETTLED_PRODUCTS_SQL, Long.class);
+                List<Long> changed = jdbcTemplate.queryForList(SETTLE_ALL_SQL, Long.class);
+                ProductChangeEvent.stockChanged(changed).forEach(events::publishEvent);
+                return changed;
+            });
+            // Anything loaded before this point counted those orders as pending
+            slots.forEach(this::invalidate);
+            return products == null ? 0 : products.size();
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /**
+     * Takes {@code quantity} from the product's available stock. Must run in
+     * the transaction that inserts the order: the reservation is released if
+     * it rolls back and queued for write-back once it commits.
+     * @return the reservation, or null if not enough stock is available
+     * @throws IllegalArgumentException if the product does not exist
+     */
+    public Reservation reserve(Long productId, int quantity) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("Stock reservations need an active transaction");
+        }
+        Slot slot = slots.computeIfAbsent(productId, id -> new Slot());
+        Boolean taken = take(productId, slot, quantity);
+        // Null until loaded; an outside change can invalidate it again before we take
+        for (int attempt = 0; taken == null && attempt < 3; attempt++) {
+            load(productId, slot);
+            taken = take(productId, slot, quantity);
+        }
+        if (taken == null || !taken) {
+            rejections.incrementAndGet();
+            return null;
+        }
+        reservations.incrementAndGet();
+        Reservation reservation = new Reservation(productId, quantity);
+        TransactionSynchronizationManager.registerSynchronization(reservation);
+        return reservation;
+    }
+
+    /**
+     * @return true if taken, false if short, null if the slot is not loaded
+     */
+    private Boolean take(Long productId, Slot slot, int quantity) {
+        ReentrantLock stripe = stripe(productId);
+        stripe.lock();
+        try {
+            if (slot.available == null) {
+                return null;
+            }
+            if (slot.available < quantity) {
+                return false;
+            }
+            slot.available -= quantity;
+            slot.pending += quantity;
+            return true;
+        } finally {
+            stripe.unlock();
+        }
+    }
+
+    /**
+     * @return stock this ledger would still sell, or null if the product is not loaded
+     */
+    public Integer getAvailable(Long productId) {
+        Slot slot = slots.get(productId);
+        if (slot == null) {
+            return null;
+        }
+        ReentrantLock stripe = stripe(productId);
+        stripe.lock();
+        try {
+            return slot.available;
+        } finally {
+            stripe.unlock();
+        }
+    }
+
+    private void load(Long productId, Slot slot) {
+        flushLock.lock();
+        try {
+            List<Integer> stock = jdbcTemplate.queryForList(LOAD_SQL, Integer.class, productId);
+            if (stock.isEmpty()) {
+                throw new IllegalArgumentException("Product not found with id: " + productId);
+            }
+            ReentrantLock stripe = stripe(productId);
+            stripe.lock();
+            try {
+                int level = stock.get(0) != null ? stock.get(0) : 0;
+                slot.available = level - slot.pending;
+            } finally {
+                stripe.unlock();
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /**
+     * Stock written by anything but this ledger makes the product reload.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChange(ProductChangeEvent event) {
+        if (!enabled || flushLock.isHeldByCurrentThread()) {
+            // Published by our own flush, the slots already account for it
+            return;
+        }
+        if (event.getProductId() == null) {
+            slots.forEach(this::invalidate);
+        } else {
+            Slot slot = slots.get(event.getProductId());
+            if (slot != null) {
+                invalidate(event.getProductId(), slot);
+            }
+        }
+    }
+
+    private void invalidate(Long productId, Slot slot) {
+        ReentrantLock stripe = stripe(productId);
+        stripe.lock();
+        try {
+            slot.available = null;
+        } finally {
+            stripe.unlock();
+        }
+    }
+
+    /**
+     * Writes committed reservations back to products, coalesced per product.
+     */
+    void flush() {
+        flushLock.lock();
+        try {
+            List<Confirmed> batch = new ArrayList<>();
+            Confirmed next;
+            while (batch.size() < maxFlushOrders && (next = confirmed.poll()) != null) {
+                batch.add(next);
+            }
+            if (batch.isEmpty()) {
+                return;
+            }
+            long start = System.nanoTime();
+            Long[] orderIds = batch.stream().map(c -> c.orderId).toArray(Long[]::new);
+            Long[] productIds = batch.stream().map(c -> c.productId).distinct().toArray(Long[]::new);
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    jdbcTemplate.query(LOCK_PRODUCTS_SQL,
+                        ps -> ps.setArray(1, ps.getConnection().createArrayOf("bigint", productIds)),
+                        (rs, rowNum) -> rs.getLong(1));
+                    List<Long> changed = jdbcTemplate.query(SETTLE_ORDERS_SQL,
+                        ps -> ps.setArray(1, ps.getConnection().createArrayOf("bigint", orderIds)),
+                        (rs, rowNum) -> rs.getLong(1));
+                    ProductChangeEvent.stockChanged(changed).forEach(events::publishEvent);
+                });
+            } catch (RuntimeException e) {
+                flushFailures.incrementAndGet();
+                confirmed.addAll(batch);
+                logger.warn("Stock ledger flush of {} orders failed, will retry: {}", batch.size(), e.getMessage());
+                return;
+            }
+            // The table now holds these orders, whoever settled them
+            for (Confirmed c : batch) {
+                Slot slot = slots.get(c.productId);
+                ReentrantLock stripe = stripe(c.productId);
+                stripe.lock();
+                try {
+                    slot.pending -= c.quantity;
+                } finally {
+                    stripe.unlock();
+                }
+            }
+            flushes.incrementAndGet();
+            flushedOrders.addAndGet(batch.size());
+            lastFlushMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            lastFlushAt = Instant.now();
+        } catch (RuntimeException e) {
+            logger.error("Stock ledger flush failed", e);
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("products", slots.size());
+        stats.put("reservations", reservations.get());
+        stats.put("rejections", rejections.get());
+        stats.put("releases", releases.get());
+        stats.put("awaitingFlush", confirmed.size());
+        stats.put("flushes", flushes.get());
+        stats.put("flushedOrders", flushedOrders.get());
+        stats.put("flushFailures", flushFailures.get());
+        stats.put("lastFlushMs", lastFlushMs);
+        stats.put("lastFlushAt", lastFlushAt != null ? lastFlushAt.toString() : null);
+        return stats;
+    }
+
+    private ReentrantLock stripe(Long productId) {
+        return stripes[Math.floorMod(productId.hashCode(), stripes.length)];
+    }
+
+    /** Guarded by the product's stripe lock. */
+    private static final class Slot {
+        /** Stock left to sell, null until loaded or after an outside change. */
+        Integer available;
+        /** Reserved but not yet subtracted in the products table. */
+        int pending;
+    }
+
+    private record Confirmed(long orderId, Long productId, int quantity) {}
+
+    /**
+     * Stock held for one order until its transaction completes.
+     */
+    public final class Reservation implements TransactionSynchronization {
+        private final Long productId;
+        private final int quantity;
+        private Long orderId;
+
+        private Reservation(Long productId, int quantity) {
+            this.productId = productId;
+            this.quantity = quantity;
+        }
+
+        /** Called once the order row has an id. */
+        public void setOrderId(Long orderId) {
+            this.orderId = orderId;
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            if (status == STATUS_COMMITTED && orderId != null) {
+                confirmed.add(new Confirmed(orderId, productId, quantity));
+                return;
+            }
+            releases.incrementAndGet();
+            Slot slot = slots.get(productId);
+            ReentrantLock stripe = stripe(productId);
+            stripe.lock();
+            try {
+                if (slot.available != null) {
+                    slot.available += quantity;
+                }
+                slot.pending -= quantity;
+            } finally {
+                stripe.unlock();
+            }
+        }
+    }
+}
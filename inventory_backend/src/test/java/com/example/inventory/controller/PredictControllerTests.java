@@ -0,0 +1,52 @@
+package com.example.inventory.controller;
+
+import com.example.inventory.services.MlPredictionService;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+class PredictControllerTests {
+
+	static MockMvc mvc(MlPredictionService service, Executor executor) {
+		return MockMvcBuilders.standaloneSetup(new PredictController(service, executor))
+			.setControllerAdvice(new MlCapacityAdvice())
+			.build();
+	}
+
+	@Test
+	void predictsOnTheMlExecutor() throws Exception {
+		MlPredictionService service = mock(MlPredictionService.class);
+		when(service.predictDemand(eq(7L), eq(20), eq(9.5), isNull(), isNull())).thenReturn(12.0);
+		MockMvc mvc = mvc(service, Runnable::run);
+
+		MvcResult result = mvc.perform(get("/api/predict/7").param("currentStock", "20").param("price", "9.5"))
+			.andExpect(request().asyncStarted())
+			.andReturn();
+		mvc.perform(asyncDispatch(result))
+			.andExpect(status().isOk())
+			.andExpect(jsonPath("$.predictedDemand").value(12.0));
+	}
+
+	@Test
+	void returns503WhenTheExecutorIsFull() throws Exception {
+		MlPredictionService service = mock(MlPredictionService.class);
+		Executor full = task -> {
+			throw new RejectedExecutionException("queue full");
+		};
+
+		mvc(service, full).perform(get("/api/predict/7").param("currentStock", "20").param("price", "9.5"))
+			.andExpect(status().isServiceUnavailable())
+			.andExpect(header().string("Retry-After", "1"))
+			.andExpect(jsonPath("$.error").exists());
+		verifyNoInteractions(service);
+	}
+}
@@ -0,0 +1,105 @@
+package com.example.inventory.controller;
+
+import com.example.inventory.model.Product;
+import com.example.inventory.repository.ProductRepository;
+import com.example.inventory.services.CatalogCache;
+import com.example.inventory.services.ProductChangeEvent;
+import com.example.inventory.services.ProductService;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+class ProductControllerTests {
+
+	static Product product(long id, long version) {
+		Product p = new Product();
+		p.setId(id);
+		p.setName("Product " + id);
+		p.setVersion(version);
+		p.setLastModified(Instant.parse("2026-01-01T00:00:00Z"));
+		return p;
+	}
+
+	@Test
+	void conditionalGetsAnswer304UntilTheCatalogChanges() throws Exception {
+		ProductRepository repo = mock(ProductRepository.class);
+		when(repo.findAll()).thenReturn(new ArrayList<>(List.of(product(1, 0), product(2, 3))));
+		CatalogCache catalog = new CatalogCache(repo);
+		ProductService service = new ProductService(repo, mock(ApplicationEventPublisher.class), catalog, null, null);
+		MockMvc mvc = MockMvcBuilders.standaloneSetup(new ProductController(service, null, null, null)).build();
+
+		String etag = mvc.perform(get("/api/products"))
+			.andExpect(status().isOk())
+			.andExpect(jsonPath("$.length()").value(2))
+			.andReturn().getResponse().getHeader("ETag");
+		assertNotNull(etag);
+		mvc.perform(get("/api/products").header("If-None-Match", etag))
+			.andExpect(status().isNotModified())
+			.andExpect(content().string(""));
+
+		mvc.perform(get("/api/products/2"))
+			.andExpect(status().isOk())
+			.andExpect(header().string("ETag", "\"2-3\""))
+			.andExpect(header().exists("Last-Modified"));
+		mvc.perform(get("/api/products/2").header("If-None-Match", "\"2-3\""))
+			.andExpect(status().isNotModified());
+
+		when(repo.findById(2L)).thenReturn(Optional.of(product(2, 4)));
+		catalog.onProductChange(new ProductChangeEvent(2L, ProductChangeEvent.Type.UPDATED));
+
+		String changed = mvc.perform(get("/api/products").header("If-None-Match", etag))
+			.andExpect(status().isOk())
+			.andReturn().getResponse().getHeader("ETag");
+		assertNotEquals(etag, changed);
+		mvc.perform(get("/api/products/2").header("If-None-Match", "\"2-3\""))
+			.andExpect(status().isOk())
+			.andExpect(jsonPath("$.version").value(4));
+	}
+
+	@Test
+	void putWithStaleIfMatchIsRejected() throws Exception {
+		ProductRepository repo = mock(ProductRepository.class);
+		when(repo.findById(2L)).thenReturn(Optional.of(product(2, 4)));
+		when(repo.save(any(Product.class))).thenAnswer(inv -> {
+			Product saved = inv.getArgument(0);
+			saved.setVersion(saved.getVersion() + 1);
+			return saved;
+		});
+		ProductService service = new ProductService(repo, mock(ApplicationEventPublisher.class),
+			new CatalogCache(repo), null, null);
+		MockMvc mvc = MockMvcBuilders.standaloneSetup(new ProductController(service, null, null, null)).build();
+		String body = "{\"name\":\"Renamed\",\"version\":4}";
+
+		mvc.perform(put("/api/products/2").header("If-Match", "\"2-3\"")
+				.contentType(MediaType.APPLICATION_JSON).content(body))
+			.andExpect(status().isPreconditionFailed())
+			.andExpect(jsonPath("$.error").exists());
+		mvc.perform(put("/api/products/2").header("If-Match", "\"1-4\"")
+				.contentType(MediaType.APPLICATION_JSON).content(body))
+			.andExpect(status().isPreconditionFailed());
+		verify(repo, never()).save(any());
+
+		mvc.perform(put("/api/products/2").header("If-Match", "W/\"2-4\"")
+				.contentType(MediaType.APPLICATION_JSON).content(body))
+			.andExpect(status().isOk())
+			.andExpect(header().string("ETag", "\"2-5\""))
+			.andExpect(jsonPath("$.name").value("Renamed"));
+		// Without If-Match the update stays unconditional
+		mvc.perform(put("/api/products/2")
+				.contentType(MediaType.APPLICATION_JSON).content(body))
+			.andExpect(status().isOk());
+	}
+}
@@ -0,0 +1,89 @@
+package com.example.inventory.controller;
+
+import com.example.inventory.model.Product;
+import com.example.inventory.repository.ProductRepository;
+import com.example.inventory.services.DemandRanking;
+import com.example.inventory.services.DemandScorer;
+import com.example.inventory.services.MlPredictionService;
+import com.example.inventory.services.RecommendationService;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+class RecommendationControllerTests {
+
+	static MockMvc mvc(RecommendationService service, Executor executor) {
+		return MockMvcBuilders.standaloneSetup(new RecommendationController(service, executor))
+			.setControllerAdvice(new MlCapacityAdvice())
+			.build();
+	}
+
+	static Product product(long id, int stock) {
+		Product p = new Product();
+		p.setId(id);
+		p.setName("Product " + id);
+		p.setStockLevel(stock);
+		p.setPrice(10.0);
+		return p;
+	}
+
+	@Test
+	void marksProductsScoredWithTheFallback() throws Exception {
+		ProductRepository repo = mock(ProductRepository.class);
+		when(repo.findAll()).thenReturn(new ArrayList<>(List.of(product(1, 5), product(2, 6))));
+		MlPredictionService ml = mock(MlPredictionService.class);
+		// The model scores product 1 only
+		when(ml.predictModelBatch(anyList())).thenAnswer(inv -> {
+			List<Product> chunk = inv.getArgument(0);
+			if (chunk.get(0).getId() == 2L) {
+				throw new IllegalStateException("model unavailable");
+			}
+			return new Double[] { 40.0 };
+		});
+		when(ml.calculateFallbackDemand(6, 10.0)).thenReturn(3.0);
+		DemandScorer scorer = new DemandScorer(ml, 2, 16, 1, 5000);
+		RecommendationService service = new RecommendationService(repo, scorer, mock(DemandRanking.class));
+		MockMvc mvc = mvc(service, Runnable::run);
+
+		try {
+			MvcResult result = mvc.perform(get("/api/recommendations").param("limit", "5"))
+				.andExpect(request().asyncStarted())
+				.andReturn();
+			mvc.perform(asyncDispatch(result))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$[0].productId").value(1))
+				.andExpect(jsonPath("$[0].predictionSource").value("model"))
+				.andExpect(jsonPath("$[1].productId").value(2))
+				.andExpect(jsonPath("$[1].predictedDemand").value(3.0))
+				.andExpect(jsonPath("$[1].predictionSource").value("fallback"));
+		} finally {
+			ReflectionTestUtils.invokeMethod(scorer, "shutdown");
+		}
+	}
+
+	@Test
+	void returns503WhenTheMlExecutorRejects() throws Exception {
+		RecommendationService service = mock(RecommendationService.class);
+		Executor full = task -> {
+			throw new RejectedExecutionException("queue full");
+		};
+
+		mvc(service, full).perform(get("/api/recommendations"))
+			.andExpect(status().isServiceUnavailable())
+			.andExpect(header().string("Retry-After", "1"))
+			.andExpect(jsonPath("$.error").exists());
+		verifyNoInteractions(service);
+	}
+}
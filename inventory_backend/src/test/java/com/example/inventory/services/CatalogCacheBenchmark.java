@@ -0,0 +1,55 @@
+package com.example.inventory.services;
+
+import com.example.inventory.model.Product;
+import com.example.inventory.repository.ProductRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Catalog reads through the cache versus the JPA repository.
+ * Needs the application's database. Run with:
+ * mvn test -Dtest=CatalogCacheBenchmark -Dbenchmark=true
+ */
+@SpringBootTest
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class CatalogCacheBenchmark {
+
+	@Autowired
+	ProductRepository productRepository;
+
+	@Autowired
+	CatalogCache catalogCache;
+
+	@Test
+	void catalogReads() {
+		List<Product> products = productRepository.findAll();
+		System.out.printf("catalog: %d products%n", products.size());
+		if (products.isEmpty()) {
+			return;
+		}
+		Long id = products.get(products.size() / 2).getId();
+
+		report("findAll  repository", 200, () -> productRepository.findAll());
+		report("findAll  cache     ", 200, () -> catalogCache.getAll());
+		report("findById repository", 2_000, () -> productRepository.findById(id));
+		report("findById cache     ", 2_000, () -> catalogCache.getById(id));
+		System.out.println(catalogCache.getStats());
+	}
+
+	static void report(String name, int iterations, Supplier<?> call) {
+		for (int i = 0; i < iterations / 10; i++) {
+			call.get();
+		}
+		long start = System.nanoTime();
+		for (int i = 0; i < iterations; i++) {
+			call.get();
+		}
+		long elapsed = System.nanoTime() - start;
+		System.out.printf("%s: %,.1f µs/call%n", name, elapsed / 1e3 / iterations);
+	}
+}
@@ -0,0 +1,103 @@
+package com.example.inventory.services;
+
+import com.example.inventory.model.Product;
+import com.example.inventory.repository.ProductRepository;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class CatalogCacheTests {
+
+	static Product product(long id, int stock) {
+		Product p = new Product();
+		p.setId(id);
+		p.setStockLevel(stock);
+		p.setPrice(10.0);
+		return p;
+	}
+
+	@Test
+	void loadsOnceAndServesReadsFromTheSnapshot() {
+		ProductRepository repo = mock(ProductRepository.class);
+		when(repo.findAll()).thenReturn(new ArrayList<>(List.of(product(2, 5), product(1, 7))));
+		CatalogCache cache = new CatalogCache(repo);
+
+		assertEquals(List.of(1L, 2L), cache.getAll().stream().map(Product::getId).toList());
+		assertEquals(7, cache.getById(1L).orElseThrow().getStockLevel());
+		cache.getAll();
+
+		verify(repo, times(1)).findAll();
+		verify(repo, never()).findById(any());
+		assertEquals(2L, cache.getStats().get("hits"));
+		assertThrows(UnsupportedOperationException.class, () -> cache.getAll().add(product(3, 1)));
+	}
+
+	@Test
+	void swapsInChangedProductsWithoutReloading() {
+		ProductRepository repo = mock(ProductRepository.class);
+		when(repo.findAll()).thenReturn(new ArrayList<>(List.of(product(1, 7), product(2, 5))));
+		CatalogCache cache = new CatalogCache(repo);
+		List<Product> before = cache.getAll();
+
+		when(repo.findById(1L)).thenReturn(Optional.of(product(1, 3)));
+		cache.onProductChange(new ProductChangeEvent(1L, ProductChangeEvent.Type.STOCK_CHANGED));
+		when(repo.findById(2L)).thenReturn(Optional.empty());
+		cache.onProductChange(new ProductChangeEvent(2L, ProductChangeEvent.Type.DELETED));
+		when(repo.findById(3L)).thenReturn(Optional.of(product(3, 9)));
+		cache.onProductChange(new ProductChangeEvent(3L, ProductChangeEvent.Type.CREATED));
+
+		assertEquals(List.of(1L, 3L), cache.getAll().stream().map(Product::getId).toList());
+		assertEquals(3, cache.getById(1L).orElseThrow().getStockLevel());
+		assertEquals(2, before.size(), "earlier snapshots are not modified");
+		verify(repo, times(1)).findAll();
+	}
+
+	@Test
+	void unknownIdsFallBackToTheRepository() {
+		ProductRepository repo = mock(ProductRepository.class);
+		when(repo.findAll()).thenReturn(new ArrayList<>(List.of(product(1, 7))));
+		when(repo.findById(5L)).thenReturn(Optional.of(product(5, 1)));
+		when(repo.findById(6L)).thenReturn(Optional.empty());
+		CatalogCache cache = new CatalogCache(repo);
+		String version = cache.snapshot().getVersion();
+
+		assertTrue(cache.getById(5L).isPresent());
+		assertTrue(cache.getById(5L).isPresent());
+		assertTrue(cache.getById(6L).isEmpty());
+
+		// Not cached, so the list and version keep agreeing with what getById serves from the cache
+		verify(repo, times(2)).findById(5L);
+		assertEquals(version, cache.snapshot().getVersion(), "reads never move the catalog version");
+		assertEquals(1, cache.getAll().size());
+		assertNull(cache.getCached(5L));
+
+		cache.onProductChange(new ProductChangeEvent(5L, ProductChangeEvent.Type.UPDATED));
+		assertNotEquals(version, cache.snapshot().getVersion());
+		assertEquals(List.of(1L, 5L), cache.getAll().stream().map(Product::getId).toList());
+	}
+
+	@Test
+	void changesAreCoalescedIntoOneListCopyOnTheNextRead() {
+		ProductRepository repo = mock(ProductRepository.class);
+		when(repo.findAll()).thenReturn(new ArrayList<>(List.of(product(1, 7), product(2, 5))));
+		CatalogCache cache = new CatalogCache(repo);
+		CatalogCache.Snapshot before = cache.snapshot();
+
+		for (int stock = 6; stock > 0; stock--) {
+			when(repo.findById(1L)).thenReturn(Optional.of(product(1, stock)));
+			cache.onProductChange(new ProductChangeEvent(1L, ProductChangeEvent.Type.STOCK_CHANGED));
+		}
+		assertEquals(1L, cache.getStats().get("materializations"));
+
+		CatalogCache.Snapshot after = cache.snapshot();
+		assertNotEquals(before.getVersion(), after.getVersion());
+		assertEquals(1, after.getProducts().get(0).getStockLevel());
+		assertSame(after, cache.snapshot());
+		assertEquals(2L, cache.getStats().get("materializations"));
+	}
+}
@@ -0,0 +1,54 @@
+package com.example.inventory.services;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class CatalogExportServiceTests {
+
+	@Test
+	void writesOneJsonObjectPerLineWithTheFetchSize() throws Exception {
+		ResultSet rs = mock(ResultSet.class);
+		when(rs.next()).thenReturn(true, true, false);
+		when(rs.getLong("product_id")).thenReturn(1L, 2L);
+		when(rs.getString("name")).thenReturn("Lamp", "Desk \"Pro\"");
+		when(rs.getObject("price")).thenReturn(9.5, 120.0);
+		when(rs.getDouble("price")).thenReturn(9.5, 120.0);
+		when(rs.getObject("stock_level")).thenReturn(3, (Integer) null);
+		when(rs.getInt("stock_level")).thenReturn(3);
+		Statement statement = mock(Statement.class);
+		when(statement.executeQuery(anyString())).thenReturn(rs);
+		Connection connection = mock(Connection.class);
+		when(connection.createStatement()).thenReturn(statement);
+		DataSource dataSource = mock(DataSource.class);
+		when(dataSource.getConnection()).thenReturn(connection);
+
+		ObjectMapper mapper = new ObjectMapper();
+		CatalogExportService service = new CatalogExportService(dataSource, mapper, 250);
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+		assertEquals(2, service.exportNdjson(out));
+
+		verify(statement).setFetchSize(250);
+		String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+		assertEquals(2, lines.length);
+		JsonNode first = mapper.readTree(lines[0]);
+		assertEquals(1, first.get("productId").asLong());
+		assertEquals(3, first.get("stockLevel").asInt());
+		JsonNode second = mapper.readTree(lines[1]);
+		assertEquals("Desk \"Pro\"", second.get("name").asText());
+		assertTrue(second.get("stockLevel").isNull());
+		assertTrue(out.toString(StandardCharsets.UTF_8).endsWith("}\n"));
+	}
+}
@@ -0,0 +1,70 @@
+package com.example.inventory.services;
+
+import com.example.inventory.model.Product;
+import com.example.inventory.repository.ProductRepository;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class CategoryFacetsTests {
+
+	static Product product(long id, String category, double price, int stock) {
+		Product p = new Product();
+		p.setId(id);
+		p.setCategory(category);
+		p.setPrice(price);
+		p.setStockLevel(stock);
+		return p;
+	}
+
+	@SuppressWarnings("unchecked")
+	static Map<String, Object> category(Map<String, Object> facets, String name) {
+		return ((List<Map<String, Object>>) facets.get("categories")).stream()
+			.filter(c -> name.equals(c.get("category"))).findFirst().orElse(null);
+	}
+
+	@Test
+	void appliesChangesWithoutRescanning() {
+		ProductRepository repo = mock(ProductRepository.class);
+		when(repo.findAll()).thenReturn(new ArrayList<>(List.of(
+			product(1, "Audio", 10.0, 5), product(2, "Audio", 2.5, 40), product(3, "Bags", 20.0, 1))));
+		CatalogCache catalog = new CatalogCache(repo);
+		CategoryFacets facets = new CategoryFacets(catalog, 10);
+
+		Map<String, Object> audio = category(facets.getFacets(), "Audio");
+		assertEquals(2L, audio.get("productCount"));
+		assertEquals(45L, audio.get("totalStock"));
+		assertEquals(150.0, audio.get("stockValue"));
+		assertEquals(1L, audio.get("lowStockCount"));
+
+		// Order for 3 units of product 2, product 3 moves to Audio, product 1 is deleted
+		when(repo.findById(2L)).thenReturn(Optional.of(product(2, "Audio", 2.5, 37)));
+		when(repo.findById(3L)).thenReturn(Optional.of(product(3, "Audio", 20.0, 1)));
+		when(repo.findById(1L)).thenReturn(Optional.empty());
+		// Published to the catalog first, as the application orders the listeners
+		for (ProductChangeEvent event : List.of(
+				new ProductChangeEvent(2L, ProductChangeEvent.Type.STOCK_CHANGED),
+				new ProductChangeEvent(3L, ProductChangeEvent.Type.UPDATED),
+				new ProductChangeEvent(1L, ProductChangeEvent.Type.DELETED))) {
+			catalog.onProductChange(event);
+			facets.onProductChange(event);
+		}
+
+		Map<String, Object> result = facets.getFacets();
+		audio = category(result, "Audio");
+		assertEquals(2L, audio.get("productCount"));
+		assertEquals(38L, audio.get("totalStock"));
+		assertEquals(112.5, audio.get("stockValue"));
+		assertEquals(1L, audio.get("lowStockCount"));
+		assertNull(category(result, "Bags"), "empty categories are dropped");
+		assertEquals(2L, ((Map<?, ?>) result.get("totals")).get("productCount"));
+		verify(repo, times(1)).findAll();
+		verify(repo, times(3)).findById(any());
+	}
+}
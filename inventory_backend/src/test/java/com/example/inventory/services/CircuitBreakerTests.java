@@ -0,0 +1,129 @@
+package com.example.inventory.services;
+
+import com.example.inventory.services.CircuitBreaker.State;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CircuitBreakerTests {
+
+	static final long FAST = 1_000_000L;
+	static final long SLOW = 2_000_000_000L;
+
+	static class MutableClock extends Clock {
+		Instant now = Instant.parse("2024-01-01T00:00:00Z");
+
+		@Override
+		public ZoneId getZone() {
+			return ZoneOffset.UTC;
+		}
+
+		@Override
+		public Clock withZone(ZoneId zone) {
+			return this;
+		}
+
+		@Override
+		public Instant instant() {
+			return now;
+		}
+
+		void advanceMs(long ms) {
+			now = now.plusMillis(ms);
+		}
+	}
+
+	final MutableClock clock = new MutableClock();
+
+	/** Window of 10, opens at 50% failures or 80% slow calls, 1 s open, 2 trial calls. */
+	CircuitBreaker breaker() {
+		return new CircuitBreaker("test", 10, 4, 50, 80, 1000, 1000, 2, clock);
+	}
+
+	@Test
+	void opensOnFailureRateAndRejectsCalls() {
+		CircuitBreaker breaker = breaker();
+		breaker.onSuccess(FAST);
+		breaker.onFailure();
+		breaker.onFailure();
+		assertEquals(State.CLOSED, breaker.getState(), "below minimum calls");
+
+		breaker.onSuccess(FAST);
+		breaker.onFailure();
+		assertEquals(State.OPEN, breaker.getState());
+		assertFalse(breaker.tryAcquire());
+		assertEquals(1L, breaker.getMetrics().get("notPermittedCalls"));
+	}
+
+	@Test
+	void opensOnSlowCallRate() {
+		CircuitBreaker breaker = breaker();
+		for (int i = 0; i < 4; i++) {
+			breaker.onSuccess(SLOW);
+		}
+		assertEquals(State.OPEN, breaker.getState());
+	}
+
+	@Test
+	void halfOpenClosesAfterSuccessfulTrials() {
+		CircuitBreaker breaker = breaker();
+		for (int i = 0; i < 4; i++) {
+			breaker.onFailure();
+		}
+		clock.advanceMs(1000);
+
+		assertTrue(breaker.tryAcquire());
+		assertEquals(State.HALF_OPEN, breaker.getState());
+		assertTrue(breaker.tryAcquire());
+		assertFalse(breaker.tryAcquire(), "only two trial calls");
+
+		breaker.onSuccess(FAST);
+		breaker.onSuccess(FAST);
+		assertEquals(State.CLOSED, breaker.getState());
+		assertEquals(0, breaker.getMetrics().get("bufferedCalls"));
+
+		@SuppressWarnings("unchecked")
+		List<Map<String, Object>> transitions = (List<Map<String, Object>>) breaker.getMetrics().get("transitions");
+		assertEquals(List.of("CLOSED", "HALF_OPEN", "OPEN"), transitions.stream().map(t -> t.get("to")).toList());
+	}
+
+	@Test
+	void halfOpenReopensOnFailure() {
+		CircuitBreaker breaker = breaker();
+		for (int i = 0; i < 4; i++) {
+			breaker.onFailure();
+		}
+		clock.advanceMs(1000);
+		assertTrue(breaker.tryAcquire());
+		breaker.onFailure();
+
+		assertEquals(State.OPEN, breaker.getState());
+		assertFalse(breaker.tryAcquire());
+		clock.advanceMs(999);
+		assertFalse(breaker.tryAcquire());
+		clock.advanceMs(1);
+		assertTrue(breaker.tryAcquire());
+	}
+
+	@Test
+	void oldOutcomesLeaveTheWindow() {
+		CircuitBreaker breaker = breaker();
+		for (int i = 0; i < 4; i++) {
+			breaker.onSuccess(FAST);
+			breaker.onSuccess(FAST);
+			breaker.onFailure();
+		}
+		assertEquals(State.CLOSED, breaker.getState());
+		for (int i = 0; i < 10; i++) {
+			breaker.onSuccess(FAST);
+		}
+		assertEquals(0.0, breaker.getMetrics().get("failureRate"));
+	}
+}
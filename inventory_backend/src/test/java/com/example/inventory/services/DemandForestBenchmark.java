@@ -0,0 +1,118 @@
+package com.example.inventory.services;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.time.LocalDate;
+import java.util.Random;
+
+/**
+ * Single-row and batch scoring throughput of the native forest.
+ * Uses the exported model when present, otherwise a synthetic forest of
+ * similar shape. Run with: mvn test -Dtest=DemandForestBenchmark -Dbenchmark=true
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class DemandForestBenchmark {
+
+	static final int TREES = 100;
+	static final int DEPTH = 12;
+	static final int FEATURES = 16;
+
+	@Test
+	void scoring() throws IOException {
+		DemandForest forest = Files.exists(DemandForestTests.EXPORTED_FOREST)
+			? DemandForest.load(DemandForestTests.EXPORTED_FOREST)
+			: DemandForest.read(new ByteArrayInputStream(syntheticForest(new Random(42))));
+		System.out.printf("forest: %d trees, %d nodes, %d features%n",
+			forest.getTreeCount(), forest.getNodeCount(), forest.getFeatureCount());
+
+		double[] features = new double[forest.getFeatureCount()];
+		LocalDate today = LocalDate.now();
+		Random random = new Random(7);
+		int rows = 10_000;
+		long[] ids = new long[rows];
+		double[] stock = new double[rows];
+		double[] price = new double[rows];
+		for (int i = 0; i < rows; i++) {
+			ids[i] = i + 1;
+			stock[i] = random.nextInt(300);
+			price[i] = 1 + random.nextDouble() * 2000;
+		}
+
+		// Warm-up
+		double sink = 0;
+		for (int i = 0; i < 200_000; i++) {
+			int r = i % rows;
+			forest.encode(ids[r], stock[r], price[r], null, today, features);
+			sink += forest.predict(features);
+		}
+
+		int iterations = 500_000;
+		long start = System.nanoTime();
+		for (int i = 0; i < iterations; i++) {
+			int r = i % rows;
+			forest.encode(ids[r], stock[r], price[r], null, today, features);
+			sink += forest.predict(features);
+		}
+		long single = System.nanoTime() - start;
+		System.out.printf("single row: %.0f ns/prediction%n", (double) single / iterations);
+
+		for (int batch : new int[] { 100, 1_000, 10_000 }) {
+			int repeats = Math.max(1, 1_000_000 / batch);
+			start = System.nanoTime();
+			for (int k = 0; k < repeats; k++) {
+				for (int r = 0; r < batch; r++) {
+					forest.encode(ids[r], stock[r], price[r], null, today, features);
+					sink += forest.predict(features);
+				}
+			}
+			long elapsed = System.nanoTime() - start;
+			System.out.printf("batch of %,d: %.3f ms/batch (%.0f rows/s)%n", batch,
+				elapsed / 1e6 / repeats, batch * repeats / (elapsed / 1e9));
+		}
+		System.out.println("checksum " + sink);
+	}
+
+	static byte[] syntheticForest(Random random) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		DataOutputStream out = new DataOutputStream(bytes);
+		out.writeInt(DemandForest.MAGIC);
+		out.writeInt(DemandForest.VERSION);
+		out.writeInt(FEATURES);
+		out.writeInt(2);
+		out.writeUTF("current_stock");
+		out.writeByte(DemandForest.NUMERIC);
+		out.writeInt(0);
+		out.writeDouble(Double.NaN);
+		out.writeDouble(150.0);
+		out.writeDouble(90.0);
+		out.writeUTF("price");
+		out.writeByte(DemandForest.NUMERIC);
+		out.writeInt(1);
+		out.writeDouble(Double.NaN);
+		out.writeDouble(1000.0);
+		out.writeDouble(600.0);
+
+		int perTree = (1 << (DEPTH + 1)) - 1;
+		out.writeInt(TREES);
+		out.writeInt(TREES * perTree);
+		for (int t = 0; t < TREES; t++) {
+			out.writeInt(t * perTree);
+		}
+		for (int t = 0; t < TREES; t++) {
+			int base = t * perTree;
+			for (int n = 0; n < perTree; n++) {
+				boolean leaf = 2 * n + 1 >= perTree;
+				DemandForestTests.writeNode(out,
+					leaf ? -1 : random.nextInt(2),
+					leaf ? -2 : random.nextGaussian(),
+					leaf ? -1 : base + 2 * n + 1,
+					leaf ? -1 : base + 2 * n + 2,
+					random.nextDouble() * 200);
+			}
+		}
+		return bytes.toByteArray();
+	}
+}
@@ -0,0 +1,205 @@
+package com.example.inventory.services;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class DemandForestTests {
+
+	static final Path EXPORTED_FOREST = Paths.get("../ml/demand_forest.bin");
+	static final Path PARITY_FIXTURE = Paths.get("../ml/demand_forest_parity.csv");
+
+	/**
+	 * Two stumps over [scaled current_stock, location=WH_A, location=WH_B]:
+	 * tree 0 splits on stock, tree 1 on the one-hot location.
+	 */
+	static byte[] twoStumpForest() throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		DataOutputStream out = new DataOutputStream(bytes);
+		out.writeInt(DemandForest.MAGIC);
+		out.writeInt(DemandForest.VERSION);
+		out.writeInt(3);
+		out.writeInt(2);
+
+		out.writeUTF("current_stock");
+		out.writeByte(DemandForest.NUMERIC);
+		out.writeInt(0);
+		out.writeDouble(Double.NaN);
+		out.writeDouble(50.0); // offset
+		out.writeDouble(10.0); // scale
+
+		out.writeUTF("location");
+		out.writeByte(DemandForest.ONE_HOT);
+		out.writeUTF("");
+		out.writeInt(2);
+		out.writeUTF("WH_A");
+		out.writeInt(1);
+		out.writeUTF("WH_B");
+		out.writeInt(2);
+
+		out.writeInt(2);
+		out.writeInt(6);
+		out.writeInt(0);
+		out.writeInt(3);
+		writeNode(out, 0, 0.0, 1, 2, 0);
+		writeNode(out, -1, -2, -1, -1, 10.0);
+		writeNode(out, -1, -2, -1, -1, 20.0);
+		writeNode(out, 1, 0.5, 4, 5, 0);
+		writeNode(out, -1, -2, -1, -1, 100.0);
+		writeNode(out, -1, -2, -1, -1, 200.0);
+		return bytes.toByteArray();
+	}
+
+	static void writeNode(DataOutputStream out, int feature, double threshold, int left, int right, double value)
+			throws IOException {
+		out.writeInt(feature);
+		out.writeDouble(threshold);
+		out.writeInt(left);
+		out.writeInt(right);
+		out.writeDouble(value);
+	}
+
+	@Test
+	void encodesInputsAndAveragesTrees() throws IOException {
+		DemandForest forest = DemandForest.read(new ByteArrayInputStream(twoStumpForest()));
+		assertEquals(2, forest.getTreeCount());
+		assertEquals(6, forest.getNodeCount());
+
+		double[] features = new double[forest.getFeatureCount()];
+		forest.encode(1, 40, 10.0, "SKU_0001", LocalDate.of(2025, 1, 1), features);
+
+		assertArrayEquals(new double[] { -1.0, 1.0, 0.0 }, features);
+		// stock below 50 -> 10, location WH_A (one-hot 1.0 > 0.5) -> 200
+		assertEquals(105.0, forest.predict(features));
+
+		forest.encode(1, 80, 10.0, "SKU_0001", LocalDate.of(2025, 1, 1), features);
+		assertEquals(110.0, forest.predict(features));
+	}
+
+	@Test
+	void rejectsFilesWithWrongMagic() {
+		byte[] bytes = new byte[16];
+		assertThrows(IOException.class, () -> DemandForest.read(new ByteArrayInputStream(bytes)));
+	}
+
+	/**
+	 * One stump per input column kind, each over an input that
+	 * ml/demand_features.py derives from the product and the day. Leaf values
+	 * are powers of two, so the mean tells which side every split took.
+	 */
+	static byte[] derivedInputsForest() throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		DataOutputStream out = new DataOutputStream(bytes);
+		out.writeInt(DemandForest.MAGIC);
+		out.writeInt(DemandForest.VERSION);
+		out.writeInt(6);
+		out.writeInt(6);
+
+		writeNumeric(out, "qty_in", 0, 0.0, 1.0);
+		out.writeUTF("batch_id");
+		out.writeByte(DemandForest.ORDINAL);
+		out.writeInt(1);
+		out.writeUTF("");
+		out.writeDouble(-1.0);
+		out.writeInt(3);
+		out.writeUTF("BATCH_00001");
+		out.writeUTF("BATCH_00008");
+		out.writeUTF("BATCH_05000");
+		out.writeUTF("expiry_date");
+		out.writeByte(DemandForest.ONE_HOT);
+		out.writeUTF("");
+		out.writeInt(2);
+		out.writeUTF("2025-06-30");
+		out.writeInt(-1); // dropped category
+		out.writeUTF("2025-07-01");
+		out.writeInt(2);
+		writeNumeric(out, "day_of_week", 3, 0.0, 1.0);
+		out.writeUTF("manufacture_date");
+		out.writeByte(DemandForest.ONE_HOT);
+		out.writeUTF("");
+		out.writeInt(1);
+		out.writeUTF("2024-12-03");
+		out.writeInt(4);
+		writeNumeric(out, "price", 5, 100.0, 50.0);
+
+		double[] thresholds = { 29.5, 0.5, 0.5, 2.5, 0.5, 0.0 };
+		out.writeInt(6);
+		out.writeInt(18);
+		for (int t = 0; t < 6; t++) {
+			out.writeInt(3 * t);
+		}
+		for (int t = 0; t < 6; t++) {
+			writeNode(out, t, thresholds[t], 3 * t + 1, 3 * t + 2, 0);
+			writeNode(out, -1, -2, -1, -1, 0.0);
+			writeNode(out, -1, -2, -1, -1, 1 << t);
+		}
+		return bytes.toByteArray();
+	}
+
+	static void writeNumeric(DataOutputStream out, String name, int index, double offset, double scale)
+			throws IOException {
+		out.writeUTF(name);
+		out.writeByte(DemandForest.NUMERIC);
+		out.writeInt(index);
+		out.writeDouble(Double.NaN);
+		out.writeDouble(offset);
+		out.writeDouble(scale);
+	}
+
+	/**
+	 * Expected values follow build_frame and adjust_for_stock in
+	 * ml/demand_features.py: qty_in = stock - 10 floored at 0, batch_id from
+	 * product_id % 5000 + 1, expiry 180 days ahead, manufacture 30 days back,
+	 * pandas day_of_week with Monday = 0 (2025-01-01 is a Wednesday).
+	 */
+	@Test
+	void matchesPythonFeatureDerivation() throws IOException {
+		DemandForest forest = DemandForest.read(new ByteArrayInputStream(derivedInputsForest()));
+		assertParity(forest, List.of(
+			"as_of,product_id,current_stock,price,sku_id,prediction",
+			// every split right: 63 / 6 = 10.5, stock < 50 doubles half of it
+			"2025-01-02,7,40.0,150.0,SKU_0007,10.5",
+			// every split left
+			"2025-01-01,5000,5.0,100.0,SKU_5000,0.0",
+			// all but price: 31 / 6, stock > 150 keeps 0.15 of it
+			"2025-01-02,4999,200.0,80.0,SKU_4999,0.775",
+			// unknown batch BATCH_00013, dropped expiry category: qty_in only, 1 / 6 * 0.6
+			"2025-01-01,12,75.0,99.99,SKU_0012,0.1"));
+	}
+
+	@Test
+	void matchesPythonPipelineOnParityFixture() throws IOException {
+		assumeTrue(Files.exists(EXPORTED_FOREST) && Files.exists(PARITY_FIXTURE),
+			"run ml/export_forest.py to produce the exported forest and parity fixture");
+
+		assertParity(DemandForest.load(EXPORTED_FOREST), Files.readAllLines(PARITY_FIXTURE));
+	}
+
+	/**
+	 * Checks rows in the format ml/export_forest.py writes its parity fixture in.
+	 */
+	static void assertParity(DemandForest forest, List<String> lines) {
+		double[] features = new double[forest.getFeatureCount()];
+		for (String line : lines.subList(1, lines.size())) {
+			String[] f = line.split(",");
+			LocalDate asOf = LocalDate.parse(f[0]);
+			long productId = Long.parseLong(f[1]);
+			double stock = Double.parseDouble(f[2]);
+			double price = Double.parseDouble(f[3]);
+			double expected = Double.parseDouble(f[5]);
+
+			forest.encode(productId, stock, price, f[4], asOf, features);
+			double actual = NativeDemandModel.adjustForStock(forest.predict(features), stock);
+
+			assertEquals(expected, actual, 1e-9 * Math.max(1.0, Math.abs(expected)), "row " + line);
+		}
+	}
+}
@@ -0,0 +1,79 @@
+package com.example.inventory.services;
+
+import com.example.inventory.model.Product;
+import com.example.inventory.repository.ProductRepository;
+import com.example.inventory.services.RecommendationService.ProductRecommendation;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class DemandRankingTests {
+
+	static Product product(long id, int stock) {
+		Product p = new Product();
+		p.setId(id);
+		p.setStockLevel(stock);
+		p.setPrice(10.0);
+		return p;
+	}
+
+	/** Scores every product with its stock level as demand. */
+	static DemandScorer stockScorer() {
+		DemandScorer scorer = mock(DemandScorer.class);
+		when(scorer.scoreProducts(anyList(), anyLong())).thenAnswer(inv -> {
+			List<Product> products = inv.getArgument(0);
+			return products.stream()
+				.map(p -> new ProductRecommendation(p, (double) p.getStockLevel(), true))
+				.collect(Collectors.toList());
+		});
+		return scorer;
+	}
+
+	static List<Long> ids(List<ProductRecommendation> recs) {
+		return recs.stream().map(r -> r.getProduct().getProductId()).collect(Collectors.toList());
+	}
+
+	@Test
+	void rescoresOnlyChangedProducts() {
+		ProductRepository repo = mock(ProductRepository.class);
+		when(repo.findAll()).thenReturn(new ArrayList<>(List.of(product(1, 5), product(2, 50), product(3, 20))));
+		DemandRanking ranking = new DemandRanking(repo, stockScorer());
+		ReflectionTestUtils.setField(ranking, "batchSize", 100);
+
+		ranking.rebuild();
+		assertTrue(ranking.isReady());
+		assertEquals(List.of(2L, 3L), ids(ranking.top(2)));
+
+		when(repo.findAllById(List.of(1L))).thenReturn(List.of(product(1, 80)));
+		ranking.onProductChange(new ProductChangeEvent(1L, ProductChangeEvent.Type.STOCK_CHANGED));
+		assertEquals(1, ranking.getStatus().get("pendingChanges"));
+
+		ranking.rescorePending();
+
+		assertEquals(List.of(1L, 2L, 3L), ids(ranking.top(10)));
+		assertEquals(0, ranking.getStatus().get("pendingChanges"));
+		verify(repo, times(1)).findAll();
+	}
+
+	@Test
+	void dropsDeletedProducts() {
+		ProductRepository repo = mock(ProductRepository.class);
+		when(repo.findAll()).thenReturn(new ArrayList<>(List.of(product(1, 5), product(2, 50))));
+		DemandRanking ranking = new DemandRanking(repo, stockScorer());
+		ReflectionTestUtils.setField(ranking, "batchSize", 100);
+		ranking.rebuild();
+
+		when(repo.findAllById(List.of(2L))).thenReturn(List.of());
+		ranking.onProductChange(new ProductChangeEvent(2L, ProductChangeEvent.Type.DELETED));
+		ranking.rescorePending();
+
+		assertEquals(List.of(1L), ids(ranking.top(10)));
+	}
+}
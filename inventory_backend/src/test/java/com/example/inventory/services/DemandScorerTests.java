@@ -0,0 +1,100 @@
+package com.example.inventory.services;
+
+import com.example.inventory.model.Product;
+import com.example.inventory.services.RecommendationService.ProductRecommendation;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class DemandScorerTests {
+
+	final MlPredictionService ml = mock(MlPredictionService.class);
+	final CountDownLatch release = new CountDownLatch(1);
+	DemandScorer scorer;
+
+	static Product product(long id) {
+		Product p = new Product();
+		p.setId(id);
+		p.setStockLevel(5);
+		p.setPrice(10.0);
+		return p;
+	}
+
+	static List<Boolean> modelScored(List<ProductRecommendation> recs) {
+		return recs.stream().map(ProductRecommendation::isModelScored).toList();
+	}
+
+	@AfterEach
+	void tearDown() {
+		release.countDown();
+		scorer.shutdown();
+	}
+
+	@Test
+	void chunksPastTheDeadlineFallBack() {
+		scorer = new DemandScorer(ml, 2, 16, 1, 200);
+		when(ml.calculateFallbackDemand(any(), any())).thenReturn(1.0);
+		when(ml.predictModelBatch(anyList())).thenAnswer(inv -> {
+			List<Product> chunk = inv.getArgument(0);
+			if (chunk.get(0).getId() == 2L) {
+				release.await();
+			}
+			return new Double[] { 7.0 };
+		});
+
+		long start = System.nanoTime();
+		List<ProductRecommendation> recs = scorer.scoreProducts(List.of(product(1), product(2), product(3)));
+		long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+		assertTrue(elapsedMs < 2000, "waited " + elapsedMs + " ms past a 200 ms deadline");
+		assertEquals(List.of(true, false, true), modelScored(recs));
+		assertEquals(7.0, recs.get(0).getPredictedDemand());
+		assertEquals(1.0, recs.get(1).getPredictedDemand());
+	}
+
+	@Test
+	void chunksTheExecutorRejectsFallBack() {
+		// One thread busy with the first chunk and room for one more in the queue
+		scorer = new DemandScorer(ml, 1, 1, 1, 5000);
+		when(ml.calculateFallbackDemand(any(), any())).thenReturn(1.0);
+		when(ml.predictModelBatch(anyList())).thenAnswer(inv -> {
+			List<Product> chunk = inv.getArgument(0);
+			if (chunk.get(0).getId() == 1L) {
+				Thread.sleep(300);
+			}
+			return new Double[] { 7.0 };
+		});
+
+		List<ProductRecommendation> recs = scorer.scoreProducts(List.of(product(1), product(2), product(3)));
+
+		assertEquals(List.of(true, true, false), modelScored(recs));
+		verify(ml, times(2)).predictModelBatch(anyList());
+		verify(ml).calculateFallbackDemand(5, 10.0);
+	}
+
+	@Test
+	void failedChunksFallBackAndTheRestKeepModelScores() {
+		scorer = new DemandScorer(ml, 2, 16, 2, 5000);
+		when(ml.calculateFallbackDemand(any(), any())).thenReturn(1.0);
+		when(ml.predictModelBatch(anyList())).thenAnswer(inv -> {
+			List<Product> chunk = inv.getArgument(0);
+			if (chunk.get(0).getId() == 3L) {
+				throw new IllegalStateException("model unavailable");
+			}
+			return new Double[] { 7.0, null };
+		});
+
+		List<ProductRecommendation> recs = scorer.scoreProducts(
+			List.of(product(1), product(2), product(3), product(4)));
+
+		// A null prediction falls back on its own, a failed chunk as a whole
+		assertEquals(List.of(true, false, false, false), modelScored(recs));
+	}
+}
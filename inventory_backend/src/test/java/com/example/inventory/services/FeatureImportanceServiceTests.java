@@ -0,0 +1,65 @@
+package com.example.inventory.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs shell scripts in place of ml/feature_importance.py.
+ */
+class FeatureImportanceServiceTests {
+
+	@TempDir
+	Path dir;
+
+	final FeatureImportanceService service = new FeatureImportanceService(new ObjectMapper());
+
+	@BeforeEach
+	void setUp() throws IOException {
+		Files.writeString(dir.resolve("model.joblib"), "model");
+		ReflectionTestUtils.setField(service, "pythonPath", "sh");
+		ReflectionTestUtils.setField(service, "modelPath", dir.resolve("model.joblib").toString());
+		ReflectionTestUtils.setField(service, "scriptPath", dir.resolve("script.sh").toString());
+		ReflectionTestUtils.setField(service, "checkIntervalMs", 1L);
+		ReflectionTestUtils.setField(service, "maxRetryIntervalMs", 1L);
+		ReflectionTestUtils.setField(service, "timeoutMs", 5000L);
+	}
+
+	void script(String body) throws IOException {
+		Files.writeString(dir.resolve("script.sh"), body, StandardCharsets.UTF_8);
+	}
+
+	@Test
+	void hungScriptTimesOut() throws Exception {
+		script("echo '{\"partial\": true'\nexec sleep 30\n");
+		ReflectionTestUtils.setField(service, "timeoutMs", 300L);
+
+		long start = System.nanoTime();
+		service.refreshIfModelChanged();
+
+		assertTrue(System.nanoTime() - start < 10_000_000_000L);
+		assertNull(service.getSnapshot());
+	}
+
+	@Test
+	void failedRunIsRetriedForTheSameModel() throws Exception {
+		script("if [ -f ran ]; then echo '{\"features\": []}'; else touch ran; exit 1; fi\n");
+
+		service.refreshIfModelChanged();
+		assertNull(service.getSnapshot());
+
+		Thread.sleep(20);
+		service.refreshIfModelChanged();
+		assertNotNull(service.getSnapshot());
+		assertEquals("{\"features\":[]}", new String(service.getSnapshot().getBody(), StandardCharsets.UTF_8));
+	}
+}
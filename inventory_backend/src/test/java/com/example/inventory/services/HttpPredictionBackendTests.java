@@ -0,0 +1,138 @@
+package com.example.inventory.services;
+
+import com.example.inventory.model.Product;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the batcher against an in-JVM stub of predict_service.py that
+ * answers each row with its current_stock.
+ */
+class HttpPredictionBackendTests {
+
+	final ObjectMapper mapper = new ObjectMapper();
+	final AtomicInteger requests = new AtomicInteger();
+	final List<Integer> batchSizes = new CopyOnWriteArrayList<>();
+	HttpServer server;
+	HttpPredictionBackend backend;
+
+	@BeforeEach
+	void start() throws Exception {
+		server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+		server.createContext("/health", exchange -> {
+			byte[] body = "{\"ok\":true,\"model_loaded\":true}".getBytes(StandardCharsets.UTF_8);
+			exchange.sendResponseHeaders(200, body.length);
+			exchange.getResponseBody().write(body);
+			exchange.close();
+		});
+		server.createContext("/predict", exchange -> {
+			requests.incrementAndGet();
+			JsonNode rows = mapper.readTree(exchange.getRequestBody()).get("rows");
+			batchSizes.add(rows.size());
+			StringBuilder body = new StringBuilder("{\"predictions\":[");
+			for (int i = 0; i < rows.size(); i++) {
+				if (i > 0) body.append(',');
+				body.append(rows.get(i).get("current_stock").asDouble());
+			}
+			byte[] bytes = body.append("]}").toString().getBytes(StandardCharsets.UTF_8);
+			exchange.getResponseHeaders().add("Content-Type", "application/json");
+			exchange.sendResponseHeaders(200, bytes.length);
+			exchange.getResponseBody().write(bytes);
+			exchange.close();
+		});
+		server.setExecutor(Executors.newFixedThreadPool(4));
+		server.start();
+
+		backend = new HttpPredictionBackend(mapper);
+		ReflectionTestUtils.setField(backend, "baseUrl", "http://127.0.0.1:" + server.getAddress().getPort());
+		ReflectionTestUtils.setField(backend, "batchWindowMs", 20L);
+		ReflectionTestUtils.setField(backend, "maxBatchRows", 64);
+		ReflectionTestUtils.setField(backend, "timeoutMs", 2000L);
+		ReflectionTestUtils.setField(backend, "maxInFlight", 2);
+		ReflectionTestUtils.setField(backend, "healthCheckIntervalMs", 60000L);
+		backend.start();
+	}
+
+	@AfterEach
+	void stop() {
+		backend.stop();
+		server.stop(0);
+	}
+
+	static Product product(long id, int stock) {
+		Product p = new Product();
+		p.setId(id);
+		p.setStockLevel(stock);
+		p.setPrice(10.0);
+		return p;
+	}
+
+	@Test
+	void coalescesConcurrentCallersIntoOneRequest() throws Exception {
+		int callers = 32;
+		ExecutorService pool = Executors.newFixedThreadPool(callers);
+		CountDownLatch go = new CountDownLatch(1);
+		List<Future<double[]>> results = new ArrayList<>();
+		for (int i = 0; i < callers; i++) {
+			int stock = i;
+			results.add(pool.submit(() -> {
+				go.await();
+				return backend.predict(List.of(product(stock + 1, stock)));
+			}));
+		}
+		go.countDown();
+		for (int i = 0; i < callers; i++) {
+			assertArrayEquals(new double[] { i }, results.get(i).get(5, TimeUnit.SECONDS));
+		}
+		pool.shutdown();
+
+		assertTrue(requests.get() < callers, "expected batching, got " + requests.get() + " requests");
+		assertEquals(callers, batchSizes.stream().mapToInt(Integer::intValue).sum());
+	}
+
+	@Test
+	void splitsLargeRequestsByMaxBatchRows() {
+		List<Product> products = new ArrayList<>();
+		for (int i = 0; i < 150; i++) {
+			products.add(product(i + 1, i));
+		}
+
+		double[] predictions = backend.predict(products);
+
+		assertNotNull(predictions);
+		for (int i = 0; i < predictions.length; i++) {
+			assertEquals(i, predictions[i]);
+		}
+		assertTrue(batchSizes.stream().allMatch(size -> size <= 64));
+		assertEquals(3, requests.get());
+	}
+
+	@Test
+	void reportsHealthAndReturnsNullWhenServiceIsDown() throws Exception {
+		long deadline = System.currentTimeMillis() + 5000;
+		while (!backend.isAvailable() && System.currentTimeMillis() < deadline) {
+			Thread.sleep(10);
+		}
+		assertTrue(backend.isAvailable());
+
+		server.stop(0);
+		ReflectionTestUtils.setField(backend, "timeoutMs", 200L);
+
+		assertNull(backend.predict(List.of(product(1, 5))));
+		assertFalse(backend.isAvailable());
+	}
+}
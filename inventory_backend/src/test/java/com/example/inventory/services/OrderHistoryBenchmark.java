@@ -0,0 +1,136 @@
+package com.example.inventory.services;
+
+import com.example.inventory.model.User;
+import com.example.inventory.repository.OrderRepository;
+import com.example.inventory.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.BufferedReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.example.inventory.services.CatalogCacheBenchmark.report;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Time-window order history against the unbounded findByUser_Id and
+ * findByProduct_Id, on the 1M-transaction dataset from ml/BuildData.py.
+ * Every transaction becomes an order of one of 1000 synthetic users for one
+ * of 1000 synthetic products; all of them are removed afterwards. Needs the
+ * application's database. Run with:
+ * mvn test -Dtest=OrderHistoryBenchmark -Dbenchmark=true [-Dbenchmark.transactions=../data/test_data.csv]
+ */
+@SpringBootTest
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class OrderHistoryBenchmark {
+
+	static final int USERS = 1000;
+	static final DateTimeFormatter TIMESTAMP = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss[.SSSSSS]");
+
+	@Autowired
+	OrderService orderService;
+
+	@Autowired
+	OrderRepository orderRepository;
+
+	@Autowired
+	UserRepository userRepository;
+
+	@Autowired
+	JdbcTemplate jdbcTemplate;
+
+	@Test
+	void historyWindows() throws Exception {
+		Path csv = Path.of(System.getProperty("benchmark.transactions", "../data/test_data.csv"));
+		assumeTrue(Files.exists(csv), "run ml/BuildData.py first, or set -Dbenchmark.transactions");
+		String tag = "bench-" + System.currentTimeMillis();
+		long[] users = new long[USERS];
+		try {
+			for (int i = 0; i < USERS; i++) {
+				User u = new User();
+				u.setUsername(tag + "-" + i);
+				u.setPasswordHash("x");
+				users[i] = userRepository.save(u).getId();
+			}
+			Map<String, Long> products = new HashMap<>();
+			int loaded = load(csv, tag, users, products);
+			jdbcTemplate.execute("ANALYZE orders");
+
+			Instant latest = jdbcTemplate.queryForObject("SELECT max(timestamp) FROM orders WHERE user_id = ?",
+				Timestamp.class, users[0]).toInstant();
+			Long user = users[USERS / 2];
+			Long product = products.values().iterator().next();
+			System.out.printf("%,d orders loaded, %d users, %d products%n", loaded, USERS, products.size());
+
+			report("user history    findByUser_Id       ", 50, () -> orderRepository.findByUser_Id(user));
+			report("user 30 days    page of 50          ", 500, () -> orderService.getOrdersPage(
+				null, 50, user, null, latest.minus(Duration.ofDays(30)), null));
+			report("user 90 days    page of 50          ", 500, () -> orderService.getOrdersPage(
+				null, 50, user, null, latest.minus(Duration.ofDays(90)), null));
+			report("product history findByProduct_Id    ", 50, () -> orderRepository.findByProduct_Id(product));
+			report("product 30 days page of 50          ", 500, () -> orderService.getOrdersPage(
+				null, 50, null, product, latest.minus(Duration.ofDays(30)), null));
+
+			Timestamp since = Timestamp.from(latest.minus(Duration.ofDays(30)));
+			jdbcTemplate.queryForList("EXPLAIN ANALYZE SELECT o.order_id, p.name, o.quantity, o.timestamp "
+				+ "FROM orders o JOIN products p ON p.product_id = o.product_id "
+				+ "WHERE o.user_id = ? AND o.timestamp >= ? ORDER BY o.timestamp DESC, o.order_id DESC LIMIT 51",
+				String.class, user, since).forEach(System.out::println);
+		} finally {
+			jdbcTemplate.update("DELETE FROM orders WHERE product_id IN "
+				+ "(SELECT product_id FROM products WHERE sku_id LIKE ?)", tag + "-%");
+			for (long id : users) {
+				if (id != 0) userRepository.deleteById(id);
+			}
+			jdbcTemplate.update("DELETE FROM products WHERE sku_id LIKE ?", tag + "-%");
+		}
+	}
+
+	int load(Path csv, String tag, long[] users, Map<String, Long> products) throws Exception {
+		List<Object[]> batch = new ArrayList<>();
+		int loaded = 0;
+		try (BufferedReader reader = Files.newBufferedReader(csv)) {
+			List<String> header = List.of(reader.readLine().split(","));
+			int id = header.indexOf("transaction_id");
+			int timestamp = header.indexOf("timestamp");
+			int sku = header.indexOf("sku_id");
+			int qtyOut = header.indexOf("qty_out");
+			String line;
+			while ((line = reader.readLine()) != null) {
+				String[] f = line.split(",", -1);
+				Long productId = products.computeIfAbsent(f[sku], s -> jdbcTemplate.queryForObject(
+					"INSERT INTO products (name, price, stock_level, sku_id) VALUES (?, 1, 0, ?) RETURNING product_id",
+					Long.class, "Bench " + s, tag + "-" + s));
+				Instant at = LocalDateTime.parse(f[timestamp], TIMESTAMP).toInstant(ZoneOffset.UTC);
+				batch.add(new Object[] { users[(int) (Long.parseLong(f[id]) % users.length)], productId,
+					Math.max(1, Integer.parseInt(f[qtyOut])), Timestamp.from(at) });
+				if (batch.size() == 10_000) {
+					loaded += insert(batch);
+				}
+			}
+		}
+		return loaded + insert(batch);
+	}
+
+	int insert(List<Object[]> batch) {
+		jdbcTemplate.batchUpdate("INSERT INTO orders (user_id, product_id, quantity, timestamp, stock_settled) "
+			+ "VALUES (?, ?, ?, ?, true)", batch);
+		int n = batch.size();
+		batch.clear();
+		return n;
+	}
+}
@@ -0,0 +1,131 @@
+package com.example.inventory.services;
+
+import com.example.inventory.model.Product;
+import com.example.inventory.model.User;
+import com.example.inventory.repository.ProductRepository;
+import com.example.inventory.repository.UserRepository;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Orders per second through the synchronous conditional UPDATE and through
+ * the stock ledger, on one hot product and spread over many products. Each
+ * mode runs in its own application context, started with that intake mode.
+ * Needs the application's database. Run with:
+ * mvn test -Dtest=OrderIntakeBenchmark -Dbenchmark=true
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class OrderIntakeBenchmark {
+
+	static final int THREADS = 32;
+	static final int ORDERS = 10_000;
+	static final int SPREAD = 1_000;
+
+	@Nested
+	@SpringBootTest(properties = "orders.intake.mode=sync")
+	class Sync extends Intake {
+		@Test
+		void sync() throws Exception {
+			measure("sync  ");
+		}
+	}
+
+	@Nested
+	@SpringBootTest(properties = "orders.intake.mode=ledger")
+	class Ledger extends Intake {
+		@Test
+		void ledger() throws Exception {
+			measure("ledger");
+			System.out.println(stockLedger.getStats());
+		}
+	}
+
+	abstract static class Intake {
+
+		@Autowired
+		OrderService orderService;
+
+		@Autowired
+		StockLedger stockLedger;
+
+		@Autowired
+		ProductRepository productRepository;
+
+		@Autowired
+		UserRepository userRepository;
+
+		@Autowired
+		JdbcTemplate jdbcTemplate;
+
+		void measure(String mode) throws Exception {
+			User user = new User();
+			user.setUsername("intake-" + System.nanoTime());
+			user.setPasswordHash("x");
+			Long userId = userRepository.save(user).getId();
+			run(mode, "hot SKU", userId, products(1, ORDERS));
+			run(mode, "spread ", userId, products(SPREAD, ORDERS / SPREAD));
+		}
+
+		List<Long> products(int count, int stock) {
+			List<Long> ids = new ArrayList<>();
+			for (int i = 0; i < count; i++) {
+				Product p = new Product();
+				p.setName("Intake product " + i);
+				p.setPrice(1.0);
+				p.setStockLevel(stock);
+				p.setSkuId("intake-" + System.nanoTime() + "-" + i);
+				ids.add(productRepository.save(p).getId());
+			}
+			return ids;
+		}
+
+		void run(String mode, String shape, Long userId, List<Long> productIds) throws Exception {
+			AtomicInteger next = new AtomicInteger();
+			AtomicInteger failed = new AtomicInteger();
+			ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+			CountDownLatch start = new CountDownLatch(1);
+			List<Future<?>> workers = new ArrayList<>();
+			for (int t = 0; t < THREADS; t++) {
+				workers.add(pool.submit(() -> {
+					start.await();
+					int i;
+					while ((i = next.getAndIncrement()) < ORDERS) {
+						try {
+							orderService.placeOrder(userId, productIds.get(i % productIds.size()), 1);
+						} catch (RuntimeException e) {
+							failed.incrementAndGet();
+						}
+					}
+					return null;
+				}));
+			}
+			long began = System.nanoTime();
+			start.countDown();
+			for (Future<?> f : workers) {
+				f.get();
+			}
+			double seconds = (System.nanoTime() - began) / 1e9;
+			pool.shutdown();
+			stockLedger.flush();
+
+			Integer left = jdbcTemplate.queryForObject(
+				"SELECT SUM(stock_level) FROM products WHERE product_id = ANY(?)", Integer.class,
+				(Object) productIds.toArray(Long[]::new));
+			System.out.printf("%s %s: %,.0f orders/s over %d products, %d failed, stock left %d%n",
+				mode, shape, ORDERS / seconds, productIds.size(), failed.get(), left);
+			assertEquals(0, failed.get());
+			assertEquals(0, left);
+		}
+	}
+}
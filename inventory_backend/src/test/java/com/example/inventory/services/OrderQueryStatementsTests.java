@@ -0,0 +1,49 @@
+package com.example.inventory.services;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Order listing costs one SQL statement per page, whatever the page size.
+ * Needs the application's database. Run with:
+ * mvn test -Dtest=OrderQueryStatementsTests -Dintegration=true
+ */
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@EnabledIfSystemProperty(named = "integration", matches = "true")
+class OrderQueryStatementsTests {
+
+	@Autowired
+	OrderService orderService;
+
+	@Autowired
+	EntityManagerFactory entityManagerFactory;
+
+	@Test
+	void oneStatementPerPage() {
+		Statistics stats = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		for (int limit : new int[] { 1, 10, 100 }) {
+			String cursor = null;
+			for (int page = 0; page < 3; page++) {
+				stats.clear();
+				Map<String, Object> result = orderService.getOrdersPage(cursor, limit, null, null, null, null);
+				assertEquals(1, stats.getPrepareStatementCount(), "statements for a page of " + limit);
+				assertTrue(((List<?>) result.get("items")).size() <= limit);
+				cursor = (String) result.get("nextCursor");
+				if (cursor == null) break;
+			}
+		}
+		stats.clear();
+		orderService.getOrderSummaries();
+		assertEquals(1, stats.getPrepareStatementCount());
+	}
+}
@@ -0,0 +1,98 @@
+package com.example.inventory.services;
+
+import com.example.inventory.dto.OrderDTO;
+import com.example.inventory.model.OrderEntity;
+import com.example.inventory.model.Product;
+import com.example.inventory.model.User;
+import com.example.inventory.repository.OrderRepository;
+import com.example.inventory.repository.ProductRepository;
+import com.example.inventory.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+
+import javax.sql.DataSource;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class OrderServiceTests {
+
+	final OrderRepository orders = mock(OrderRepository.class);
+	final ProductRepository products = mock(ProductRepository.class);
+	final UserRepository users = mock(UserRepository.class);
+	final ApplicationEventPublisher events = mock(ApplicationEventPublisher.class);
+	final DataSource dataSource = mock(DataSource.class);
+	final SalesRollupService salesRollups = mock(SalesRollupService.class);
+	final OrderService service = new OrderService(orders, products, users, events, mock(StockLedger.class),
+		salesRollups, dataSource, "sync");
+
+	@Test
+	void reservesStockWithoutLoadingTheProduct() {
+		when(users.existsById(1L)).thenReturn(true);
+		when(products.decrementStock(eq(7L), eq(3), any())).thenReturn(1);
+		when(users.getReferenceById(1L)).thenReturn(new User());
+		when(products.getReferenceById(7L)).thenReturn(new Product());
+		when(orders.save(any())).thenAnswer(inv -> inv.getArgument(0));
+
+		OrderEntity order = service.placeOrder(1L, 7L, 3);
+
+		assertEquals(3, order.getQuantity());
+		verify(products, never()).findById(any());
+		verify(products, never()).save(any());
+		verify(events).publishEvent(any(ProductChangeEvent.class));
+		verify(salesRollups).record(order.getTimestamp(), Map.of(7L, 3), Map.of(7L, 1));
+	}
+
+	@Test
+	void reportsShortStockWithoutWritingAnOrder() {
+		Product product = new Product();
+		product.setName("Lamp");
+		product.setStockLevel(2);
+		when(users.existsById(1L)).thenReturn(true);
+		when(products.decrementStock(eq(7L), eq(3), any())).thenReturn(0);
+		when(products.findById(7L)).thenReturn(Optional.of(product));
+
+		IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> service.placeOrder(1L, 7L, 3));
+
+		assertEquals("Insufficient stock for product: Lamp. Available: 2", e.getMessage());
+		verifyNoInteractions(orders, events, salesRollups);
+	}
+
+	@Test
+	void checkoutReportsEveryInvalidLineBeforeLocking() {
+		CheckoutException e = assertThrows(CheckoutException.class, () -> service.placeOrders(1L, List.of(
+			new OrderService.OrderLine(3L, 1),
+			new OrderService.OrderLine(null, 1),
+			new OrderService.OrderLine(4L, 0))));
+
+		assertEquals(2, e.getLineErrors().size());
+		assertEquals(1, e.getLineErrors().get(0).get("line"));
+		assertEquals("product_id is required", e.getLineErrors().get(0).get("error"));
+		assertEquals(2, e.getLineErrors().get(1).get("line"));
+		assertEquals(4L, e.getLineErrors().get(1).get("product_id"));
+		verifyNoInteractions(dataSource, users, orders, events);
+	}
+
+	@Test
+	void pagesContinueAfterTheLastOrderOfThePreviousPage() {
+		Instant t = Instant.parse("2026-03-01T10:15:30.123456Z");
+		when(orders.findPage(isNull(), isNull(), eq(5L), isNull(), isNull(), isNull(), eq(3))).thenReturn(List.of(
+			new OrderDTO(9L, "Lamp", 1, t), new OrderDTO(8L, "Desk", 2, t), new OrderDTO(7L, "Lamp", 1, t.minusSeconds(1))));
+		when(orders.findPage(eq(t), eq(8L), eq(5L), isNull(), isNull(), isNull(), eq(3))).thenReturn(List.of(
+			new OrderDTO(7L, "Lamp", 1, t.minusSeconds(1))));
+
+		Map<String, Object> first = service.getOrdersPage(null, 2, 5L, null, null, null);
+		assertEquals(2, ((List<?>) first.get("items")).size());
+		assertNotNull(first.get("nextCursor"));
+
+		Map<String, Object> second = service.getOrdersPage((String) first.get("nextCursor"), 2, 5L, null, null, null);
+		assertEquals(1, ((List<?>) second.get("items")).size());
+		assertNull(second.get("nextCursor"));
+		assertThrows(IllegalArgumentException.class, () -> service.getOrdersPage("bm90LWEtY3Vyc29y", 2, null, null, null, null));
+	}
+}
@@ -0,0 +1,101 @@
+package com.example.inventory.services;
+
+import com.example.inventory.model.Product;
+import com.example.inventory.model.User;
+import com.example.inventory.repository.OrderRepository;
+import com.example.inventory.repository.ProductRepository;
+import com.example.inventory.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Many threads ordering one hot product. Every unit of stock must be sold
+ * exactly once. Needs the application's database. Run with:
+ * mvn test -Dtest=OrderStockStressBenchmark -Dbenchmark=true
+ */
+@SpringBootTest
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class OrderStockStressBenchmark {
+
+	static final int THREADS = 32;
+	static final int STOCK = 5_000;
+	static final int ATTEMPTS = 6_000;
+
+	@Autowired
+	OrderService orderService;
+
+	@Autowired
+	ProductRepository productRepository;
+
+	@Autowired
+	UserRepository userRepository;
+
+	@Autowired
+	OrderRepository orderRepository;
+
+	@Test
+	void hotSkuNeverOversells() throws Exception {
+		User user = new User();
+		user.setUsername("stress-" + System.nanoTime());
+		user.setPasswordHash("x");
+		user = userRepository.save(user);
+		Product product = new Product();
+		product.setName("Stress product");
+		product.setPrice(1.0);
+		product.setStockLevel(STOCK);
+		product.setSkuId("stress-" + System.nanoTime());
+		product = productRepository.save(product);
+		Long userId = user.getId();
+		Long productId = product.getId();
+
+		AtomicInteger placed = new AtomicInteger();
+		AtomicInteger rejected = new AtomicInteger();
+		AtomicInteger errors = new AtomicInteger();
+		AtomicInteger remaining = new AtomicInteger(ATTEMPTS);
+		ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+		CountDownLatch start = new CountDownLatch(1);
+		List<Future<?>> workers = new ArrayList<>();
+		for (int t = 0; t < THREADS; t++) {
+			workers.add(pool.submit(() -> {
+				start.await();
+				while (remaining.getAndDecrement() > 0) {
+					try {
+						orderService.placeOrder(userId, productId, 1);
+						placed.incrementAndGet();
+					} catch (IllegalArgumentException e) {
+						rejected.incrementAndGet();
+					} catch (RuntimeException e) {
+						errors.incrementAndGet();
+					}
+				}
+				return null;
+			}));
+		}
+		long began = System.nanoTime();
+		start.countDown();
+		for (Future<?> f : workers) {
+			f.get();
+		}
+		double seconds = (System.nanoTime() - began) / 1e9;
+		pool.shutdown();
+
+		int finalStock = productRepository.findById(productId).orElseThrow().getStockLevel();
+		long orders = orderRepository.findByProduct_Id(productId).size();
+		System.out.printf("%d threads: %d placed, %d rejected, %d errors in %.2f s (%,.0f orders/s), final stock %d%n",
+			THREADS, placed.get(), rejected.get(), errors.get(), seconds, placed.get() / seconds, finalStock);
+
+		assertEquals(0, errors.get());
+		assertEquals(STOCK, placed.get());
+		assertEquals(STOCK, orders);
+		assertEquals(0, finalStock);
+	}
+}
@@ -0,0 +1,59 @@
+package com.example.inventory.services;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PredictionCacheTests {
+
+	@Test
+	void evictsLeastRecentlyUsedEntryWhenFull() {
+		PredictionCache cache = new PredictionCache(2, 600);
+		cache.put(1L, 10, 5.0, "SKU_0001", 1.0);
+		cache.put(2L, 10, 5.0, "SKU_0002", 2.0);
+		assertEquals(1.0, cache.get(1L, 10, 5.0, "SKU_0001"));
+
+		cache.put(3L, 10, 5.0, "SKU_0003", 3.0);
+
+		assertNull(cache.get(2L, 10, 5.0, "SKU_0002"));
+		assertEquals(1.0, cache.get(1L, 10, 5.0, "SKU_0001"));
+		assertEquals(1L, cache.getStats().get("evictions"));
+	}
+
+	@Test
+	void productChangeDropsAllEntriesForThatProduct() {
+		PredictionCache cache = new PredictionCache(10, 600);
+		cache.put(1L, 10, 5.0, "SKU_0001", 1.0);
+		cache.put(1L, 9, 5.0, "SKU_0001", 1.5);
+		cache.put(2L, 10, 5.0, "SKU_0002", 2.0);
+
+		cache.onProductChange(new ProductChangeEvent(1L, ProductChangeEvent.Type.STOCK_CHANGED));
+
+		assertNull(cache.get(1L, 10, 5.0, "SKU_0001"));
+		assertNull(cache.get(1L, 9, 5.0, "SKU_0001"));
+		assertEquals(2.0, cache.get(2L, 10, 5.0, "SKU_0002"));
+		assertEquals(2L, cache.getStats().get("invalidations"));
+	}
+
+	@Test
+	void evictedEntriesAreNotInvalidatedAgain() {
+		PredictionCache cache = new PredictionCache(1, 600);
+		cache.put(1L, 10, 5.0, "SKU_0001", 1.0);
+		cache.put(2L, 10, 5.0, "SKU_0002", 2.0);
+
+		cache.invalidateProduct(1L);
+
+		assertEquals(0L, cache.getStats().get("invalidations"));
+		assertEquals(2.0, cache.get(2L, 10, 5.0, "SKU_0002"));
+	}
+
+	@Test
+	void expiredEntriesAreMisses() {
+		PredictionCache cache = new PredictionCache(10, 0);
+		cache.put(1L, 10, 5.0, "SKU_0001", 1.0);
+
+		assertNull(cache.get(1L, 10, 5.0, "SKU_0001"));
+		assertEquals(1L, cache.getStats().get("expirations"));
+		assertEquals(1L, cache.getStats().get("misses"));
+	}
+}
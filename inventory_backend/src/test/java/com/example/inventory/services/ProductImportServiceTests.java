@@ -0,0 +1,47 @@
+package com.example.inventory.services;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.StringReader;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProductImportServiceTests {
+
+	@Test
+	void csvReaderHandlesQuotedCommasQuotesAndLineBreaks() throws Exception {
+		ProductImportService.CsvReader csv = new ProductImportService.CsvReader(new StringReader(
+			"name,price,skuId\r\n\"Desk, oak\",99.5,SKU-1\n\"Lamp \"\"Arc\"\"\nwhite\",20,SKU-2\n"));
+
+		assertEquals(List.of("name", "price", "skuId"), csv.next());
+		assertEquals(List.of("Desk, oak", "99.5", "SKU-1"), csv.next());
+		assertEquals(2, csv.record);
+		assertEquals(List.of("Lamp \"Arc\"\nwhite", "20", "SKU-2"), csv.next());
+		assertEquals(3, csv.record);
+		assertNull(csv.next());
+	}
+
+	@Test
+	void validateReportsTheFirstProblem() {
+		Map<String, String> row = new HashMap<>(Map.of("name", " Desk ", "price", "12.5", "skuid", "SKU-1"));
+		Object[] params = ProductImportService.validate(row);
+		assertEquals("Desk", params[0]);
+		assertEquals(12.5, params[2]);
+		assertEquals(0, params[3]);
+		assertEquals("SKU-1", params[6]);
+
+		row.put("price", "-1");
+		assertEquals("price must be >= 0",
+			assertThrows(IllegalArgumentException.class, () -> ProductImportService.validate(row)).getMessage());
+		row.put("price", "1");
+		row.put("stocklevel", "many");
+		assertEquals("stockLevel must be an integer",
+			assertThrows(IllegalArgumentException.class, () -> ProductImportService.validate(row)).getMessage());
+		row.remove("skuid");
+		assertEquals("skuId is required",
+			assertThrows(IllegalArgumentException.class, () -> ProductImportService.validate(row)).getMessage());
+	}
+}
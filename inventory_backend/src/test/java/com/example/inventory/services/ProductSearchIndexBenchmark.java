@@ -0,0 +1,95 @@
+package com.example.inventory.services;
+
+import com.example.inventory.model.Product;
+import com.example.inventory.repository.ProductRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.mockito.Mockito.mock;
+
+/**
+ * Build time, heap per product and query latency of the search index on
+ * synthetic catalogs of 100k and 1M products. The 1M run needs about 4 GB of heap.
+ * Run with: mvn test -Dtest=ProductSearchIndexBenchmark -Dbenchmark=true
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class ProductSearchIndexBenchmark {
+
+	static final String[] ADJECTIVES = { "wireless", "mechanical", "portable", "smart", "ultra", "compact",
+		"ergonomic", "premium", "classic", "digital", "silent", "rugged", "gaming", "vintage", "modern" };
+	static final String[] NOUNS = { "mouse", "keyboard", "laptop", "monitor", "headset", "charger", "speaker",
+		"camera", "watch", "tablet", "router", "lamp", "backpack", "microphone", "controller", "drive" };
+	static final String[] CATEGORIES = { "Electronics", "Computers", "Accessories", "Displays", "Audio",
+		"Wearables", "Storage", "Networking", "Lighting", "Bags" };
+	static final String[] QUERIES = { "wireless mouse", "mech", "gamng laptop", "premium", "sku_004",
+		"ergonomic keyboard audio", "contrller", "smart watch wearables" };
+
+	@Test
+	void searchIndex() {
+		run(100_000);
+		run(1_000_000);
+	}
+
+	static void run(int count) {
+		List<Product> products = catalog(count, new Random(42));
+		ProductRepository repo = mock(ProductRepository.class);
+		ProductSearchIndex index = new ProductSearchIndex(new CatalogCache(repo));
+
+		long before = usedHeap();
+		long start = System.nanoTime();
+		index.rebuild(products);
+		long buildMs = (System.nanoTime() - start) / 1_000_000;
+		long after = usedHeap();
+		System.out.printf("%,d products: build %,d ms, ~%,d bytes/product, %s%n",
+			count, buildMs, (after - before) / count, index.getStats());
+
+		for (int i = 0; i < 200; i++) {
+			index.search(QUERIES[i % QUERIES.length], 20);
+		}
+		for (String query : QUERIES) {
+			int iterations = 50;
+			long t = System.nanoTime();
+			int hits = 0;
+			for (int i = 0; i < iterations; i++) {
+				hits = index.search(query, 20).size();
+			}
+			System.out.printf("  %-26s %8.3f ms/query (%d results)%n",
+				'"' + query + '"', (System.nanoTime() - t) / 1e6 / iterations, hits);
+		}
+	}
+
+	static List<Product> catalog(int count, Random random) {
+		List<Product> products = new ArrayList<>(count);
+		for (int i = 1; i <= count; i++) {
+			String adjective = ADJECTIVES[random.nextInt(ADJECTIVES.length)];
+			String noun = NOUNS[random.nextInt(NOUNS.length)];
+			Product p = new Product();
+			p.setId((long) i);
+			p.setName(capitalize(adjective) + " " + capitalize(noun) + " " + Integer.toString(i, 36).toUpperCase());
+			p.setCategory(CATEGORIES[random.nextInt(CATEGORIES.length)]);
+			p.setDescription("A " + ADJECTIVES[random.nextInt(ADJECTIVES.length)] + " " + noun
+				+ " with " + ADJECTIVES[random.nextInt(ADJECTIVES.length)] + " design and long warranty");
+			p.setSkuId(String.format("SKU_%07d", i));
+			p.setPrice(1 + random.nextDouble() * 1000);
+			p.setStockLevel(random.nextInt(300));
+			products.add(p);
+		}
+		return products;
+	}
+
+	static String capitalize(String word) {
+		return Character.toUpperCase(word.charAt(0)) + word.substring(1);
+	}
+
+	static long usedHeap() {
+		Runtime runtime = Runtime.getRuntime();
+		for (int i = 0; i < 3; i++) {
+			System.gc();
+		}
+		return runtime.totalMemory() - runtime.freeMemory();
+	}
+}
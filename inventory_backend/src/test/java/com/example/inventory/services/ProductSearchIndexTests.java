@@ -0,0 +1,90 @@
+package com.example.inventory.services;
+
+import com.example.inventory.model.Product;
+import com.example.inventory.repository.ProductRepository;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class ProductSearchIndexTests {
+
+	static Product product(long id, String name, String category, String description) {
+		Product p = new Product();
+		p.setId(id);
+		p.setName(name);
+		p.setCategory(category);
+		p.setDescription(description);
+		p.setSkuId(String.format("SKU_%04d", id));
+		return p;
+	}
+
+	final ProductRepository repo = mock(ProductRepository.class);
+	final CatalogCache catalog = new CatalogCache(repo);
+	final ProductSearchIndex index = new ProductSearchIndex(catalog);
+
+	static List<Long> ids(List<Product> products) {
+		return products.stream().map(Product::getId).toList();
+	}
+
+	void build() {
+		when(repo.findAll()).thenReturn(new ArrayList<>(List.of(
+			product(1, "Wireless Mouse", "Accessories", "Ergonomic mouse with long battery life"),
+			product(2, "Mechanical Keyboard", "Accessories", "RGB keyboard, pairs with any wireless mouse"),
+			product(3, "Gaming Laptop", "Computers", "Fast laptop with a wireless adapter"),
+			product(4, "USB Charger", "Accessories", "Charges laptops and phones"))));
+		index.rebuild(catalog.getAll());
+	}
+
+	@Test
+	void ranksNameMatchesAboveDescriptionMatches() {
+		build();
+		assertEquals(List.of(1L, 2L), ids(index.search("wireless mouse", 10)));
+		assertEquals(List.of(3L), ids(index.search("laptop", 10)));
+		assertEquals(List.of(), index.search("", 10));
+	}
+
+	@Test
+	void matchesPrefixesAndTypos() {
+		build();
+		assertEquals(List.of(2L), ids(index.search("mecha", 10)));
+		assertEquals(List.of(2L), ids(index.search("keybaord", 10)));
+		assertEquals(List.of(3L), ids(index.search("gamign lap", 10)));
+		assertEquals(List.of(4L), ids(index.search("sku_0004", 10)));
+		assertEquals(List.of(), index.search("toaster", 10));
+	}
+
+	@Test
+	void appliesChangesIncrementally() {
+		build();
+		when(repo.findById(1L)).thenReturn(Optional.of(product(1, "Silent Trackball", "Accessories", null)));
+		publish(new ProductChangeEvent(1L, ProductChangeEvent.Type.UPDATED));
+		when(repo.findById(4L)).thenReturn(Optional.empty());
+		publish(new ProductChangeEvent(4L, ProductChangeEvent.Type.DELETED));
+		when(repo.findById(5L)).thenReturn(Optional.of(product(5, "Travel Mouse", "Accessories", null)));
+		publish(new ProductChangeEvent(5L, ProductChangeEvent.Type.CREATED));
+		verify(repo, times(3)).findById(any());
+
+		assertEquals(List.of(5L, 2L), ids(index.search("mouse", 10)));
+		assertEquals(List.of(1L), ids(index.search("trackball", 10)));
+		assertEquals(List.of(), index.search("charger", 10));
+		assertEquals(4, index.getStats().get("products"));
+	}
+
+	// Listener order in the application: the catalog refreshes first
+	void publish(ProductChangeEvent event) {
+		catalog.onProductChange(event);
+		index.onProductChange(event);
+	}
+
+	@Test
+	void editDistanceCountsTranspositionsOnce() {
+		assertEquals(1, ProductSearchIndex.editDistance("keybaord", "keyboard", 2));
+		assertEquals(2, ProductSearchIndex.editDistance("abcd", "badc", 2));
+		assertEquals(3, ProductSearchIndex.editDistance("mouse", "charger", 2));
+	}
+}
@@ -0,0 +1,58 @@
+package com.example.inventory.services;
+
+import com.example.inventory.model.Product;
+import com.example.inventory.repository.ProductRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class ProductServiceTests {
+
+	static Product product(long id) {
+		Product p = new Product();
+		p.setId(id);
+		return p;
+	}
+
+	static ProductService service(ProductRepository repo) {
+		CatalogCache catalog = new CatalogCache(repo);
+		return new ProductService(repo, mock(ApplicationEventPublisher.class), catalog,
+			new ProductSearchIndex(catalog), new CategoryFacets(catalog, 10));
+	}
+
+	@Test
+	void pagesContinueAfterTheLastId() {
+		ProductRepository repo = mock(ProductRepository.class);
+		when(repo.findPage(isNull(), eq("Toys"), isNull(), isNull(), eq(true), eq(3)))
+			.thenReturn(List.of(product(4), product(9), product(12)));
+		when(repo.findPage(eq(9L), eq("Toys"), isNull(), isNull(), eq(true), eq(3)))
+			.thenReturn(List.of(product(12)));
+		ProductService service = service(repo);
+
+		Map<String, Object> first = service.getPage(null, 2, "Toys", null, null, true);
+		assertEquals(2, ((List<?>) first.get("items")).size());
+		String cursor = (String) first.get("nextCursor");
+		assertNotNull(cursor);
+
+		Map<String, Object> second = service.getPage(cursor, 2, "Toys", null, null, true);
+		assertEquals(1, ((List<?>) second.get("items")).size());
+		assertNull(second.get("nextCursor"));
+	}
+
+	@Test
+	void rejectsBadCursorsAndLimits() {
+		ProductService service = service(mock(ProductRepository.class));
+
+		assertThrows(IllegalArgumentException.class, () -> service.getPage("not-a-cursor", 10, null, null, null, null));
+		assertThrows(IllegalArgumentException.class, () -> service.getPage(null, 0, null, null, null, null));
+		assertThrows(IllegalArgumentException.class,
+			() -> service.getPage(null, ProductService.MAX_PAGE_SIZE + 1, null, null, null, null));
+		assertEquals(42L, ProductService.decodeCursor(ProductService.encodeCursor(42L)));
+	}
+}
@@ -0,0 +1,97 @@
+package com.example.inventory.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs a stand-in for ml/predict_worker.py that answers with each row's
+ * product id, and takes too long for batches larger than four rows.
+ */
+class PythonWorkerPoolTests {
+
+	static final String WORKER = """
+		import json, sys, time
+		print(json.dumps({"ready": True}), flush=True)
+		for line in sys.stdin:
+		    request = json.loads(line)
+		    rows = request.get("rows") or []
+		    if len(rows) > 4:
+		        time.sleep(5)
+		    print(json.dumps({"id": request["id"], "ok": True,
+		                      "predictions": [r["product_id"] for r in rows]}), flush=True)
+		""";
+
+	@TempDir
+	Path dir;
+
+	final PythonWorkerPool pool = new PythonWorkerPool(new ObjectMapper());
+
+	@BeforeEach
+	void setUp() throws IOException {
+		Files.writeString(dir.resolve("worker.py"), WORKER, StandardCharsets.UTF_8);
+		ReflectionTestUtils.setField(pool, "pythonPath", "python3");
+		ReflectionTestUtils.setField(pool, "modelPath", dir.resolve("model.joblib").toString());
+		ReflectionTestUtils.setField(pool, "scriptPath", dir.resolve("worker.py").toString());
+		ReflectionTestUtils.setField(pool, "poolSize", 2);
+		ReflectionTestUtils.setField(pool, "requestTimeoutMs", 1000L);
+		ReflectionTestUtils.setField(pool, "startupTimeoutMs", 10000L);
+		ReflectionTestUtils.setField(pool, "healthCheckIntervalMs", 60000L);
+		ReflectionTestUtils.setField(pool, "maxBatchRows", 4);
+	}
+
+	@AfterEach
+	void tearDown() {
+		pool.stop();
+	}
+
+	static List<Map<String, Object>> rows(int count) {
+		List<Map<String, Object>> rows = new ArrayList<>();
+		for (int i = 1; i <= count; i++) {
+			rows.add(Map.of("product_id", i));
+		}
+		return rows;
+	}
+
+	void awaitWorkers() throws InterruptedException {
+		for (int i = 0; i < 200 && pool.getAvailableWorkers() < 2; i++) {
+			Thread.sleep(50);
+		}
+		assertEquals(2, pool.getAvailableWorkers(), "workers did not start");
+	}
+
+	@Test
+	void largeBatchesAreSplitAcrossWorkersWithinTheTimeout() throws Exception {
+		pool.start();
+		awaitWorkers();
+
+		double[] predictions = pool.predictRows(rows(10));
+
+		assertNotNull(predictions);
+		assertArrayEquals(new double[] { 1, 2, 3, 4, 5, 6, 7, 8, 9, 10 }, predictions);
+		// No chunk timed out, so no worker was killed and respawned
+		assertEquals(2, pool.getAvailableWorkers());
+	}
+
+	@Test
+	void oversizedRequestTimesOut() throws Exception {
+		ReflectionTestUtils.setField(pool, "maxBatchRows", 100);
+		pool.start();
+		awaitWorkers();
+
+		assertNull(pool.predictRows(rows(10)));
+	}
+}
@@ -0,0 +1,67 @@
+package com.example.inventory.services;
+
+import com.example.inventory.model.Product;
+import com.example.inventory.repository.ProductRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.Comparator;
+import java.util.stream.Collectors;
+
+import static com.example.inventory.services.CatalogCacheBenchmark.report;
+
+/**
+ * Featured and low-stock queries as the products table grows, against the
+ * old findAll-and-filter approach. Synthetic rows (sku bench-*) are added
+ * in steps and removed afterwards. Needs the application's database. Run with:
+ * mvn test -Dtest=RecommendationQueryBenchmark -Dbenchmark=true
+ */
+@SpringBootTest
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class RecommendationQueryBenchmark {
+
+	static final int[] SIZES = { 10_000, 100_000, 500_000 };
+
+	@Autowired
+	RecommendationService recommendationService;
+
+	@Autowired
+	ProductRepository productRepository;
+
+	@Autowired
+	JdbcTemplate jdbcTemplate;
+
+	@Test
+	void latencyAsTheTableGrows() {
+		int inserted = 0;
+		try {
+			for (int size : SIZES) {
+				jdbcTemplate.update("INSERT INTO products (name, category, price, stock_level, sku_id) "
+					+ "SELECT 'Bench product ' || g, 'Bench', (g % 500) + 0.99, g % 200, 'bench-' || g "
+					+ "FROM generate_series(?, ?) g", inserted + 1, size);
+				inserted = size;
+				jdbcTemplate.execute("ANALYZE products");
+				System.out.printf("%n%,d synthetic products%n", size);
+				report("featured  indexed   ", 500, () -> recommendationService.getFeaturedProducts(12));
+				report("low-stock indexed   ", 500, () -> recommendationService.getLowStockProducts(2, 50));
+				report("featured  findAll   ", 3, () -> productRepository.findAll().stream()
+					.filter(p -> p.getStockLevel() != null && p.getStockLevel() > 10)
+					.filter(p -> p.getPrice() != null && p.getPrice() > 0)
+					.sorted(Comparator.comparing(Product::getStockLevel).reversed()
+						.thenComparing(Product::getPrice))
+					.limit(12)
+					.collect(Collectors.toList()));
+			}
+			System.out.println();
+			jdbcTemplate.queryForList("EXPLAIN SELECT * FROM products WHERE stock_level > 10 AND price > 0 "
+				+ "ORDER BY stock_level DESC, price ASC LIMIT 12", String.class).forEach(System.out::println);
+			jdbcTemplate.queryForList("EXPLAIN SELECT * FROM products WHERE stock_level <= 2 "
+				+ "ORDER BY stock_level, product_id LIMIT 50", String.class).forEach(System.out::println);
+		} finally {
+			jdbcTemplate.update("DELETE FROM products WHERE sku_id LIKE 'bench-%'");
+		}
+	}
+}
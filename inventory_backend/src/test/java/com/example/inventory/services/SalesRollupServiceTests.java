@@ -0,0 +1,179 @@
+package com.example.inventory.services;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+
+import javax.sql.DataSource;
+import java.sql.*;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class SalesRollupServiceTests {
+
+	final DataSource dataSource = mock(DataSource.class);
+	final PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+	final SalesRollupService service = new SalesRollupService(dataSource, transactionManager,
+		mock(CatalogCache.class), 1000, 2);
+	final List<String> statements = Collections.synchronizedList(new ArrayList<>());
+
+	/**
+	 * Orders 1..2500 in the database; chunk statements fail if {@code failChunks},
+	 * and another rebuild holds the lock if {@code locked}.
+	 */
+	void mockDatabase(boolean failChunks, boolean locked) throws Exception {
+		Statement statement = mock(Statement.class);
+		when(statement.execute(anyString())).thenAnswer(inv -> statements.add(inv.getArgument(0)) && false);
+		when(statement.executeQuery(anyString())).thenAnswer(inv -> {
+			String sql = inv.getArgument(0);
+			statements.add(sql);
+			if (sql.contains("pg_try_advisory_xact_lock")) {
+				ResultSet rs = singleColumn();
+				when(rs.getBoolean(1)).thenReturn(!locked);
+				return rs;
+			}
+			if (sql.contains("pg_export_snapshot")) {
+				ResultSet rs = singleColumn();
+				when(rs.getString(1)).thenReturn("00000003-0000001B-1");
+				return rs;
+			}
+			return bounds();
+		});
+		when(statement.executeUpdate(anyString())).thenAnswer(inv -> {
+			statements.add(inv.getArgument(0));
+			return 3;
+		});
+		Connection connection = mock(Connection.class);
+		when(connection.createStatement()).thenReturn(statement);
+		when(connection.prepareStatement(anyString())).thenAnswer(inv -> {
+			String sql = inv.getArgument(0);
+			PreparedStatement update = mock(PreparedStatement.class);
+			when(update.executeUpdate()).thenAnswer(call -> {
+				statements.add(sql);
+				if (failChunks && sql.contains("FROM (SELECT timestamp")) {
+					throw new SQLException("duplicate key", "23505");
+				}
+				return 1;
+			});
+			return update;
+		});
+		when(dataSource.getConnection()).thenReturn(connection);
+	}
+
+	static ResultSet singleColumn() throws SQLException {
+		ResultSetMetaData meta = mock(ResultSetMetaData.class);
+		when(meta.getColumnCount()).thenReturn(1);
+		ResultSet rs = mock(ResultSet.class);
+		when(rs.next()).thenReturn(true, false);
+		when(rs.getMetaData()).thenReturn(meta);
+		return rs;
+	}
+
+	static ResultSet bounds() throws SQLException {
+		ResultSetMetaData meta = mock(ResultSetMetaData.class);
+		when(meta.getColumnCount()).thenReturn(2);
+		when(meta.getColumnLabel(1)).thenReturn("first_id");
+		when(meta.getColumnLabel(2)).thenReturn("last_id");
+		ResultSet rs = mock(ResultSet.class);
+		when(rs.next()).thenReturn(true, false);
+		when(rs.getMetaData()).thenReturn(meta);
+		when(rs.getObject(1)).thenReturn(1L);
+		when(rs.getObject(2)).thenReturn(2500L);
+		return rs;
+	}
+
+	List<Integer> indexesOf(String prefix) {
+		List<Integer> found = new ArrayList<>();
+		for (int i = 0; i < statements.size(); i++) {
+			if (statements.get(i).startsWith(prefix)) {
+				found.add(i);
+			}
+		}
+		return found;
+	}
+
+	int indexOf(String prefix) {
+		for (int i = 0; i < statements.size(); i++) {
+			if (statements.get(i).startsWith(prefix)) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	@Test
+	void daysAreUtcDays() {
+		assertEquals(LocalDate.of(2026, 3, 1), SalesRollupService.dayOf(Instant.parse("2026-03-01T23:59:59Z")));
+		assertEquals(LocalDate.of(2026, 3, 2), SalesRollupService.dayOf(Instant.parse("2026-03-02T00:00:00Z")));
+	}
+
+	@Test
+	void rejectsInvalidRangesWithoutQuerying() {
+		IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> service.getSales(
+			SalesRollupService.GroupBy.DAY, LocalDate.of(2026, 3, 2), LocalDate.of(2026, 3, 1)));
+		assertEquals("from must not be after to", e.getMessage());
+		assertThrows(IllegalArgumentException.class, () -> service.getSales(
+			SalesRollupService.GroupBy.PRODUCT, LocalDate.of(2000, 1, 1), LocalDate.of(2026, 3, 1)));
+		verifyNoInteractions(dataSource);
+	}
+
+	@Test
+	void rebuildAggregatesASnapshotAndLocksOnlyForTheSwap() throws Exception {
+		mockDatabase(false, false);
+
+		Map<String, Object> result = service.rebuild();
+
+		assertEquals(3, result.get("chunks"));
+		assertEquals(3L, result.get("rollupRows"));
+		// The delta base and every chunk import the exported snapshot
+		assertEquals(4, indexesOf("SET TRANSACTION SNAPSHOT '00000003-0000001B-1'").size());
+		int lock = indexOf("LOCK TABLE sales_daily");
+		List<Integer> chunks = indexesOf("INSERT INTO sales_daily_rebuild_");
+		assertEquals(5, chunks.size(), statements::toString);
+		for (int chunk : chunks.subList(0, 4)) {
+			assertTrue(chunk < lock, "built under the lock: " + statements);
+		}
+		// Catch-up of what was recorded since the snapshot, then the swap
+		assertTrue(chunks.get(4) > lock);
+		int delete = indexOf("DELETE FROM sales_daily");
+		assertTrue(delete > chunks.get(4));
+		assertTrue(indexOf("INSERT INTO sales_daily (") > delete);
+		assertEquals(2, indexesOf("DROP TABLE IF EXISTS sales_daily_rebuild_").size());
+		verify(transactionManager, atLeast(5)).getTransaction(argThat(definition ->
+			definition.getIsolationLevel() == TransactionDefinition.ISOLATION_REPEATABLE_READ));
+	}
+
+	@Test
+	void failedChunkLeavesTheRollupsAlone() throws Exception {
+		mockDatabase(true, false);
+
+		assertThrows(DataIntegrityViolationException.class, service::rebuild);
+
+		assertEquals(-1, indexOf("LOCK TABLE sales_daily"));
+		assertEquals(-1, indexOf("DELETE FROM sales_daily"));
+		assertEquals(2, indexesOf("DROP TABLE IF EXISTS sales_daily_rebuild_").size());
+		verify(transactionManager, atLeastOnce()).rollback(any());
+		// Free to run again
+		statements.clear();
+		assertThrows(DataIntegrityViolationException.class, service::rebuild);
+	}
+
+	@Test
+	void rebuildOnAnotherInstanceIsAConflict() throws Exception {
+		mockDatabase(false, true);
+
+		IllegalStateException e = assertThrows(IllegalStateException.class, service::rebuild);
+		assertEquals("A sales rollup rebuild is already running", e.getMessage());
+		assertEquals(-1, indexOf("SELECT pg_export_snapshot()"));
+		assertEquals(2, indexesOf("DROP TABLE IF EXISTS sales_daily_rebuild_").size());
+	}
+}
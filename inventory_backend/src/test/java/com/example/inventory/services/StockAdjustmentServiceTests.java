@@ -0,0 +1,59 @@
+package com.example.inventory.services;
+
+import com.example.inventory.dto.StockAdjustment;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+
+import javax.sql.DataSource;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class StockAdjustmentServiceTests {
+
+	@Test
+	void mergesEntriesPerProductInRequestOrder() {
+		Map<Long, StockAdjustmentService.Change> changes = StockAdjustmentService.merge(List.of(
+			new StockAdjustment(1L, null, 5, null, "restock"),
+			new StockAdjustment(null, "SKU-2", -2, null, "damaged"),
+			new StockAdjustment(1L, null, 3, null, "restock"),
+			new StockAdjustment(null, "SKU-2", null, 40, "cycle count"),
+			new StockAdjustment(2L, null, -1, null, "damaged")), Map.of("SKU-2", 2L));
+
+		assertEquals(List.of(1L, 2L), List.copyOf(changes.keySet()));
+		assertNull(changes.get(1L).stockLevel);
+		assertEquals(8, changes.get(1L).delta);
+		// The count replaces the earlier delta, the later one applies on top
+		assertEquals(40, changes.get(2L).stockLevel);
+		assertEquals(-1, changes.get(2L).delta);
+	}
+
+	@Test
+	void newLevelsAreComputedWithoutIntOverflow() {
+		Map<Long, StockAdjustmentService.Change> changes = StockAdjustmentService.merge(List.of(
+			new StockAdjustment(1L, null, Integer.MAX_VALUE, null, "restock"),
+			new StockAdjustment(2L, null, null, 7, "cycle count")), Map.of());
+
+		assertEquals(Integer.MAX_VALUE + 10L, changes.get(1L).apply(10));
+		assertEquals(Integer.MAX_VALUE, changes.get(1L).apply(null));
+		assertEquals(7, changes.get(2L).apply(500));
+	}
+
+	@Test
+	void rejectsInvalidEntriesBeforeTouchingTheDatabase() {
+		DataSource dataSource = mock(DataSource.class);
+		StockAdjustmentService service = new StockAdjustmentService(dataSource, mock(ApplicationEventPublisher.class));
+
+		assertThrows(IllegalArgumentException.class, () -> service.apply(List.of()));
+		assertEquals("adjustments[1]: give exactly one of productId and skuId",
+			assertThrows(IllegalArgumentException.class, () -> service.apply(List.of(
+				new StockAdjustment(1L, null, 1, null, null),
+				new StockAdjustment(2L, "SKU-2", 1, null, null)))).getMessage());
+		assertEquals("adjustments[0]: give exactly one of delta and stockLevel",
+			assertThrows(IllegalArgumentException.class, () -> service.apply(List.of(
+				new StockAdjustment(1L, null, null, null, null)))).getMessage());
+		verifyNoInteractions(dataSource);
+	}
+}
@@ -0,0 +1,94 @@
+package com.example.inventory.services;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class StockLedgerTests {
+
+	PreparedStatement load;
+	StockLedger ledger;
+
+	@BeforeEach
+	void setUp() throws Exception {
+		ResultSet rs = mock(ResultSet.class);
+		when(rs.next()).thenReturn(true, false, true, false);
+		when(rs.getInt(1)).thenReturn(5, 9);
+		when(rs.getObject(1, Integer.class)).thenReturn(5, 9);
+		when(rs.getMetaData()).thenReturn(mock(java.sql.ResultSetMetaData.class));
+		when(rs.getMetaData().getColumnCount()).thenReturn(1);
+		load = mock(PreparedStatement.class);
+		when(load.executeQuery()).thenReturn(rs);
+		Connection connection = mock(Connection.class);
+		when(connection.prepareStatement(anyString())).thenReturn(load);
+		DataSource dataSource = mock(DataSource.class);
+		when(dataSource.getConnection()).thenReturn(connection);
+		ledger = new StockLedger(dataSource, mock(PlatformTransactionManager.class),
+			mock(ApplicationEventPublisher.class), "ledger", 4);
+		TransactionSynchronizationManager.initSynchronization();
+	}
+
+	@AfterEach
+	void tearDown() {
+		TransactionSynchronizationManager.clearSynchronization();
+	}
+
+	@Test
+	void reservesFromTheLoadedLevelAndReleasesOnRollback() throws Exception {
+		StockLedger.Reservation first = ledger.reserve(7L, 3);
+		assertNotNull(first);
+		assertNull(ledger.reserve(7L, 3));
+		assertEquals(2, ledger.getAvailable(7L));
+		verify(load, times(1)).executeQuery();
+
+		first.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK);
+		assertEquals(5, ledger.getAvailable(7L));
+	}
+
+	@Test
+	void reloadsAfterAnOutsideChangeKeepingPendingOrders() throws Exception {
+		StockLedger.Reservation order = ledger.reserve(7L, 4);
+		order.setOrderId(100L);
+		order.afterCompletion(TransactionSynchronization.STATUS_COMMITTED);
+
+		// Restocked to 9 before the flush wrote the 4 units back
+		ledger.onProductChange(new ProductChangeEvent(7L, ProductChangeEvent.Type.STOCK_CHANGED));
+		assertNull(ledger.getAvailable(7L));
+		assertNotNull(ledger.reserve(7L, 5));
+		assertEquals(0, ledger.getAvailable(7L));
+		assertEquals(1, ledger.getStats().get("awaitingFlush"));
+	}
+
+	@Test
+	void syncModeRecoversLeftoverOrdersButNeverFlushes() throws Exception {
+		ResultSet empty = mock(ResultSet.class);
+		Statement statement = mock(Statement.class);
+		when(statement.executeQuery(anyString())).thenReturn(empty);
+		Connection connection = mock(Connection.class);
+		when(connection.createStatement()).thenReturn(statement);
+		DataSource dataSource = mock(DataSource.class);
+		when(dataSource.getConnection()).thenReturn(connection);
+		StockLedger sync = new StockLedger(dataSource, mock(PlatformTransactionManager.class),
+			mock(ApplicationEventPublisher.class), "sync", 4);
+
+		sync.start();
+		verify(statement).executeQuery(contains("SET stock_settled = true WHERE stock_settled = false "));
+		sync.stop();
+		assertEquals(0L, sync.getStats().get("flushes"));
+		verify(connection, never()).prepareStatement(anyString());
+	}
+}
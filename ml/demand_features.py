@@ -0,0 +1,62 @@
+#!/usr/bin/env python3
+"""
+Feature construction shared by the long-lived prediction processes.
+
+Mirrors the row layout built in predict.py, but works on many rows at once
+so the pipeline can score them in a single vectorised predict call.
+"""
+
+import pandas as pd
+
+
+def build_frame(rows, input_cols, now=None):
+    """Build the model input DataFrame for a list of product rows.
+
+    Each row is a dict with product_id, current_stock, price and optionally
+    sku_id. Values are derived deterministically from the row so the same
+    product state always yields the same prediction.
+    """
+    timestamp = pd.Timestamp.now().normalize() if now is None else now
+    records = []
+    for row in rows:
+        product_id = int(row.get('product_id') or 0)
+        current_stock = float(row.get('current_stock') if row.get('current_stock') is not None else 50)
+        price = float(row.get('price') if row.get('price') is not None else 100.0)
+        sku_id = row.get('sku_id') or f"SKU_{product_id:04d}"
+        records.append({
+            'sku_id': sku_id,
+            'qty_in': max(0, current_stock - 10),  # Simple restock logic
+            'current_stock': current_stock,
+            'batch_id': f'BATCH_{(product_id % 5000) + 1:05d}',
+            'expiry_date': (timestamp + pd.Timedelta(days=180)).strftime('%Y-%m-%d'),
+            'manufacture_date': (timestamp - pd.Timedelta(days=30)).strftime('%Y-%m-%d'),
+            'transaction_type': 'sale',
+            'location': 'WH_A',
+            'price': price
+        })
+
+    df = pd.DataFrame(records)
+    df['timestamp'] = timestamp
+    df['year'] = timestamp.year
+    df['month'] = timestamp.month
+    df['day'] = timestamp.day
+    df['day_of_week'] = timestamp.dayofweek
+    df['expiry_days'] = (pd.to_datetime(df['expiry_date']) - timestamp).dt.days
+    df['manufacture_days'] = (timestamp - pd.to_datetime(df['manufacture_date'])).dt.days
+    return df[input_cols].copy()
+
+
+def adjust_for_stock(prediction, current_stock):
+    """Apply the inverse stock-demand scaling used by predict.py."""
+    base_prediction = prediction * 0.5
+    if current_stock < 10:
+        base_prediction *= 3.0
+    elif current_stock < 50:
+        base_prediction *= 2.0
+    elif current_stock < 100:
+        base_prediction *= 1.2
+    elif current_stock > 150:
+        base_prediction *= 0.3
+    else:
+        base_prediction *= 0.6
+    return max(0.0, float(base_prediction))
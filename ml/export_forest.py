@@ -0,0 +1,253 @@
+#!/usr/bin/env python3
+"""
+Export the fitted RandomForest pipeline in demand_model.joblib to the compact
+binary format read by the Java evaluator (com.example.inventory.services.DemandForest).
+
+Run from project root after (re)training:
+    python3 ml/export_forest.py [model.joblib] [out.bin] [parity.csv]
+
+Alongside the binary it writes a parity fixture: sample feature rows and the
+predictions the Python pipeline makes for them, so the Java side can verify
+it scores identically.
+
+Binary layout (big-endian, strings as 2-byte length + UTF-8):
+    int   magic 'DFM1', int version, int featureCount, int columnCount
+    per input column:
+        utf   name
+        byte  kind (0 numeric, 1 one-hot, 2 ordinal)
+        numeric: int outIndex, double fill (NaN = none), double offset, double scale
+        one-hot: utf fill, int n, n x (utf category, int outIndex or -1 when dropped)
+        ordinal: int outIndex, utf fill, double unknownValue, int n, n x utf category
+    int   treeCount, int nodeCount, treeCount x int root
+    per node: int feature (-1 for leaves), double threshold, int left, int right, double value
+"""
+
+import math
+import os
+import struct
+import sys
+import warnings
+
+import joblib
+import numpy as np
+import pandas as pd
+
+from demand_features import build_frame, adjust_for_stock
+
+warnings.filterwarnings('ignore')
+
+HERE = os.path.dirname(os.path.abspath(__file__))
+MAGIC = 0x44464D31
+VERSION = 1
+NUMERIC, ONE_HOT, ORDINAL = 0, 1, 2
+
+
+class Writer:
+    def __init__(self, f):
+        self.f = f
+
+    def int(self, v):
+        self.f.write(struct.pack('>i', int(v)))
+
+    def byte(self, v):
+        self.f.write(struct.pack('>b', int(v)))
+
+    def double(self, v):
+        self.f.write(struct.pack('>d', float(v)))
+
+    def utf(self, s):
+        data = ('' if s is None else str(s)).encode('utf-8')
+        self.f.write(struct.pack('>H', len(data)))
+        self.f.write(data)
+
+
+def affine_of(step, i, offset, scale):
+    """Compose a fitted scaler into (x - offset) / scale."""
+    name = type(step).__name__
+    if name == 'StandardScaler':
+        o2 = step.mean_[i] if step.mean_ is not None else 0.0
+        s2 = step.scale_[i] if step.scale_ is not None else 1.0
+    elif name == 'MinMaxScaler':
+        o2 = -step.min_[i] / step.scale_[i]
+        s2 = 1.0 / step.scale_[i]
+    elif name == 'RobustScaler':
+        o2 = step.center_[i] if step.center_ is not None else 0.0
+        s2 = step.scale_[i] if step.scale_ is not None else 1.0
+    else:
+        raise SystemExit(f'Unsupported numeric step: {name}')
+    return offset + o2 * scale, scale * s2
+
+
+def steps_of(transformer):
+    if transformer == 'passthrough':
+        return []
+    if hasattr(transformer, 'steps'):
+        return [s for _, s in transformer.steps if s != 'passthrough']
+    return [transformer]
+
+
+def export_columns(pre, input_cols):
+    columns = []
+    out = 0
+    for name, transformer, cols in pre.transformers_:
+        if transformer == 'drop' or len(cols) == 0:
+            continue
+        cols = [input_cols[c] if isinstance(c, (int, np.integer)) else c for c in cols]
+        steps = steps_of(transformer)
+        encoder = next((s for s in steps if type(s).__name__ in ('OneHotEncoder', 'OrdinalEncoder')), None)
+        imputer = next((s for s in steps if type(s).__name__ == 'SimpleImputer'), None)
+
+        if encoder is None:
+            for i, col in enumerate(cols):
+                fill = float(imputer.statistics_[i]) if imputer is not None else math.nan
+                offset, scale = 0.0, 1.0
+                for step in steps:
+                    if step is not imputer:
+                        offset, scale = affine_of(step, i, offset, scale)
+                columns.append({'name': col, 'kind': NUMERIC, 'out': out, 'fill': fill,
+                                'offset': offset, 'scale': scale})
+                out += 1
+        elif type(encoder).__name__ == 'OneHotEncoder':
+            if getattr(encoder, 'infrequent_categories_', None) and any(
+                    c is not None for c in encoder.infrequent_categories_):
+                raise SystemExit('Infrequent category grouping is not supported')
+            drop_idx = getattr(encoder, 'drop_idx_', None)
+            for i, col in enumerate(cols):
+                fill = str(imputer.statistics_[i]) if imputer is not None else ''
+                categories = []
+                for j, category in enumerate(encoder.categories_[i]):
+                    if drop_idx is not None and drop_idx[i] is not None and j == drop_idx[i]:
+                        categories.append((str(category), -1))
+                    else:
+                        categories.append((str(category), out))
+                        out += 1
+                columns.append({'name': col, 'kind': ONE_HOT, 'fill': fill, 'categories': categories})
+        else:
+            unknown = encoder.unknown_value if encoder.handle_unknown == 'use_encoded_value' else math.nan
+            for i, col in enumerate(cols):
+                fill = str(imputer.statistics_[i]) if imputer is not None else ''
+                columns.append({'name': col, 'kind': ORDINAL, 'out': out, 'fill': fill,
+                                'unknown': float(unknown) if unknown is not None else math.nan,
+                                'categories': [str(c) for c in encoder.categories_[i]]})
+                out += 1
+    return columns, out
+
+
+def encode(columns, width, X):
+    """Python reimplementation of the exported preprocessing, used to verify the export."""
+    result = np.zeros((len(X), width))
+    for r in range(len(X)):
+        for c in columns:
+            v = X[c['name']].iloc[r]
+            if c['kind'] == NUMERIC:
+                v = float(v)
+                if math.isnan(v) and not math.isnan(c['fill']):
+                    v = c['fill']
+                result[r, c['out']] = (v - c['offset']) / c['scale']
+            elif c['kind'] == ONE_HOT:
+                s = c['fill'] if v is None else str(v)
+                for category, idx in c['categories']:
+                    if category == s and idx >= 0:
+                        result[r, idx] = 1.0
+            else:
+                s = c['fill'] if v is None else str(v)
+                cats = c['categories']
+                result[r, c['out']] = cats.index(s) if s in cats else c['unknown']
+    return result
+
+
+def write_binary(path, columns, width, forest):
+    trees = [est.tree_ for est in forest.estimators_]
+    node_count = sum(t.node_count for t in trees)
+    with open(path, 'wb') as f:
+        w = Writer(f)
+        w.int(MAGIC)
+        w.int(VERSION)
+        w.int(width)
+        w.int(len(columns))
+        for c in columns:
+            w.utf(c['name'])
+            w.byte(c['kind'])
+            if c['kind'] == NUMERIC:
+                w.int(c['out'])
+                w.double(c['fill'])
+                w.double(c['offset'])
+                w.double(c['scale'])
+            elif c['kind'] == ONE_HOT:
+                w.utf(c['fill'])
+                w.int(len(c['categories']))
+                for category, idx in c['categories']:
+                    w.utf(category)
+                    w.int(idx)
+            else:
+                w.int(c['out'])
+                w.utf(c['fill'])
+                w.double(c['unknown'])
+                w.int(len(c['categories']))
+                for category in c['categories']:
+                    w.utf(category)
+
+        w.int(len(trees))
+        w.int(node_count)
+        base = 0
+        for t in trees:
+            w.int(base)
+            base += t.node_count
+        base = 0
+        for t in trees:
+            for n in range(t.node_count):
+                leaf = t.children_left[n] == -1
+                w.int(-1 if leaf else t.feature[n])
+                w.double(t.threshold[n])
+                w.int(-1 if leaf else base + t.children_left[n])
+                w.int(-1 if leaf else base + t.children_right[n])
+                w.double(t.value[n].ravel()[0])
+            base += t.node_count
+    return len(trees), node_count
+
+
+def write_parity(path, model_data, rows, as_of):
+    pipeline = model_data['model']
+    X = build_frame(rows, model_data['input_cols'], now=as_of)
+    raw = pipeline.predict(X)
+    with open(path, 'w') as f:
+        f.write('as_of,product_id,current_stock,price,sku_id,prediction\n')
+        for row, p in zip(rows, raw):
+            f.write(f"{as_of.strftime('%Y-%m-%d')},{row['product_id']},{row['current_stock']},"
+                    f"{row['price']},{row['sku_id']},{adjust_for_stock(float(p), row['current_stock'])!r}\n")
+
+
+def main():
+    model_path = sys.argv[1] if len(sys.argv) > 1 else os.path.join(HERE, 'demand_model.joblib')
+    out_path = sys.argv[2] if len(sys.argv) > 2 else os.path.join(HERE, 'demand_forest.bin')
+    parity_path = sys.argv[3] if len(sys.argv) > 3 else os.path.join(HERE, 'demand_forest_parity.csv')
+
+    model_data = joblib.load(model_path)
+    pipeline = model_data['model']
+    input_cols = list(model_data['input_cols'])
+    steps = [s for _, s in pipeline.steps]
+    if len(steps) != 2 or type(steps[0]).__name__ != 'ColumnTransformer':
+        raise SystemExit('Expected a Pipeline of (ColumnTransformer, RandomForestRegressor)')
+    pre, forest = steps
+
+    columns, width = export_columns(pre, input_cols)
+
+    rng = np.random.default_rng(42)
+    as_of = pd.Timestamp.now().normalize()
+    rows = [{'product_id': i,
+             'current_stock': float(rng.integers(0, 300)),
+             'price': float(round(rng.uniform(1, 2000), 2)),
+             'sku_id': f'SKU_{i:04d}'} for i in range(1, 201)]
+    X = build_frame(rows, input_cols, now=as_of)
+    expected = pre.transform(X)
+    expected = expected.toarray() if hasattr(expected, 'toarray') else np.asarray(expected, dtype=float)
+    if expected.shape[1] != width or not np.allclose(encode(columns, width, X), expected):
+        raise SystemExit('Exported preprocessing does not reproduce the pipeline output')
+
+    trees, nodes = write_binary(out_path, columns, width, forest)
+    write_parity(parity_path, model_data, rows, as_of)
+    print(f'Exported {trees} trees / {nodes} nodes over {width} features to {out_path}')
+
+
+if __name__ == '__main__':
+    main()
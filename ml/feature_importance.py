@@ -5,18 +5,20 @@ Extract feature importance from the trained RandomForest model
 
 import joblib
 import json
+import os
+import sys
 import warnings
 warnings.filterwarnings('ignore')
 
-MODEL_PATH = '/Users/john/Downloads/inventory/ml/demand_model.joblib'
+MODEL_PATH = os.path.join(os.path.dirname(os.path.abspath(__file__)), 'demand_model.joblib')
 
-def get_feature_importance():
+def get_feature_importance(model_path=MODEL_PATH):
     """
     Extract feature importance from the trained RandomForest model
     """
     try:
         # Load model data
-        model_data = joblib.load(MODEL_PATH)
+        model_data = joblib.load(model_path)
         
         # Get the original feature importance
         if 'feature_importance' in model_data:
@@ -55,4 +57,4 @@ def get_feature_importance():
         print(json.dumps({"error": str(e)}))
 
 if __name__ == "__main__":
-    get_feature_importance()
+    get_feature_importance(sys.argv[1] if len(sys.argv) > 1 else MODEL_PATH)
@@ -0,0 +1,68 @@
+#!/usr/bin/env python3
+"""
+Long-lived demand prediction worker.
+
+Loads the model once, then answers line-delimited JSON requests on stdin:
+
+    {"id": 1, "op": "predict", "rows": [{"product_id": 1, "current_stock": 40, "price": 9.99}]}
+    {"id": 2, "op": "ping"}
+
+Each request gets exactly one JSON line back on stdout carrying the same id.
+Diagnostics go to stderr so they never interleave with responses.
+"""
+
+import json
+import os
+import sys
+import warnings
+
+import joblib
+
+from demand_features import build_frame, adjust_for_stock
+
+warnings.filterwarnings('ignore')
+
+DEFAULT_MODEL_PATH = os.path.join(os.path.dirname(os.path.abspath(__file__)), 'demand_model.joblib')
+
+
+def respond(payload):
+    sys.stdout.write(json.dumps(payload) + '\n')
+    sys.stdout.flush()
+
+
+def predict(model_data, rows):
+    pipeline = model_data['model']
+    X = build_frame(rows, model_data['input_cols'])
+    raw = pipeline.predict(X)
+    return [adjust_for_stock(float(p), float(row.get('current_stock') if row.get('current_stock') is not None else 50))
+            for p, row in zip(raw, rows)]
+
+
+def main():
+    model_path = sys.argv[1] if len(sys.argv) > 1 else DEFAULT_MODEL_PATH
+    try:
+        model_data = joblib.load(model_path)
+    except Exception as e:
+        print(f"Failed to load model {model_path}: {e}", file=sys.stderr)
+        sys.exit(2)
+
+    respond({"ready": True, "model": model_path})
+
+    for line in sys.stdin:
+        line = line.strip()
+        if not line:
+            continue
+        request_id = None
+        try:
+            request = json.loads(line)
+            request_id = request.get('id')
+            if request.get('op') == 'ping':
+                respond({"id": request_id, "ok": True})
+            else:
+                respond({"id": request_id, "predictions": predict(model_data, request.get('rows') or [])})
+        except Exception as e:
+            respond({"id": request_id, "error": str(e)})
+
+
+if __name__ == "__main__":
+    main()
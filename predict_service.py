@@ -3,10 +3,18 @@ from pydantic import BaseModel
 import joblib
 import numpy as np
 import os
+import sys
+
+BASE_DIR = os.path.dirname(os.path.abspath(__file__))
+sys.path.insert(0, os.path.join(BASE_DIR, "ml"))
+from demand_features import build_frame, adjust_for_stock
 
 app = FastAPI(title="Demand Prediction Service")
 
-MODEL_PATH = os.path.join(os.path.dirname(__file__), "demand_model.joblib")
+MODEL_PATH = os.environ.get("DEMAND_MODEL_PATH") or next(
+    (p for p in (os.path.join(BASE_DIR, "demand_model.joblib"),
+                 os.path.join(BASE_DIR, "ml", "demand_model.joblib")) if os.path.exists(p)),
+    os.path.join(BASE_DIR, "demand_model.joblib"))
 model = None
 
 # Try to load model at startup
@@ -20,7 +28,10 @@ except Exception as e:
 class PredictRequest(BaseModel):
     # either send `features` as a 2D list [[f1,f2,...]] or a single flat list
     # or send a mapping {colName: value} matching the model's `input_cols`
-    features: object
+    features: object = None
+    # or send product rows {product_id, current_stock, price, sku_id}, scored
+    # in one call with the same features and stock adjustment as ml/predict_worker.py
+    rows: list = None
 
 class PredictResponse(BaseModel):
     predictions: list
@@ -35,6 +46,16 @@ def predict(req: PredictRequest):
         raise HTTPException(status_code=500, detail="Model not loaded")
     # normalize input to 2D; support dict input keyed by input_cols
     try:
+        if req.rows is not None:
+            if not (isinstance(model, dict) and 'input_cols' in model):
+                raise HTTPException(status_code=400, detail="Model does not expose input_cols; send features as list")
+            if not req.rows:
+                return {"predictions": []}
+            raw = model['model'].predict(build_frame(req.rows, model['input_cols']))
+            stocks = [r.get('current_stock') if r.get('current_stock') is not None else 50 for r in req.rows]
+            return {"predictions": [adjust_for_stock(float(p), float(s)) for p, s in zip(raw, stocks)]}
+        if req.features is None:
+            raise HTTPException(status_code=400, detail="Send either features or rows")
         if isinstance(req.features, dict):
             cols = model.get('input_cols') if isinstance(model, dict) and 'input_cols' in model else None
             if not cols: